@@ -4,9 +4,16 @@ import android.util.Base64
 import android.util.Base64.DEFAULT
 import com.goterl.lazysodium.interfaces.SecretStream
 import com.goterl.lazysodium.utils.KeyPair
+import okio.Buffer
+import okio.ForwardingSink
+import okio.blackholeSink
+import okio.buffer
+import okio.sink
+import okio.source
 import org.json.JSONObject
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedLoggingKey
@@ -14,9 +21,15 @@ import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedSecretStreamK
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptionUtils
 import org.wordpress.android.fluxc.model.encryptedlogging.LogEncrypter
 import org.wordpress.android.fluxc.model.encryptedlogging.SecretStreamKey
+import java.io.File
 import java.util.UUID
 import kotlin.random.Random.Default.nextInt
 
+private const val LARGE_LOG_SIZE = 100L * 1024 * 1024
+// Holding the log in memory would take five times as much
+private const val MAX_HEAP_GROWTH = 20L * 1024 * 1024
+private const val HEAP_SAMPLING_INTERVAL = 10L * 1024 * 1024
+
 class LogEncrypterTest {
     private lateinit var keypair: KeyPair
     private val logDecrypter: LogDecrypter = LogDecrypter()
@@ -89,10 +102,101 @@ class LogEncrypterTest {
         assertEquals(uuid, testUuid)
     }
 
+    @Test
+    fun testThatStreamedLogsCanBeDecrypted() {
+        val testLogString = (0..(nextInt(100) + 2)).joinToString(separator = "\r\n") { UUID.randomUUID().toString() }
+        withLogFile(testLogString + "\n") { file ->
+            val encryptedLog = Buffer()
+            createLogEncrypter().encrypt(file.source(), UUID.randomUUID().toString(), encryptedLog)
+
+            assertEquals(testLogString + "\n", decryptContent(encryptedLog.readUtf8()))
+        }
+    }
+
+    @Test
+    fun testThatLongLinesAreSplitIntoSeveralMessages() {
+        val testLogString = "a".repeat(200 * 1024)
+        withLogFile(testLogString) { file ->
+            val encryptedLog = Buffer()
+            createLogEncrypter().encrypt(file.source(), UUID.randomUUID().toString(), encryptedLog)
+            val encryptedText = encryptedLog.readUtf8()
+
+            assertEquals(
+                    "The line should be split into 64KB messages, followed by the closing tag",
+                    5,
+                    JSONObject(encryptedText).getJSONArray("messages").length()
+            )
+            assertEquals(testLogString, decryptContent(encryptedText))
+        }
+    }
+
+    @Test
+    fun testThatEncryptingLargeLogsUsesBoundedHeap() {
+        val logFile = File.createTempFile("encrypted-log-test", ".log")
+        try {
+            logFile.sink().buffer().use { sink ->
+                val line = "${UUID.randomUUID()} ".repeat(2) + "\n"
+                var logSize = 0L
+                while (logSize < LARGE_LOG_SIZE) {
+                    sink.writeUtf8(line)
+                    logSize += line.length
+                }
+            }
+            val initialHeapSize = getRetainedHeapSize()
+            var maxHeapSize = initialHeapSize
+            var encryptedLogSize = 0L
+            var nextSampleSize = HEAP_SAMPLING_INTERVAL
+            val measuringSink = object : ForwardingSink(blackholeSink()) {
+                override fun write(source: Buffer, byteCount: Long) {
+                    encryptedLogSize += byteCount
+                    if (encryptedLogSize >= nextSampleSize) {
+                        // Only what's still reachable after a GC counts, the garbage left by encryption doesn't
+                        maxHeapSize = maxOf(maxHeapSize, getRetainedHeapSize())
+                        nextSampleSize += HEAP_SAMPLING_INTERVAL
+                    }
+                    super.write(source, byteCount)
+                }
+            }
+
+            measuringSink.buffer().use { sink ->
+                createLogEncrypter().encrypt(logFile.source(), UUID.randomUUID().toString(), sink)
+            }
+
+            assertTrue("The whole log should be encrypted", encryptedLogSize > logFile.length())
+            assertTrue(
+                    "Encrypting the log shouldn't hold it in memory, but the heap grew by " +
+                            "${maxHeapSize - initialHeapSize} bytes",
+                    maxHeapSize - initialHeapSize < MAX_HEAP_GROWTH
+            )
+        } finally {
+            logFile.delete()
+        }
+    }
+
     // Helpers
 
+    private fun createLogEncrypter() = LogEncrypter(EncryptedLoggingKey(keypair.publicKey))
+
+    private fun getRetainedHeapSize(): Long {
+        val runtime = Runtime.getRuntime()
+        runtime.gc()
+        runtime.runFinalization()
+        runtime.gc()
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+
+    private fun withLogFile(contents: String, block: (File) -> Unit) {
+        val file = File.createTempFile("encrypted-log-test", ".log")
+        try {
+            file.writeText(contents)
+            block(file)
+        } finally {
+            file.delete()
+        }
+    }
+
     private fun encryptContent(content: String, uuid: String = UUID.randomUUID().toString()): String {
-        return LogEncrypter(EncryptedLoggingKey(keypair.publicKey)).encrypt(content, uuid)
+        return createLogEncrypter().encrypt(content, uuid)
     }
 
     private fun decryptContent(encryptedText: String): String {
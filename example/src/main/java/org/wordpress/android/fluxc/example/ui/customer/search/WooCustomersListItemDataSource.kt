@@ -109,7 +109,8 @@ class WooCustomersListItemDataSource @Inject constructor(
                 canLoadMore = payload.model?.size == PAGE_SIZE,
                 error = payload.error?.let { fetchError ->
                     ListError(type = GENERIC_ERROR, message = fetchError.message)
-                }
+                },
+                offset = offset
         )))
     }
 }
@@ -45,6 +45,7 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
         for (Class<? extends Identifiable> clazz : mStoreClassList) {
             helper.createTable(clazz);
         }
+        recreateFtsTables(db, mStoreClassList);
     }
 
     /**
@@ -58,5 +59,7 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
             db.execSQL("DROP TABLE " + table.getTableName());
             db.execSQL(table.createStatement());
         }
+        recreateFtsTables(db, mStoreClassList);
+        onTablesReset();
     }
 }
@@ -0,0 +1,45 @@
+package org.wordpress.android.fluxc.list
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.model.list.ListItemSnapshot
+
+internal class ListItemSnapshotTest {
+    private val snapshot = ListItemSnapshot(listOf(1L, 2L, 3L))
+
+    @Test
+    fun `appended items already in the list are ignored`() {
+        val updated = snapshot.withAppendedItems(listOf(3L, 4L, 4L, 5L))
+
+        assertThat(updated.remoteItemIds.map { it.value }).containsExactly(1L, 2L, 3L, 4L, 5L)
+        assertThat(updated.version).isEqualTo(snapshot.version + 1)
+        // The earlier snapshot is left untouched for the data sources still using it
+        assertThat(snapshot.remoteItemIds).containsExactly(RemoteId(1L), RemoteId(2L), RemoteId(3L))
+    }
+
+    @Test
+    fun `removed items are dropped from the list`() {
+        val updated = snapshot.withoutItems(listOf(2L, 10L))
+
+        assertThat(updated.remoteItemIds.map { it.value }).containsExactly(1L, 3L)
+        assertThat(updated.version).isEqualTo(snapshot.version + 1)
+        assertThat(updated.withAppendedItems(listOf(2L)).remoteItemIds.map { it.value }).containsExactly(1L, 3L, 2L)
+    }
+
+    @Test
+    fun `first page replaces the items of the list`() {
+        val updated = snapshot.withItems(listOf(5L, 1L, 5L))
+
+        assertThat(updated.remoteItemIds.map { it.value }).containsExactly(5L, 1L)
+        assertThat(updated.size).isEqualTo(2)
+        assertThat(updated.version).isEqualTo(snapshot.version + 1)
+    }
+
+    @Test
+    fun `changes without any effect keep the same snapshot`() {
+        assertThat(snapshot.withItems(listOf(1L, 2L, 3L))).isSameAs(snapshot)
+        assertThat(snapshot.withAppendedItems(listOf(2L))).isSameAs(snapshot)
+        assertThat(snapshot.withoutItems(listOf(4L))).isSameAs(snapshot)
+    }
+}
@@ -0,0 +1,213 @@
+package org.wordpress.android.fluxc.list
+
+import com.nhaarman.mockitokotlin2.mock
+import com.yarolegovich.wellsql.WellSql
+import kotlinx.coroutines.Dispatchers
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests
+import org.wordpress.android.fluxc.generated.ListActionBuilder
+import org.wordpress.android.fluxc.model.list.ListConfig
+import org.wordpress.android.fluxc.model.list.ListDescriptorTypeIdentifier
+import org.wordpress.android.fluxc.model.list.ListDescriptorUniqueIdentifier
+import org.wordpress.android.fluxc.model.list.ListItemModel
+import org.wordpress.android.fluxc.model.list.ListModel
+import org.wordpress.android.fluxc.model.list.ListState
+import org.wordpress.android.fluxc.persistence.ListItemSqlUtils
+import org.wordpress.android.fluxc.persistence.ListSqlUtils
+import org.wordpress.android.fluxc.store.ListStore
+import org.wordpress.android.fluxc.store.ListStore.FetchedListItemsPayload
+import org.wordpress.android.fluxc.store.ListStore.ListError
+import org.wordpress.android.fluxc.store.ListStore.ListErrorType
+import org.wordpress.android.fluxc.store.ListStore.ListFetchMetrics
+import org.wordpress.android.fluxc.tools.initCoroutineEngine
+
+@RunWith(RobolectricTestRunner::class)
+class ListStoreTest {
+    private val listSqlUtils = ListSqlUtils()
+    private val listItemSqlUtils = ListItemSqlUtils()
+    private val listStore = ListStore(
+            listSqlUtils = listSqlUtils,
+            listItemSqlUtils = listItemSqlUtils,
+            coroutineContext = Dispatchers.Unconfined,
+            coroutineEngine = initCoroutineEngine(),
+            dispatcher = mock()
+    )
+    private val listDescriptor = TestListDescriptor(
+            uniqueIdentifier = ListDescriptorUniqueIdentifier(1),
+            typeIdentifier = ListDescriptorTypeIdentifier(1),
+            config = ListConfig(
+                    networkPageSize = PAGE_SIZE,
+                    initialLoadSize = PAGE_SIZE,
+                    dbPageSize = PAGE_SIZE,
+                    prefetchDistance = 1,
+                    maxPagesAhead = 3
+            )
+    )
+    private lateinit var config: SingleStoreWellSqlConfigForTests
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+        config = SingleStoreWellSqlConfigForTests(
+                appContext,
+                listOf(ListModel::class.java, ListItemModel::class.java),
+                ""
+        )
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @After
+    fun tearDown() {
+        WellSql.closeDb()
+    }
+
+    @Test
+    fun `the snapshots and fetches of the lists are dropped when the tables are reset`() {
+        assertThat(fetchList(loadMore = false)).containsExactly(0L)
+        onFetched(listOf(1L, 2L), loadedMore = false, offset = 0L)
+        assertThat(fetchList(loadMore = true)).containsExactly(2L, 4L, 6L)
+        onFetched(listOf(3L, 4L), loadedMore = true, offset = 2L)
+        assertThat(listStore.getListFetchMetrics(listDescriptor).loadedMorePageCount).isEqualTo(1)
+
+        config.reset()
+
+        assertThat(listStore.getListFetchMetrics(listDescriptor)).isEqualTo(ListFetchMetrics(0, 0L, 0L))
+
+        // The next page follows the items in the DB, instead of the ones loaded before the reset
+        listSqlUtils.insertOrUpdateList(listDescriptor, ListState.CAN_LOAD_MORE)
+        val listId = requireNotNull(listSqlUtils.getList(listDescriptor)).id
+        listItemSqlUtils.insertItemList(listOf(ListItemModel(listId, 5L)))
+        assertThat(fetchList(loadMore = true)).containsExactly(1L, 3L, 5L)
+    }
+
+    @Test
+    fun `pages fetched ahead are added in the order they were requested`() {
+        fetchFirstPage()
+        assertThat(fetchList(loadMore = true)).containsExactly(2L, 4L, 6L)
+
+        onFetched(listOf(5L, 6L), loadedMore = true, offset = 4L)
+        assertThat(getListItems()).containsExactly(1L, 2L)
+
+        onFetched(listOf(3L, 4L), loadedMore = true, offset = 2L)
+        assertThat(getListItems()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L)
+        assertThat(getListState()).isEqualTo(ListState.LOADING_MORE)
+
+        onFetched(listOf(7L, 8L), loadedMore = true, offset = 6L)
+        assertThat(getListItems()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L)
+        assertThat(getListState()).isEqualTo(ListState.CAN_LOAD_MORE)
+    }
+
+    @Test
+    fun `pages requested after a page that couldn't be fetched are discarded`() {
+        fetchFirstPage()
+        fetchList(loadMore = true)
+
+        onFetched(emptyList(), loadedMore = true, offset = 2L, error = ListError(ListErrorType.GENERIC_ERROR))
+        onFetched(listOf(5L, 6L), loadedMore = true, offset = 4L)
+
+        assertThat(getListItems()).containsExactly(1L, 2L)
+        assertThat(getListState()).isEqualTo(ListState.ERROR)
+    }
+
+    @Test
+    fun `pages requested after a short page are discarded`() {
+        fetchFirstPage()
+        fetchList(loadMore = true)
+
+        onFetched(listOf(3L), loadedMore = true, offset = 2L)
+        onFetched(listOf(5L, 6L), loadedMore = true, offset = 4L)
+
+        assertThat(getListItems()).containsExactly(1L, 2L, 3L)
+        // The next page follows the short page
+        assertThat(fetchList(loadMore = true)).containsExactly(3L, 5L, 7L)
+    }
+
+    @Test
+    fun `pages requested before the list was refreshed are ignored`() {
+        fetchFirstPage()
+        fetchList(loadMore = true)
+
+        assertThat(fetchList(loadMore = false)).containsExactly(0L)
+        onFetched(listOf(3L, 4L), loadedMore = true, offset = 2L)
+        assertThat(getListItems()).containsExactly(1L, 2L)
+
+        onFetched(listOf(9L, 10L), loadedMore = false, offset = 0L)
+        assertThat(getListItems()).containsExactly(9L, 10L)
+        assertThat(getListState()).isEqualTo(ListState.CAN_LOAD_MORE)
+    }
+
+    @Test
+    fun `pages without an offset are added as the next page being fetched`() {
+        fetchList(loadMore = false)
+        onFetched(listOf(1L, 2L), loadedMore = false, offset = null)
+        fetchList(loadMore = true)
+
+        onFetched(listOf(3L, 4L), loadedMore = true, offset = null)
+        onFetched(listOf(5L, 6L), loadedMore = true, offset = null)
+
+        assertThat(getListItems()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L)
+        assertThat(getListState()).isEqualTo(ListState.LOADING_MORE)
+    }
+
+    @Test
+    fun `the placeholder dwell time is measured for the pages loaded at the end of the list`() {
+        fetchFirstPage()
+        assertThat(listStore.getListFetchMetrics(listDescriptor)).isEqualTo(ListFetchMetrics(0, 0L, 0L))
+
+        fetchList(loadMore = true)
+        Thread.sleep(DWELL_TIME_MS)
+        onFetched(listOf(3L, 4L), loadedMore = true, offset = 2L)
+        // The pages fetched ahead are added right away, after the end of the list moved
+        onFetched(listOf(5L, 6L), loadedMore = true, offset = 4L)
+
+        with(listStore.getListFetchMetrics(listDescriptor)) {
+            assertThat(loadedMorePageCount).isEqualTo(1)
+            assertThat(totalPlaceholderDwellMillis).isGreaterThanOrEqualTo(DWELL_TIME_MS)
+            assertThat(maxPlaceholderDwellMillis).isEqualTo(totalPlaceholderDwellMillis)
+        }
+    }
+
+    private fun fetchFirstPage() {
+        fetchList(loadMore = false)
+        onFetched(listOf(1L, 2L), loadedMore = false, offset = 0L)
+    }
+
+    private fun fetchList(loadMore: Boolean): List<Long> {
+        val offsets = ArrayList<Long>()
+        listStore.handleFetchList(listDescriptor, loadMore) { offsets.add(it) }
+        return offsets
+    }
+
+    private fun getListItems(): List<Long> {
+        val listId = listSqlUtils.getList(listDescriptor)?.id ?: return emptyList()
+        return listItemSqlUtils.getListItems(listId).map { it.remoteItemId }
+    }
+
+    private fun getListState(): ListState {
+        val stateDbValue = requireNotNull(listSqlUtils.getList(listDescriptor)).stateDbValue
+        return ListState.values().first { it.value == stateDbValue }
+    }
+
+    private fun onFetched(
+        remoteItemIds: List<Long>,
+        loadedMore: Boolean,
+        offset: Long?,
+        canLoadMore: Boolean = true,
+        error: ListError? = null
+    ) {
+        val payload = FetchedListItemsPayload(listDescriptor, remoteItemIds, loadedMore, canLoadMore, error, offset)
+        listStore.onAction(ListActionBuilder.newFetchedListItemsAction(payload))
+    }
+
+    private companion object {
+        const val PAGE_SIZE = 2
+        const val DWELL_TIME_MS = 20L
+    }
+}
@@ -16,11 +16,16 @@ import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.persistence.MediaSqlUtils;
+import org.wordpress.android.fluxc.persistence.TableIndex;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.utils.MimeType.Type;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +35,9 @@ import static org.wordpress.android.fluxc.store.MediaStore.NOT_DELETED_STATES;
 public class MediaSqlUtilsTest {
     private static final int TEST_LOCAL_SITE_ID = 42;
     private static final int SMALL_TEST_POOL = 10;
+    private static final int BENCHMARK_LIBRARY_SIZE = 10000;
+    private static final int BENCHMARK_PAGE_SIZE = 100;
+    private static final int BENCHMARK_PAGE_COUNT = 20;
 
     private Random mRandom = new Random(System.currentTimeMillis());
 
@@ -424,6 +432,221 @@ public class MediaSqlUtilsTest {
         assertThat(mediaModel.getLocalSiteId()).isEqualTo(finalMedia.getLocalSiteId());
     }
 
+    @Test
+    public void testInsertOrUpdateFetchedSiteMedia() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        long[] existingIds = insertBasicTestItems(SMALL_TEST_POOL);
+
+        // Half of the fetched media are already in the db, the other half are new
+        List<MediaModel> fetchedMedia = new ArrayList<>();
+        for (int i = 0; i < SMALL_TEST_POOL; ++i) {
+            long mediaId = i % 2 == 0 ? existingIds[i] : Math.abs(mRandom.nextLong());
+            MediaModel media = getTestMedia(mediaId, "fetched-" + i, null, null);
+            media.setUploadState(MediaUploadState.UPLOADED);
+            fetchedMedia.add(media);
+        }
+
+        assertThat(MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, fetchedMedia)).isEqualTo(SMALL_TEST_POOL);
+        assertThat(MediaSqlUtils.getAllSiteMedia(site)).hasSize(SMALL_TEST_POOL + SMALL_TEST_POOL / 2);
+        for (MediaModel media : fetchedMedia) {
+            // Both the existing and the inserted media get their local ID
+            assertThat(media.getId()).isNotEqualTo(0);
+            List<MediaModel> storedMedia = MediaSqlUtils.getSiteMediaWithId(site, media.getMediaId());
+            assertThat(storedMedia).hasSize(1);
+            assertThat(storedMedia.get(0).getId()).isEqualTo(media.getId());
+            assertThat(storedMedia.get(0).getTitle()).isEqualTo(media.getTitle());
+        }
+    }
+
+    @Test
+    public void testReplaceFetchedSiteMedia() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        long[] existingIds = insertBasicTestItems(SMALL_TEST_POOL);
+
+        // The first page only holds two of the existing media, and a new one
+        List<MediaModel> fetchedMedia = new ArrayList<>();
+        for (long mediaId : new long[]{existingIds[0], existingIds[1], Math.abs(mRandom.nextLong())}) {
+            MediaModel media = getTestMedia(mediaId);
+            media.setUploadState(MediaUploadState.UPLOADED);
+            fetchedMedia.add(media);
+        }
+
+        assertThat(MediaSqlUtils.replaceFetchedSiteMedia(site, fetchedMedia, "")).isEqualTo(3);
+        List<MediaModel> storedMedia = MediaSqlUtils.getAllSiteMedia(site);
+        assertThat(storedMedia).hasSize(3);
+        List<Long> storedMediaIds = new ArrayList<>();
+        for (MediaModel media : storedMedia) {
+            storedMediaIds.add(media.getMediaId());
+        }
+        assertThat(storedMediaIds).containsExactlyInAnyOrder(
+                fetchedMedia.get(0).getMediaId(), fetchedMedia.get(1).getMediaId(), fetchedMedia.get(2).getMediaId());
+    }
+
+    @Test
+    public void testFetchedSiteMediaReconciliationBenchmark() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        List<MediaModel> library = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_LIBRARY_SIZE; ++i) {
+            MediaModel media = getTestMedia(i + 1);
+            media.setUploadState(MediaUploadState.UPLOADED);
+            library.add(media);
+        }
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, library);
+
+        // Sync pages of media, half of them already in the library
+        int rowsAffected = 0;
+        for (int page = 0; page < BENCHMARK_PAGE_COUNT; ++page) {
+            List<MediaModel> fetchedMedia = new ArrayList<>();
+            for (int i = 0; i < BENCHMARK_PAGE_SIZE; ++i) {
+                long mediaId = page * BENCHMARK_PAGE_SIZE + i + 1;
+                if (i % 2 != 0) {
+                    mediaId += BENCHMARK_LIBRARY_SIZE;
+                }
+                MediaModel media = getTestMedia(mediaId);
+                media.setUploadState(MediaUploadState.UPLOADED);
+                fetchedMedia.add(media);
+            }
+            rowsAffected += MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, fetchedMedia);
+        }
+
+        assertThat(rowsAffected).isEqualTo(BENCHMARK_PAGE_COUNT * BENCHMARK_PAGE_SIZE);
+        assertThat(MediaSqlUtils.getAllSiteMedia(site))
+                .hasSize(BENCHMARK_LIBRARY_SIZE + BENCHMARK_PAGE_COUNT * BENCHMARK_PAGE_SIZE / 2);
+    }
+
+    @Test
+    public void testGetSiteMediaByMimeClass() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel image = getTestMedia(1);
+        image.setMimeType("IMAGE/JPEG");
+        MediaModel video = getTestMedia(2);
+        video.setMimeType("video/mp4");
+        MediaModel document = getTestMedia(3);
+        document.setMimeType("application/pdf");
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, Arrays.asList(image, video, document));
+
+        List<MediaModel> images = MediaSqlUtils.getSiteImages(site);
+        assertThat(images).hasSize(1);
+        assertThat(images.get(0).getMediaId()).isEqualTo(1);
+        assertThat(images.get(0).getMimeClass()).isEqualTo(Type.IMAGE.getValue());
+        assertThat(MediaSqlUtils.getSiteVideos(site)).extracting("mediaId").containsExactly(2L);
+        assertThat(MediaSqlUtils.getSiteDocuments(site)).extracting("mediaId").containsExactly(3L);
+        assertThat(MediaSqlUtils.getSiteAudio(site)).isEmpty();
+    }
+
+    @Test
+    public void testSearchSiteMediaMatchesWordPrefixes() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel beach = getTestMedia(1, "Beach", "Sunset over the sea", "");
+        beach.setMimeType("image/jpeg");
+        MediaModel mountain = getTestMedia(2, "Mountain", "", "Hiking trip");
+        mountain.setMimeType("video/mp4");
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, Arrays.asList(beach, mountain));
+
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "sun")).extracting("mediaId").containsExactly(1L);
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "hiking TRIP")).extracting("mediaId").containsExactly(2L);
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "mp4")).extracting("mediaId").containsExactly(2L);
+        assertThat(MediaSqlUtils.searchSiteImages(site, "hiking")).isEmpty();
+        assertThat(MediaSqlUtils.searchSiteVideos(site, "hiking")).extracting("mediaId").containsExactly(2L);
+
+        // The index is kept in sync with the media
+        mountain.setCaption("Climbing trip");
+        MediaSqlUtils.insertOrUpdateMedia(mountain);
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "hiking")).isEmpty();
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "climb")).extracting("mediaId").containsExactly(2L);
+    }
+
+    @Test
+    public void testGetSiteMediaPage() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        List<MediaModel> library = new ArrayList<>();
+        for (int i = 0; i < SMALL_TEST_POOL * 3; ++i) {
+            MediaModel media = getTestMedia(i + 1);
+            media.setMimeType(i % 3 == 0 ? "video/mp4" : "image/jpeg");
+            // Several media share the same upload date, and a few don't have any
+            if (i < SMALL_TEST_POOL * 3 - 4) {
+                media.setUploadDate(String.format(Locale.US, "2020-01-%02dT00:00:00+00:00", i / 4 + 1));
+            }
+            library.add(media);
+        }
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, library);
+
+        List<MediaModel> expectedMedia = new ArrayList<>(library);
+        Collections.sort(expectedMedia, new Comparator<MediaModel>() {
+            @Override
+            public int compare(MediaModel media1, MediaModel media2) {
+                // Most recent first, then the media without an upload date, then the last saved first
+                String date1 = media1.getUploadDate();
+                String date2 = media2.getUploadDate();
+                if (date1 == null ? date2 != null : !date1.equals(date2)) {
+                    if (date1 == null) return 1;
+                    if (date2 == null) return -1;
+                    return date2.compareTo(date1);
+                }
+                return media2.getId() - media1.getId();
+            }
+        });
+        assertThat(getAllSiteMediaPages(site, null, null, 7)).extracting("mediaId")
+                .containsExactlyElementsOf(getMediaIds(expectedMedia));
+
+        List<MediaModel> expectedVideos = new ArrayList<>();
+        for (MediaModel media : expectedMedia) {
+            if (Type.VIDEO.getValue().equals(media.getMimeClass())) {
+                expectedVideos.add(media);
+            }
+        }
+        assertThat(getAllSiteMediaPages(site, Type.VIDEO, null, 3)).extracting("mediaId")
+                .containsExactlyElementsOf(getMediaIds(expectedVideos));
+    }
+
+    @Test
+    public void testGetSiteMediaPageMatchesSearchTerm() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        List<MediaModel> library = new ArrayList<>();
+        for (int i = 0; i < SMALL_TEST_POOL; ++i) {
+            MediaModel media = getTestMedia(i + 1, i % 2 == 0 ? "Even" : "Odd", "", "");
+            media.setMimeType("image/png");
+            media.setUploadDate(String.format(Locale.US, "2020-01-%02dT00:00:00+00:00", i + 1));
+            library.add(media);
+        }
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, library);
+
+        assertThat(getAllSiteMediaPages(site, Type.IMAGE, "eve", 2)).extracting("mediaId")
+                .containsExactly(9L, 7L, 5L, 3L, 1L);
+    }
+
+    @Test
+    public void testSearchSiteMediaFallsBackToSubstringsForTextWrittenWithoutSpaces() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel temple = getTestMedia(1, "京都の寺", "", "");
+        temple.setMimeType("image/jpeg");
+        temple.setUploadDate("2020-01-01T00:00:00+00:00");
+        MediaModel beach = getTestMedia(2, "ชายหาดภูเก็ต", "", "");
+        beach.setMimeType("image/jpeg");
+        beach.setUploadDate("2020-01-02T00:00:00+00:00");
+        MediaSqlUtils.insertOrUpdateFetchedSiteMedia(site, Arrays.asList(temple, beach));
+
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "都の")).extracting("mediaId").containsExactly(1L);
+        assertThat(MediaSqlUtils.searchSiteImages(site, "ภูเก็ต")).extracting("mediaId").containsExactly(2L);
+        assertThat(getAllSiteMediaPages(site, Type.IMAGE, "ภูเก็ต", 2)).extracting("mediaId").containsExactly(2L);
+    }
+
+    @Test
+    public void testGetSiteMediaPageUsesMimeClassIndex() {
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery("EXPLAIN QUERY PLAN SELECT _id FROM MediaModel"
+                + " WHERE LOCAL_SITE_ID = ? AND MIME_CLASS = ? AND UPLOAD_DATE <= ?"
+                + " ORDER BY UPLOAD_DATE DESC, _id DESC LIMIT 10", new String[]{"42", "image", "2020"});
+        StringBuilder plan = new StringBuilder();
+        try {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndex("detail")));
+            }
+        } finally {
+            cursor.close();
+        }
+        assertThat(plan.toString()).contains(TableIndex.MEDIA_MODEL_SITE_MIME_CLASS_UPLOAD_DATE.getIndexName());
+    }
+
     // Utilities
 
     private long[] insertBasicTestItems(int num) {
@@ -466,6 +689,25 @@ public class MediaSqlUtilsTest {
         return media;
     }
 
+    private List<MediaModel> getAllSiteMediaPages(SiteModel site, Type mimeClass, String searchTerm, int pageSize) {
+        List<MediaModel> allMedia = new ArrayList<>();
+        List<MediaModel> page = MediaSqlUtils.getSiteMediaPage(site, mimeClass, searchTerm, null, pageSize);
+        while (!page.isEmpty()) {
+            assertThat(page.size()).isLessThanOrEqualTo(pageSize);
+            allMedia.addAll(page);
+            page = MediaSqlUtils.getSiteMediaPage(site, mimeClass, searchTerm, page.get(page.size() - 1), pageSize);
+        }
+        return allMedia;
+    }
+
+    private List<Long> getMediaIds(List<MediaModel> mediaList) {
+        List<Long> mediaIds = new ArrayList<>();
+        for (MediaModel media : mediaList) {
+            mediaIds.add(media.getMediaId());
+        }
+        return mediaIds;
+    }
+
     private String getTestString() {
         return "BaseTestString-" + mRandom.nextInt();
     }
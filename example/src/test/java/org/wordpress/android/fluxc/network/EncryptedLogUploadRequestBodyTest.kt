@@ -0,0 +1,68 @@
+package org.wordpress.android.fluxc.network
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.mock
+import okio.Buffer
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.catchThrowable
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.wordpress.android.fluxc.model.encryptedlogging.LogEncrypter
+import org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody.EncryptionFailedException
+import org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody.EncryptionUnavailableException
+import java.io.File
+import java.io.IOException
+
+class EncryptedLogUploadRequestBodyTest {
+    private lateinit var file: File
+
+    @Before
+    fun setUp() {
+        file = File.createTempFile("encrypted-log-test", ".log")
+    }
+
+    @After
+    fun tearDown() {
+        file.delete()
+    }
+
+    @Test
+    fun `encryption failures are thrown as IOExceptions`() {
+        val failure = IllegalStateException("Couldn't initialize the stream")
+
+        val thrown = writeRequestBody(failure)
+
+        assertThat(thrown).isInstanceOf(EncryptionFailedException::class.java).hasCause(failure)
+    }
+
+    @Test
+    fun `a missing encryption library is thrown as an IOException`() {
+        val thrown = writeRequestBody(UnsatisfiedLinkError())
+
+        assertThat(thrown).isInstanceOf(EncryptionUnavailableException::class.java)
+    }
+
+    @Test
+    fun `network failures are thrown as is`() {
+        val failure = IOException("Connection reset")
+
+        val thrown = writeRequestBody(failure)
+
+        assertThat(thrown).isSameAs(failure)
+    }
+
+    private fun writeRequestBody(failure: Throwable): Throwable? {
+        val logEncrypter = mock<LogEncrypter> {
+            // Kotlin doesn't declare the checked exceptions, which doThrow refuses
+            on { encrypt(any(), any(), any()) } doAnswer { throw failure }
+        }
+        val requestBody = EncryptedLogUploadRequestBody(file, UUID, logEncrypter)
+        return catchThrowable { requestBody.writeTo(Buffer()) }
+    }
+
+    private companion object {
+        const val UUID = "8c3ab3a7-c8fc-4a9c-b8d3-5f0a0c5f1d6e"
+    }
+}
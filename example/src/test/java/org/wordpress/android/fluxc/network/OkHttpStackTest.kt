@@ -0,0 +1,42 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.OkHttpClient
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class OkHttpStackTest {
+    private val baseClient = OkHttpClient()
+    private val stack = OkHttpStack(baseClient)
+
+    @Test
+    fun `reuses the same client for requests with the same timeout`() {
+        val first = stack.getClientForTimeout(TIMEOUT_MS)
+        val second = stack.getClientForTimeout(TIMEOUT_MS)
+
+        assertThat(second).isSameAs(first)
+    }
+
+    @Test
+    fun `builds a client per distinct timeout`() {
+        val short = stack.getClientForTimeout(TIMEOUT_MS)
+        val long = stack.getClientForTimeout(TIMEOUT_MS * 2)
+
+        assertThat(long).isNotSameAs(short)
+        assertThat(short.readTimeoutMillis).isEqualTo(TIMEOUT_MS)
+        assertThat(short.connectTimeoutMillis).isEqualTo(TIMEOUT_MS)
+        assertThat(short.writeTimeoutMillis).isEqualTo(TIMEOUT_MS)
+        assertThat(long.readTimeoutMillis).isEqualTo(TIMEOUT_MS * 2)
+    }
+
+    @Test
+    fun `timeout aware clients share the connection pool and dispatcher`() {
+        val client = stack.getClientForTimeout(TIMEOUT_MS)
+
+        assertThat(client.connectionPool).isSameAs(baseClient.connectionPool)
+        assertThat(client.dispatcher).isSameAs(baseClient.dispatcher)
+    }
+
+    private companion object {
+        const val TIMEOUT_MS = 30_000
+    }
+}
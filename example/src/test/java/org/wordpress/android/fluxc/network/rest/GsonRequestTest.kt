@@ -0,0 +1,88 @@
+package org.wordpress.android.fluxc.network.rest
+
+import com.android.volley.NetworkResponse
+import com.android.volley.ParseError
+import com.android.volley.Response.Listener
+import com.nhaarman.mockitokotlin2.mock
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class GsonRequestTest {
+    class TestResponse {
+        var title: String? = null
+        var count: Int = 0
+    }
+
+    class TestObjectOrFalseResponse : JsonObjectOrFalse() {
+        @JvmField var title: String? = null
+    }
+
+    class TestWrapperResponse {
+        var result: TestObjectOrFalseResponse? = null
+    }
+
+    @Test
+    fun testParsesResponseWithTheCharsetOfTheHeaders() {
+        val json = "{\"title\":\"Café\",\"count\":3}"
+
+        val response = buildRequest(TestResponse::class.java).parseNetworkResponse(
+                NetworkResponse(200, json.toByteArray(Charsets.ISO_8859_1), mapOf(CONTENT_TYPE to LATIN_1), false)
+        )
+
+        assertTrue(response.isSuccess)
+        assertEquals("Café", response.result.title)
+        assertEquals(3, response.result.count)
+    }
+
+    @Test
+    fun testDefaultsToUtf8() {
+        val json = "{\"title\":\"日本語\"}"
+
+        val response = buildRequest(TestResponse::class.java).parseNetworkResponse(
+                NetworkResponse(200, json.toByteArray(Charsets.UTF_8), mapOf(CONTENT_TYPE to JSON), false)
+        )
+
+        assertEquals("日本語", response.result.title)
+    }
+
+    @Test
+    fun testUsesTheCustomDeserializers() {
+        val request = buildRequest(TestWrapperResponse::class.java)
+
+        val objectResponse = request.parseNetworkResponse(buildResponse("{\"result\":{\"title\":\"a title\"}}"))
+        assertEquals("a title", objectResponse.result.result?.title)
+
+        val falseResponse = request.parseNetworkResponse(buildResponse("{\"result\":false}"))
+        assertTrue(falseResponse.isSuccess)
+        assertNull(falseResponse.result.result)
+    }
+
+    @Test
+    fun testReturnsParseErrorForMalformedOrTrailingJson() {
+        val request = buildRequest(TestResponse::class.java)
+
+        assertTrue(request.parseNetworkResponse(buildResponse("{\"title\":")).error is ParseError)
+        assertTrue(request.parseNetworkResponse(buildResponse("{\"title\":\"a\"} {}")).error is ParseError)
+    }
+
+    private fun <T> buildRequest(clazz: Class<T>): WPComGsonRequest<T> {
+        val url = WPCOMREST.sites.site(123).posts.urlV1_1
+        return WPComGsonRequest.buildGetRequest(url, null, clazz, mock<Listener<T>>(), mock())
+    }
+
+    private fun buildResponse(json: String) =
+            NetworkResponse(200, json.toByteArray(Charsets.UTF_8), mapOf(CONTENT_TYPE to JSON), false)
+
+    private companion object {
+        const val CONTENT_TYPE = "Content-Type"
+        const val JSON = "application/json; charset=utf-8"
+        const val LATIN_1 = "application/json; charset=ISO-8859-1"
+    }
+}
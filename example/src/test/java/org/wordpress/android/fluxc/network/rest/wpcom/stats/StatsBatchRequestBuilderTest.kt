@@ -0,0 +1,208 @@
+package org.wordpress.android.fluxc.network.rest.wpcom.stats
+
+import com.google.gson.Gson
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import com.nhaarman.mockitokotlin2.KArgumentCaptor
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import kotlinx.coroutines.CoroutineStart.UNDISPATCHED
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.async
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.Mock
+import org.mockito.junit.MockitoJUnitRunner
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.AUTHORIZATION_REQUIRED
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.NETWORK_ERROR
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.UNKNOWN
+import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Error
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.StatsBatchRequestBuilder.StatsBatchMetrics
+import org.wordpress.android.fluxc.test
+
+private const val API_URL = "https://public-api.wordpress.com/rest/v1.1"
+private const val BATCH_URL = "$API_URL/batch/"
+private const val REFERRERS_PATH = "/sites/12/stats/referrers/?period=day&date=2020-01-01"
+private const val CLICKS_PATH = "/sites/12/stats/clicks/?period=day&date=2020-01-01"
+
+@ExperimentalCoroutinesApi
+@RunWith(MockitoJUnitRunner::class)
+class StatsBatchRequestBuilderTest {
+    @Mock private lateinit var wpComGsonRequestBuilder: WPComGsonRequestBuilder
+    private lateinit var paramsCaptor: KArgumentCaptor<Map<String, String>>
+    private lateinit var batchRequestBuilder: StatsBatchRequestBuilder
+    private val restClient = mock<BaseWPComRestClient>()
+    private val params = mapOf("period" to "day", "date" to "2020-01-01")
+
+    @Before
+    fun setUp() {
+        paramsCaptor = argumentCaptor()
+        batchRequestBuilder = StatsBatchRequestBuilder(wpComGsonRequestBuilder, Gson(), Dispatchers.Unconfined)
+    }
+
+    @Test
+    fun `requests issued together are sent in a single batch`() = test {
+        initBatchResponse(
+                """{
+                    "$REFERRERS_PATH": {"views": 10},
+                    "$CLICKS_PATH": {"error": "unauthorized", "message": "User cannot access this private blog."}
+                }"""
+        )
+
+        val referrers = async(start = UNDISPATCHED) { fetch("referrers") }
+        val clicks = async(start = UNDISPATCHED) { fetch("clicks") }
+
+        assertThat(referrers.await()).isEqualTo(Success(TestResponse(10)))
+        val error = (clicks.await() as Error).error
+        assertThat(error.type).isEqualTo(AUTHORIZATION_REQUIRED)
+        assertThat(error.apiError).isEqualTo("unauthorized")
+        assertThat(error.message).isEqualTo("User cannot access this private blog.")
+        assertThat(paramsCaptor.lastValue).isEqualTo(mapOf("urls[0]" to REFERRERS_PATH, "urls[1]" to CLICKS_PATH))
+        assertThat(batchRequestBuilder.getMetrics()).isEqualTo(StatsBatchMetrics(1, 2, 0))
+    }
+
+    @Test
+    fun `identical requests share a sub-request`() = test {
+        initBatchResponse("""{"$REFERRERS_PATH": {"views": 10}}""")
+
+        val first = async(start = UNDISPATCHED) { fetch("referrers") }
+        val second = async(start = UNDISPATCHED) { fetch("referrers") }
+
+        assertThat(first.await()).isEqualTo(Success(TestResponse(10)))
+        assertThat(second.await()).isEqualTo(Success(TestResponse(10)))
+        assertThat(paramsCaptor.lastValue).isEqualTo(mapOf("urls[0]" to REFERRERS_PATH))
+    }
+
+    @Test
+    fun `sub-requests carry the locale of the rest client`() = test {
+        whenever(restClient.getLocaleParams(any())).thenReturn(mapOf("locale" to "fr"))
+        initBatchResponse(
+                """{
+                    "$REFERRERS_PATH&locale=fr": {"views": 10},
+                    "$CLICKS_PATH&locale=fr": {"views": 20}
+                }"""
+        )
+
+        val referrers = async(start = UNDISPATCHED) { fetch("referrers") }
+        val clicks = async(start = UNDISPATCHED) { fetch("clicks") }
+
+        assertThat(referrers.await()).isEqualTo(Success(TestResponse(10)))
+        assertThat(clicks.await()).isEqualTo(Success(TestResponse(20)))
+        assertThat(paramsCaptor.lastValue).isEqualTo(
+                mapOf("urls[0]" to "$REFERRERS_PATH&locale=fr", "urls[1]" to "$CLICKS_PATH&locale=fr")
+        )
+    }
+
+    @Test
+    fun `sub-requests missing from the response fail`() = test {
+        initBatchResponse("""{"$REFERRERS_PATH": {"views": 10}}""")
+
+        val referrers = async(start = UNDISPATCHED) { fetch("referrers") }
+        val clicks = async(start = UNDISPATCHED) { fetch("clicks") }
+
+        assertThat(referrers.await()).isInstanceOf(Success::class.java)
+        assertThat(clicks.await()).isInstanceOf(Error::class.java)
+    }
+
+    @Test
+    fun `a failing batch fails all its sub-requests`() = test {
+        val batchError = WPComGsonNetworkError(BaseNetworkError(NETWORK_ERROR))
+        whenever(
+                wpComGsonRequestBuilder.syncGetRequest(
+                        eq(restClient),
+                        eq(BATCH_URL),
+                        any(),
+                        eq(JsonObject::class.java),
+                        eq(false),
+                        any(),
+                        eq(false)
+                )
+        ).thenReturn(Error(batchError))
+
+        val referrers = async(start = UNDISPATCHED) { fetch("referrers") }
+        val clicks = async(start = UNDISPATCHED) { fetch("clicks") }
+
+        assertThat(referrers.await()).isEqualTo(Error<TestResponse>(batchError))
+        assertThat(clicks.await()).isEqualTo(Error<TestResponse>(batchError))
+    }
+
+    @Test
+    fun `a batch that couldn't be sent fails all its sub-requests`() = test {
+        whenever(
+                wpComGsonRequestBuilder.syncGetRequest(
+                        eq(restClient),
+                        eq(BATCH_URL),
+                        any(),
+                        eq(JsonObject::class.java),
+                        eq(false),
+                        any(),
+                        eq(false)
+                )
+        ).thenThrow(IllegalStateException("Request queue is stopped"))
+
+        val referrers = async(start = UNDISPATCHED) { fetch("referrers") }
+        val clicks = async(start = UNDISPATCHED) { fetch("clicks") }
+
+        listOf(referrers.await(), clicks.await()).forEach {
+            val error = (it as Error).error
+            assertThat(error.type).isEqualTo(UNKNOWN)
+            assertThat(error.message).isEqualTo("Request queue is stopped")
+        }
+    }
+
+    @Test
+    fun `a request left alone is sent as is`() = test {
+        val url = "$API_URL/sites/12/stats/referrers/"
+        whenever(
+                wpComGsonRequestBuilder.syncGetRequest(
+                        eq(restClient),
+                        eq(url),
+                        eq(params),
+                        eq(TestResponse::class.java),
+                        eq(false),
+                        any(),
+                        eq(false)
+                )
+        ).thenReturn(Success(TestResponse(10)))
+
+        assertThat(fetch("referrers")).isEqualTo(Success(TestResponse(10)))
+        assertThat(batchRequestBuilder.getMetrics()).isEqualTo(StatsBatchMetrics(0, 0, 1))
+    }
+
+    private suspend fun fetch(block: String): Response<TestResponse> {
+        return batchRequestBuilder.syncGetRequest(
+                restClient,
+                "$API_URL/sites/12/stats/$block/",
+                params,
+                TestResponse::class.java
+        )
+    }
+
+    private suspend fun initBatchResponse(json: String) {
+        whenever(
+                wpComGsonRequestBuilder.syncGetRequest(
+                        eq(restClient),
+                        eq(BATCH_URL),
+                        paramsCaptor.capture(),
+                        eq(JsonObject::class.java),
+                        eq(false),
+                        any(),
+                        eq(false)
+                )
+        ).thenReturn(Success(JsonParser().parse(json).asJsonObject))
+    }
+
+    private data class TestResponse(val views: Int?)
+}
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.network.rest.wpcom.stats.time
 
 import com.android.volley.RequestQueue
 import com.android.volley.VolleyError
+import com.google.gson.Gson
 import com.nhaarman.mockitokotlin2.KArgumentCaptor
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.argumentCaptor
@@ -9,6 +10,7 @@ import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.isNull
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.whenever
+import kotlinx.coroutines.Dispatchers
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -25,6 +27,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.StatsBatchRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.CountryViewsRestClient.CountryViewsResponse
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
 import org.wordpress.android.fluxc.network.utils.StatsGranularity.DAYS
@@ -58,7 +61,7 @@ class CountryViewsRestClientTest {
         paramsCaptor = argumentCaptor()
         restClient = CountryViewsRestClient(
                 dispatcher,
-                wpComGsonRequestBuilder,
+                StatsBatchRequestBuilder(wpComGsonRequestBuilder, Gson(), Dispatchers.Unconfined),
                 null,
                 requestQueue,
                 accessToken,
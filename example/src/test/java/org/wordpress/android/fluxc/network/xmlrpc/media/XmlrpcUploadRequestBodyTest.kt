@@ -0,0 +1,64 @@
+package org.wordpress.android.fluxc.network.xmlrpc.media
+
+import android.util.Base64
+import okio.Buffer
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.model.MediaModel
+import org.wordpress.android.fluxc.model.SiteModel
+import kotlin.random.Random
+
+@RunWith(RobolectricTestRunner::class)
+class XmlrpcUploadRequestBodyTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
+    @Test
+    fun `encoded size matches android Base64 for all remainders`() {
+        listOf(0, 1, 2, 3, 56, 57, 58, 114, 3600, 3648, 3649, 10_000).forEach { size ->
+            val expected = Base64.encode(Random.nextBytes(size), Base64.DEFAULT).size.toLong()
+
+            assertThat(XmlrpcUploadRequestBody.getBase64EncodedSize(size.toLong())).isEqualTo(expected)
+        }
+    }
+
+    @Test
+    fun `encoded chunk matches android Base64`() {
+        listOf(1, 2, 3, 56, 57, 58, 200, 3648).forEach { size ->
+            val input = Random.nextBytes(size)
+            val output = ByteArray(size / 57 * 77 + 77)
+
+            val length = XmlrpcUploadRequestBody.encodeBase64Chunk(input, size, output)
+
+            assertThat(output.copyOf(length)).isEqualTo(Base64.encode(input, Base64.DEFAULT))
+        }
+    }
+
+    @Test
+    fun `written body matches content length and decodes to the file`() {
+        val fileBytes = Random.nextBytes(100_003)
+        val file = tempFolder.newFile("upload.jpg").apply { writeBytes(fileBytes) }
+        val media = MediaModel().apply {
+            filePath = file.path
+            fileName = file.name
+            mimeType = "image/jpeg"
+        }
+        val site = SiteModel().apply {
+            selfHostedSiteId = 1
+            username = "user"
+            password = "pass"
+        }
+        val body = XmlrpcUploadRequestBody(media, { _, _ -> }, site)
+        val sink = Buffer()
+
+        body.writeTo(sink)
+
+        val written = sink.readUtf8()
+        assertThat(written.length.toLong()).isEqualTo(body.contentLength())
+        val encoded = written.substringAfter("<base64>").substringBefore("</base64>")
+        assertThat(Base64.decode(encoded, Base64.DEFAULT)).isEqualTo(fileBytes)
+    }
+}
@@ -16,11 +16,15 @@ import org.wordpress.android.fluxc.model.notification.NoteIdSet
 import org.wordpress.android.fluxc.model.notification.NotificationModel
 import org.wordpress.android.fluxc.network.rest.wpcom.notifications.NotificationApiResponse
 import org.wordpress.android.fluxc.persistence.NotificationSqlUtils
+import org.wordpress.android.fluxc.persistence.NotificationSqlUtils.NotificationHash
 import org.wordpress.android.fluxc.persistence.NotificationSqlUtils.NotificationModelBuilder
+import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import java.lang.management.ManagementFactory
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
@@ -388,4 +392,147 @@ class NotificationSqlUtilsTest {
         // Verify notification not in database
         assertNull(notificationSqlUtils.getNotificationByRemoteId(noteId))
     }
+
+    @Test
+    fun testInsertOrUpdateNotificationsInBatch() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        val notesList = apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+
+        // Test inserting notifications
+        val inserted = notificationSqlUtils.insertOrUpdateNotifications(notesList)
+        assertEquals(6, inserted)
+
+        // Test updating the fetched notifications along with a new one
+        val newNote = notesList[0].copy(remoteNoteId = 333)
+        val updated = notificationSqlUtils.insertOrUpdateNotifications(
+                notesList.map { it.copy(noteHash = it.noteHash + 1) } + newNote
+        )
+        assertEquals(7, updated)
+        val updatedList = notificationSqlUtils.getNotifications()
+        assertEquals(7, updatedList.size)
+        assertEquals(notesList[1].noteHash + 1, notificationSqlUtils.getNotificationByRemoteId(
+                notesList[1].remoteNoteId
+        )?.noteHash)
+    }
+
+    @Test
+    fun testGetNotificationHashes() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        val notesList = apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+
+        // Hashes are sorted by remote id
+        val hashes = notificationSqlUtils.getNotificationHashes()
+        assertEquals(
+                notesList.map { NotificationHash(it.remoteNoteId, it.noteHash) }.sortedBy { it.remoteNoteId },
+                hashes
+        )
+    }
+
+    @Test
+    fun testDeleteNotificationsByRemoteIds() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        val notesList = apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+
+        // Delete two notifications, and one that isn't in the database
+        val rowsAffected = notificationSqlUtils.deleteNotificationsByRemoteIds(
+                listOf(notesList[0].remoteNoteId, notesList[1].remoteNoteId, 333)
+        )
+        assertEquals(2, rowsAffected)
+
+        // Verify the other notifications are still in the database
+        assertNull(notificationSqlUtils.getNotificationByRemoteId(notesList[0].remoteNoteId))
+        assertEquals(4, notificationSqlUtils.getNotificationsCount())
+    }
+
+    @Test
+    fun testReadingNotificationsOnlyDecodesTheDisplayedContent() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        val notesList = apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+        val notes = (1..BENCHMARK_NOTE_COUNT).map { notesList[it % notesList.size].copy(remoteNoteId = it.toLong()) }
+        notificationSqlUtils.insertOrUpdateNotifications(notes)
+
+        // Reading the notifications doesn't decode their content
+        val lazyReadStart = getAllocatedBytes()
+        val notifications = notificationSqlUtils.getNotifications()
+        val lazyReadBytes = getAllocatedBytes() - lazyReadStart
+        assertEquals(BENCHMARK_NOTE_COUNT, notifications.size)
+        assertEquals(0L, notificationSqlUtils.getContentMetrics().decodedCount)
+
+        // Displaying the first page of notifications decodes only their content
+        notifications.take(DISPLAYED_NOTE_COUNT).forEach { decodeContent(it) }
+        val decodedCount = notificationSqlUtils.getContentMetrics().decodedCount
+        assertTrue(decodedCount in DISPLAYED_NOTE_COUNT.toLong()..DISPLAYED_NOTE_COUNT * 3L)
+
+        // Reading the notifications again, e.g. on the next emission, reuses the decoded content
+        notificationSqlUtils.getNotifications().take(DISPLAYED_NOTE_COUNT).forEach { decodeContent(it) }
+        val metrics = notificationSqlUtils.getContentMetrics()
+        assertEquals(decodedCount, metrics.decodedCount)
+        assertEquals(DISPLAYED_NOTE_COUNT.toLong(), metrics.hitCount)
+
+        // Decoding the content of every notification, as every read used to, allocates a lot more
+        val eagerReadStart = getAllocatedBytes()
+        notificationSqlUtils.getNotifications().forEach { decodeContent(it) }
+        val eagerReadBytes = getAllocatedBytes() - eagerReadStart
+        if (lazyReadStart >= 0 && eagerReadStart >= 0) {
+            assertTrue(lazyReadBytes < eagerReadBytes)
+        }
+    }
+
+    @Test
+    fun testContentReadBeforeAWriteIsNotCachedAfterIt() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/store-order-notification.json")
+        val apiResponse = NotificationTestUtils.parseNotificationApiResponseFromJsonString(jsonString)
+        val note = NotificationApiResponse.notificationResponseToNotificationModel(apiResponse)
+        notificationSqlUtils.insertOrUpdateNotification(note)
+
+        // The notification is read, but its content is only decoded once it's been updated locally
+        val staleNote = requireNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        val updatedSubject = listOf(FormattableContent(text = "Updated subject"))
+        notificationSqlUtils.insertOrUpdateNotification(note.copy(subject = updatedSubject))
+        decodeContent(staleNote)
+
+        val updatedNote = requireNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        assertEquals(updatedSubject, updatedNote.subject)
+    }
+
+    private fun decodeContent(notification: NotificationModel) = listOf(
+            notification.body,
+            notification.subject,
+            notification.meta
+    )
+
+    // The bytes allocated by the current thread, or -1 when the JVM doesn't track them
+    private fun getAllocatedBytes(): Long {
+        val threadMXBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        return threadMXBean?.getThreadAllocatedBytes(Thread.currentThread().id) ?: -1
+    }
+
+    private companion object {
+        const val BENCHMARK_NOTE_COUNT = 2000
+        const val DISPLAYED_NOTE_COUNT = 20
+    }
 }
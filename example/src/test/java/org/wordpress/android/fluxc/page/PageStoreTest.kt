@@ -51,6 +51,7 @@ import java.util.Locale
 @RunWith(MockitoJUnitRunner::class)
 class PageStoreTest {
     @Mock lateinit var postStore: PostStore
+    @Mock lateinit var postSqlUtils: PostSqlUtils
     @Mock lateinit var currentDateUtils: CurrentDateUtils
     @Mock lateinit var dispatcher: Dispatcher
     @Mock lateinit var site: SiteModel
@@ -87,18 +88,46 @@ class PageStoreTest {
     fun setUp() {
         actionCaptor = argumentCaptor()
         val pages = listOf(pageWithoutQuery, pageWithQuery, pageWithoutTitle)
-        whenever(postStore.getPagesForSite(site)).thenReturn(pages)
-        store = PageStore(postStore, PostSqlUtils(), dispatcher, currentDateUtils, initCoroutineEngine())
+        whenever(postStore.getPagesForSiteWithoutContent(site)).thenReturn(pages)
+        store = PageStore(postStore, postSqlUtils, dispatcher, currentDateUtils, initCoroutineEngine())
     }
 
     @Test
     fun searchFindsAllResultsContainingText() {
+        whenever(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, query)).thenReturn(listOf(pageWithQuery))
+
         val result = runBlocking { store.search(site, query) }
 
         assertThat(result).hasSize(1)
         assertThat(result[0].title).isEqualTo(pageWithQuery.title)
     }
 
+    @Test
+    fun searchLoadsTheAncestorsOfTheMatchingPages() {
+        val child = pageHierarchy.first { it.remotePostId == 3L }
+        whenever(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, query)).thenReturn(listOf(child))
+        doAnswer { invocation ->
+            val remoteIds = invocation.getArgument<List<Long>>(1)
+            pageHierarchy.filter { remoteIds.contains(it.remotePostId) }
+        }.`when`(postSqlUtils).getPagesForSiteWithoutContent(any(), any())
+
+        val result = runBlocking { store.search(site, query) }
+
+        assertThat(result.map { it.remoteId }).containsExactly(3L)
+        assertThat(result[0].parent!!.remoteId).isEqualTo(2L)
+        assertThat(result[0].parent!!.parent!!.remoteId).isEqualTo(1L)
+        assertThat(result[0].parent!!.parent!!.parent).isNull()
+    }
+
+    @Test
+    fun searchWithoutAnyWordMatchesTheRawQuery() {
+        whenever(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, " ")).thenReturn(null)
+
+        val result = runBlocking { store.search(site, " ") }
+
+        assertThat(result.map { it.title }).containsExactly(pageWithoutQuery.title, pageWithQuery.title)
+    }
+
     private fun assertPage(map: Map<PageStatus, List<PageModel>>, position: Int, status: PageStatus) {
         val page = map[status]?.get(position)
         assertThat(page).isNotNull()
@@ -107,6 +136,8 @@ class PageStoreTest {
 
     @Test
     fun emptySearchResultWhenNothingContainsQuery() {
+        whenever(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, "foo")).thenReturn(emptyList())
+
         val result = runBlocking { store.search(site, "foo") }
 
         assertThat(result).isEmpty()
@@ -286,7 +317,7 @@ class PageStoreTest {
         assertThat(pageTypes.filter { it == PostStatus.TRASHED }.size).isEqualTo(1)
         assertThat(pageTypes.filter { it == PostStatus.SCHEDULED }.size).isEqualTo(1)
 
-        whenever(postStore.getPagesForSite(site))
+        whenever(postStore.getPagesForSiteWithoutContent(site))
                 .thenReturn(differentPageTypes.filter { payload.statusTypes.contains(PostStatus.fromPost(it)) })
 
         val pages = store.getPagesFromDb(site)
@@ -334,7 +365,7 @@ class PageStoreTest {
 
     @Test
     fun getPages() = test {
-        whenever(postStore.getPagesForSite(site)).thenReturn(pageHierarchy)
+        whenever(postStore.getPagesForSiteWithoutContent(site)).thenReturn(pageHierarchy)
 
         val pages = store.getPagesFromDb(site)
 
@@ -345,6 +376,42 @@ class PageStoreTest {
         assertThat(pages.filter { it.pageId > 10 }.all { it.parent != null }).isTrue()
     }
 
+    @Test
+    fun getPagesSharesTheParentPages() = test {
+        // 5000 pages in 500 chains of 10 nested pages
+        val chainCount = 500
+        val depth = 10
+        val pages = (1..chainCount * depth).map { remoteId ->
+            val parentId = if (remoteId > chainCount) remoteId - chainCount else 0
+            initPage(remoteId, parentId.toLong(), "page $remoteId", "publish")
+        }
+        whenever(postStore.getPagesForSiteWithoutContent(site)).thenReturn(pages)
+
+        val result = store.getPagesFromDb(site)
+
+        assertThat(result).hasSize(chainCount * depth)
+        val pagesByRemoteId = result.associateBy { it.remoteId }
+        result.filter { it.parent != null }.forEach {
+            assertThat(it.parent).isSameAs(pagesByRemoteId[it.remoteId - chainCount])
+        }
+        val deepestPage = pagesByRemoteId.getValue((chainCount * depth).toLong())
+        assertThat(generateSequence(deepestPage) { it.parent }.count()).isEqualTo(depth)
+    }
+
+    @Test
+    fun getPagesStopsAtParentCycles() = test {
+        val pages = listOf(
+                initPage(1, 2, "page 1", "publish"),
+                initPage(2, 1, "page 2", "publish")
+        )
+        whenever(postStore.getPagesForSiteWithoutContent(site)).thenReturn(pages)
+
+        val result = store.getPagesFromDb(site)
+
+        assertThat(result).hasSize(2)
+        assertThat(result.map { generateSequence(it) { page -> page.parent }.count() }).allMatch { it <= 2 }
+    }
+
     private fun initPage(
         id: Int,
         parentId: Long? = null,
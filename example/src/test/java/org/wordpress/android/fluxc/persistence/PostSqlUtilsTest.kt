@@ -1,5 +1,7 @@
 package org.wordpress.android.fluxc.persistence
 
+import com.wellsql.generated.PostModelTable.ID
+import com.yarolegovich.wellsql.SelectQuery.ORDER_ASCENDING
 import com.yarolegovich.wellsql.WellSql
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Assert.assertEquals
@@ -98,6 +100,223 @@ class PostSqlUtilsTest {
         assertThat(postsWithSameRemotePostId).hasSize(1)
     }
 
+    @Test
+    fun `insertOrUpdatePosts deletes posts with duplicate REMOTE_POST_ID`() {
+        // Given
+        val site = createSite()
+
+        val localPost = createPost(localSiteId = site.id, localId = 900, remoteId = 8571)
+        postSqlUtils.insertPostForResult(localPost)
+
+        val postFromFetch = createPost(localSiteId = site.id, localId = 100_00, remoteId = localPost.remotePostId)
+        postSqlUtils.insertPostForResult(postFromFetch)
+
+        // When
+        val updatedRowsCount = postSqlUtils.insertOrUpdatePosts(listOf(localPost), true)
+
+        // Then
+        assertThat(updatedRowsCount).isEqualTo(2)
+        assertThat(postSqlUtils.getPostsByLocalOrRemotePostIds(listOf(LocalId(postFromFetch.id)), site.id)).isEmpty()
+        assertThat(postSqlUtils.getPostsByLocalOrRemotePostIds(listOf(LocalId(localPost.id)), site.id)).hasSize(1)
+    }
+
+    @Test
+    fun `insertOrUpdatePosts inserts new posts and updates existing ones`() {
+        // Given
+        val site = createSite()
+        val existingPost = createPost(localSiteId = site.id, localId = 1, remoteId = 10)
+        postSqlUtils.insertPostForResult(existingPost)
+
+        val fetchedExistingPost = createPost(localSiteId = site.id, localId = 0, remoteId = 10).apply {
+            setTitle("updated")
+        }
+        val fetchedNewPosts = (11L..15L).map { createPost(localSiteId = site.id, localId = 0, remoteId = it) }
+
+        // When
+        val rowsAffected = postSqlUtils.insertOrUpdatePosts(listOf(fetchedExistingPost) + fetchedNewPosts, false)
+
+        // Then
+        assertThat(rowsAffected).isEqualTo(6)
+        val postsForSite = postSqlUtils.getPostsForSite(site, false)
+        assertThat(postsForSite.map { it.remotePostId }).containsExactlyInAnyOrder(10, 11, 12, 13, 14, 15)
+        assertThat(postsForSite.first { it.remotePostId == 10L }.title).isEqualTo("updated")
+    }
+
+    @Test
+    fun `insertOrUpdatePosts keeps local changes when not overwriting`() {
+        // Given
+        val site = createSite()
+        val locallyChangedPost = createPost(localSiteId = site.id, localId = 1, remoteId = 10).apply {
+            setTitle("local")
+            setIsLocallyChanged(true)
+        }
+        postSqlUtils.insertPostForResult(locallyChangedPost)
+
+        val fetchedPost = createPost(localSiteId = site.id, localId = 0, remoteId = 10).apply {
+            setTitle("remote")
+        }
+
+        // When
+        val rowsAffected = postSqlUtils.insertOrUpdatePosts(listOf(fetchedPost), false)
+
+        // Then
+        assertThat(rowsAffected).isEqualTo(0)
+        assertThat(postSqlUtils.getPostsForSite(site, false).single().title).isEqualTo("local")
+    }
+
+    @Test
+    fun `insertOrUpdatePosts does not duplicate posts repeated in the same batch`() {
+        // Given
+        val site = createSite()
+        val first = createPost(localSiteId = site.id, localId = 0, remoteId = 10).apply { setTitle("first") }
+        val second = createPost(localSiteId = site.id, localId = 0, remoteId = 10).apply { setTitle("second") }
+
+        // When
+        postSqlUtils.insertOrUpdatePosts(listOf(first, second), false)
+
+        // Then
+        assertThat(postSqlUtils.getPostsForSite(site, false).single().title).isEqualTo("second")
+    }
+
+    @Test
+    fun `getLocalPostIdsForFilter matches word prefixes in title, content and excerpt`() {
+        // Given
+        val site = createSite()
+        val byTitle = createLocalDraft(site, title = "Travelling in Portugal")
+        val byContent = createLocalDraft(site, content = "<p>Our trip to Lisbon</p>")
+        val byExcerpt = createLocalDraft(site, excerpt = "Portuguese food")
+        createLocalDraft(site, title = "Unrelated")
+
+        // When
+        val portResults = postSqlUtils.getLocalPostIdsForFilter(site, false, "port", ID, ORDER_ASCENDING)
+        val lisbonResults = postSqlUtils.getLocalPostIdsForFilter(site, false, "LISB", ID, ORDER_ASCENDING)
+
+        // Then
+        assertThat(portResults).containsExactly(LocalId(byTitle.id), LocalId(byExcerpt.id))
+        assertThat(lisbonResults).containsExactly(LocalId(byContent.id))
+    }
+
+    @Test
+    fun `getLocalPostIdsForFilter search reflects updated and deleted posts`() {
+        // Given
+        val site = createSite()
+        val post = createLocalDraft(site, title = "Draft about cats")
+
+        // When
+        post.setTitle("Draft about dogs")
+        postSqlUtils.insertOrUpdatePostOverwritingLocalChanges(post)
+
+        // Then
+        assertThat(postSqlUtils.getLocalPostIdsForFilter(site, false, "cats", ID, ORDER_ASCENDING)).isEmpty()
+        assertThat(postSqlUtils.getLocalPostIdsForFilter(site, false, "dogs", ID, ORDER_ASCENDING))
+                .containsExactly(LocalId(post.id))
+
+        postSqlUtils.deletePost(post)
+        assertThat(postSqlUtils.getLocalPostIdsForFilter(site, false, "dogs", ID, ORDER_ASCENDING)).isEmpty()
+    }
+
+    @Test
+    fun `search falls back to substrings for text written without spaces`() {
+        // Given
+        val site = createSite()
+        val post = createLocalDraft(site, title = "東京の旅行ガイド")
+
+        // Then
+        assertThat(postSqlUtils.getLocalPostIdsForFilter(site, false, "旅行", ID, ORDER_ASCENDING))
+                .containsExactly(LocalId(post.id))
+        // PageStore matches the titles itself then
+        assertThat(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, "ไทย")).isNull()
+    }
+
+    @Test
+    fun `getPagesForSiteWithoutContent only loads the content of the pages with local changes`() {
+        // Given
+        val site = createSite()
+        val uploadedPage = createPage(site, remoteId = 10, title = "Uploaded", content = "uploaded content")
+        val changedPage = createPage(site, remoteId = 11, title = "Changed", content = "changed content").apply {
+            setIsLocallyChanged(true)
+            postSqlUtils.insertOrUpdatePostOverwritingLocalChanges(this)
+        }
+
+        // When
+        val pages = postSqlUtils.getPagesForSiteWithoutContent(site).associateBy { it.remotePostId }
+
+        // Then
+        assertThat(pages).hasSize(2)
+        assertThat(pages.getValue(uploadedPage.remotePostId).title).isEqualTo("Uploaded")
+        assertThat(pages.getValue(uploadedPage.remotePostId).content).isEmpty()
+        assertThat(pages.getValue(changedPage.remotePostId).content).isEqualTo("changed content")
+        val pagesById = postSqlUtils.getPagesForSiteWithoutContent(
+                site,
+                listOf(uploadedPage.remotePostId, changedPage.remotePostId)
+        ).associateBy { it.id }
+        assertThat(pagesById.keys).containsExactlyInAnyOrder(uploadedPage.id, changedPage.id)
+        assertThat(pagesById.getValue(uploadedPage.id).content).isEmpty()
+        assertThat(pagesById.getValue(changedPage.id).content).isEqualTo("changed content")
+    }
+
+    @Test
+    fun `searchPagesForSiteByTitleWithoutContent matches word prefixes in page titles only`() {
+        // Given
+        val site = createSite()
+        val byTitle = createPage(site, remoteId = 10, title = "About our team")
+        createPage(site, remoteId = 11, title = "Contact", content = "Write to our team")
+        createLocalDraft(site, title = "A post about the team")
+
+        // When
+        val results = postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, "TEA abo")
+
+        // Then
+        assertThat(results!!.map { it.id }).containsExactly(byTitle.id)
+        assertThat(postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, " - ")).isNull()
+    }
+
+    @Test
+    fun `searchPagesForSiteByTitleWithoutContent loads the content of the pages with local changes`() {
+        // Given
+        val site = createSite()
+        val uploadedPage = createPage(site, remoteId = 10, title = "Team", content = "uploaded content")
+        val changedPage = createPage(site, remoteId = 11, title = "Team members", content = "changed content").apply {
+            setIsLocallyChanged(true)
+            postSqlUtils.insertOrUpdatePostOverwritingLocalChanges(this)
+        }
+
+        // When
+        val results = postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, "team")!!.associateBy { it.id }
+
+        // Then
+        assertThat(results.keys).containsExactlyInAnyOrder(uploadedPage.id, changedPage.id)
+        assertThat(results.getValue(uploadedPage.id).content).isEmpty()
+        assertThat(results.getValue(changedPage.id).content).isEqualTo("changed content")
+    }
+
+    @Test
+    fun `getLocalPostIdsForFilter search is kept by updates of the other columns`() {
+        // Given
+        val site = createSite()
+        val post = postSqlUtils.insertPostForResult(PostModel().apply {
+            setLocalSiteId(site.id)
+            setRemotePostId(10)
+            setIsLocalDraft(true)
+            setTitle("Draft about cats")
+        })
+
+        // When
+        postSqlUtils.updatePostsAutoSave(site, PostRemoteAutoSaveModel(1, 10, "2020-01-01T00:00:00+00:00", null))
+
+        // Then
+        assertThat(postSqlUtils.getLocalPostIdsForFilter(site, false, "cats", ID, ORDER_ASCENDING))
+                .containsExactly(LocalId(post.id))
+        val triggerSql = WellSql.giveMeWritableDb().rawQuery(
+                "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND tbl_name = 'PostModel'",
+                null
+        ).use { cursor -> generateSequence { if (cursor.moveToNext()) cursor.getString(0) else null }.toList() }
+        // Only the updates of the indexed columns re-index the post
+        assertThat(triggerSql.filter { it.contains("UPDATE") }).hasSize(2).allMatch {
+            it.contains("UPDATE OF TITLE,CONTENT,EXCERPT ON PostModel")
+        }
+    }
+
     @Test
     fun `insertOrUpdatePostLikes insert a new like`() {
         val siteId = 100L
@@ -195,6 +414,24 @@ class PostSqlUtilsTest {
         setLocalSiteId(localSiteId)
     }
 
+    private fun createLocalDraft(site: SiteModel, title: String = "", content: String = "", excerpt: String = "") =
+            postSqlUtils.insertPostForResult(PostModel().apply {
+                setLocalSiteId(site.id)
+                setIsLocalDraft(true)
+                setTitle(title)
+                setContent(content)
+                setExcerpt(excerpt)
+            })
+
+    private fun createPage(site: SiteModel, remoteId: Long, title: String = "", content: String = "") =
+            postSqlUtils.insertPostForResult(PostModel().apply {
+                setLocalSiteId(site.id)
+                setRemotePostId(remoteId)
+                setIsPage(true)
+                setTitle(title)
+                setContent(content)
+            })
+
     private fun createSite() = SiteModel().apply {
         id = 100
     }
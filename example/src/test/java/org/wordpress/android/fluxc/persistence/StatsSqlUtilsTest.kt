@@ -0,0 +1,104 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.REFERRERS
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.WP_COM_FOLLOWERS
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.DAY
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.INSIGHTS
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.WEEK
+
+private const val DATE = "2020-01-01"
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class StatsSqlUtilsTest {
+    private val statsSqlUtils = StatsSqlUtils()
+    private val site = SiteModel().apply { id = 1 }
+    private lateinit var config: WellSqlConfig
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `blocks read again are not decoded again`() {
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("a", "b")), true, DATE)
+
+        val block = statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+        val cachedBlock = statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+
+        assertThat(block).isEqualTo(TestBlock(listOf("a", "b")))
+        assertThat(cachedBlock).isSameAs(block)
+        assertThat(statsSqlUtils.getCacheMetrics()).isEqualTo(StatsSqlUtils.StatsCacheMetrics(1, 1, 1))
+    }
+
+    @Test
+    fun `inserted blocks replace the cached ones`() {
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("a")), true, DATE)
+        statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+        statsSqlUtils.select(site, REFERRERS, WEEK, TestBlock::class.java, DATE)
+
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("b")), true, DATE)
+
+        assertThat(statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE))
+                .isEqualTo(TestBlock(listOf("b")))
+        // The blocks of the other granularities are still cached
+        assertThat(statsSqlUtils.select(site, REFERRERS, WEEK, TestBlock::class.java, DATE)).isNull()
+        assertThat(statsSqlUtils.getCacheMetrics().hitCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `appended blocks are returned with the cached ones`() {
+        statsSqlUtils.insert(site, WP_COM_FOLLOWERS, INSIGHTS, TestBlock(listOf("a")), true)
+        assertThat(statsSqlUtils.selectAll(site, WP_COM_FOLLOWERS, INSIGHTS, TestBlock::class.java)).hasSize(1)
+
+        statsSqlUtils.insert(site, WP_COM_FOLLOWERS, INSIGHTS, TestBlock(listOf("b")), false)
+
+        assertThat(statsSqlUtils.selectAll(site, WP_COM_FOLLOWERS, INSIGHTS, TestBlock::class.java))
+                .containsExactly(TestBlock(listOf("a")), TestBlock(listOf("b")))
+    }
+
+    @Test
+    fun `the cached blocks are cleared when the tables are reset`() {
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("a")), true, DATE)
+        statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+
+        config.reset()
+
+        assertThat(statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)).isNull()
+        assertThat(statsSqlUtils.getCacheMetrics()).isEqualTo(StatsSqlUtils.StatsCacheMetrics(0, 2, 1))
+    }
+
+    @Test
+    fun `deleted stats are not returned from the cache`() {
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("a")), true, DATE)
+        statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+
+        statsSqlUtils.deleteSiteStats(site)
+
+        assertThat(statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)).isNull()
+
+        statsSqlUtils.insert(site, REFERRERS, DAY, TestBlock(listOf("a")), true, DATE)
+        statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)
+
+        statsSqlUtils.deleteAllStats()
+
+        assertThat(statsSqlUtils.select(site, REFERRERS, DAY, TestBlock::class.java, DATE)).isNull()
+        assertThat(statsSqlUtils.getCacheMetrics().hitCount).isEqualTo(0)
+    }
+
+    private data class TestBlock(val items: List<String>)
+}
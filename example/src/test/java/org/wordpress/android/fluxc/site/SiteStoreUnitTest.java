@@ -24,6 +24,7 @@ import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils.DuplicateSiteException;
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SiteCacheMetrics;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.fluxc.store.SiteStore.UpdateSitesResult;
@@ -58,14 +59,15 @@ public class SiteStoreUnitTest {
     private SiteStore mSiteStore = new SiteStore(new Dispatcher(), mPostSqlUtils, Mockito.mock(SiteRestClient.class),
             Mockito.mock(SiteXMLRPCClient.class), Mockito.mock(PrivateAtomicCookie.class), mSiteSqlUtils,
             CoroutineEngineUtilsKt.initCoroutineEngine());
+    private WellSqlConfig mWellSqlConfig;
 
     @Before
     public void setUp() {
         Context appContext = RuntimeEnvironment.application.getApplicationContext();
 
-        WellSqlConfig config = new WellSqlConfig(appContext);
-        WellSql.init(config);
-        config.reset();
+        mWellSqlConfig = new WellSqlConfig(appContext);
+        WellSql.init(mWellSqlConfig);
+        mWellSqlConfig.reset();
     }
 
     @Test
@@ -904,4 +906,59 @@ public class SiteStoreUnitTest {
         assertEquals(siteModel.getZendeskPlan(), siteFromDb.getZendeskPlan());
         assertEquals(siteModel.getZendeskAddOns(), siteFromDb.getZendeskAddOns());
     }
+
+    @Test
+    public void testSiteLookupsAreCachedUntilTheSiteIsUpdated() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+        SiteModel site = generateWPComSite();
+        site.setName("A site");
+        mSiteSqlUtils.insertOrUpdateSite(site);
+
+        // Changing a site returned by a lookup doesn't change the cached one
+        mSiteStore.getSiteByLocalId(site.getId()).setName("A changed site");
+        assertEquals("A site", mSiteStore.getSiteByLocalId(site.getId()).getName());
+        assertEquals("A site", mSiteStore.getSiteBySiteId(site.getSiteId()).getName());
+        assertEquals(site.getId(), mSiteStore.getLocalIdForRemoteSiteId(site.getSiteId()));
+        SiteCacheMetrics metrics = mSiteStore.getSiteCacheMetrics();
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(3, metrics.getHitCount());
+
+        site.setName("A renamed site");
+        mSiteSqlUtils.insertOrUpdateSite(site);
+
+        assertEquals("A renamed site", mSiteStore.getSiteByLocalId(site.getId()).getName());
+        assertEquals("A renamed site", mSiteStore.getSiteBySiteId(site.getSiteId()).getName());
+    }
+
+    @Test
+    public void testSiteCacheIsClearedWhenTheTablesAreReset() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+        SiteModel site = generateWPComSite();
+        mSiteSqlUtils.insertOrUpdateSite(site);
+        assertNotNull(mSiteStore.getSiteByLocalId(site.getId()));
+
+        mWellSqlConfig.reset();
+
+        assertNull(mSiteStore.getSiteByLocalId(site.getId()));
+        assertNull(mSiteStore.getSiteBySiteId(site.getSiteId()));
+        assertEquals(0, mSiteStore.getSiteCacheMetrics().getCachedSiteCount());
+    }
+
+    @Test
+    public void testSiteCacheIsInvalidatedByVisibilityChangesAndDeletions() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+        SiteModel site = generateWPComSite();
+        mSiteSqlUtils.insertOrUpdateSite(site);
+        assertTrue(mSiteStore.getSiteByLocalId(site.getId()).isVisible());
+
+        mSiteSqlUtils.setSiteVisibility(site, false);
+        assertFalse(mSiteStore.getSiteByLocalId(site.getId()).isVisible());
+        assertEquals(0, mSiteStore.getVisibleSitesCount());
+
+        mSiteSqlUtils.deleteSite(site);
+        assertFalse(mSiteStore.hasSiteWithLocalId(site.getId()));
+        assertNull(mSiteStore.getSiteBySiteId(site.getSiteId()));
+        assertEquals(0, mSiteStore.getLocalIdForRemoteSiteId(site.getSiteId()));
+        assertFalse(mSiteStore.hasSite());
+    }
 }
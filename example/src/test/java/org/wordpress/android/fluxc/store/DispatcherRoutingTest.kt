@@ -0,0 +1,113 @@
+package org.wordpress.android.fluxc.store
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions.assertThat
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.action.MediaAction
+import org.wordpress.android.fluxc.action.PostAction
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
+import java.util.concurrent.ExecutorService
+
+@RunWith(RobolectricTestRunner::class)
+class DispatcherRoutingTest {
+    private val delivered = mutableListOf<String>()
+
+    private val executorService: ExecutorService = mock()
+
+    private lateinit var dispatcher: Dispatcher
+
+    @Before
+    fun setUp() {
+        // Run the deliveries on the calling thread, so the order in which they were scheduled is kept
+        doAnswer { (it.arguments[0] as Runnable).run() }.whenever(executorService).execute(any())
+        dispatcher = Dispatcher(executorService)
+    }
+
+    @Test
+    fun `actions are only delivered to the stores handling them`() {
+        PostHandlingStore(dispatcher, "posts")
+        MediaHandlingStore(dispatcher, "media")
+
+        dispatcher.dispatch(Action(PostAction.FETCH_POSTS, null))
+
+        assertThat(delivered).containsExactly("posts:FETCH_POSTS")
+    }
+
+    @Test
+    fun `stores with a higher priority get the actions first`() {
+        MediaHandlingStore(dispatcher, "media")
+        PriorityMediaHandlingStore(dispatcher, "priority media")
+
+        dispatcher.dispatch(Action(MediaAction.FETCH_MEDIA, null))
+
+        assertThat(delivered).containsExactly("priority media:FETCH_MEDIA", "media:FETCH_MEDIA")
+    }
+
+    @Test
+    fun `subscribers without routes still get every action`() {
+        PostHandlingStore(dispatcher, "posts")
+        val subscriber = ActionSubscriber().also { dispatcher.register(it) }
+
+        dispatcher.dispatch(Action(PostAction.FETCH_POSTS, null))
+        dispatcher.dispatch(Action(MediaAction.FETCH_MEDIA, null))
+
+        assertThat(delivered).containsExactly("posts:FETCH_POSTS")
+        assertThat(subscriber.actions).containsExactly(PostAction.FETCH_POSTS, MediaAction.FETCH_MEDIA)
+    }
+
+    @Test
+    fun `unregistered stores stop getting actions`() {
+        val store = PostHandlingStore(dispatcher, "posts")
+        dispatcher.unregister(store)
+
+        dispatcher.dispatch(Action(PostAction.FETCH_POSTS, null))
+
+        assertThat(delivered).isEmpty()
+    }
+
+    inner class PostHandlingStore(dispatcher: Dispatcher, private val name: String) : Store(dispatcher) {
+        @HandlesActions(PostAction::class)
+        override fun onAction(action: Action<*>) {
+            delivered.add("$name:${action.type}")
+        }
+
+        override fun onRegister() = Unit
+    }
+
+    inner class MediaHandlingStore(dispatcher: Dispatcher, private val name: String) : Store(dispatcher) {
+        @HandlesActions(MediaAction::class)
+        override fun onAction(action: Action<*>) {
+            delivered.add("$name:${action.type}")
+        }
+
+        override fun onRegister() = Unit
+    }
+
+    inner class PriorityMediaHandlingStore(dispatcher: Dispatcher, private val name: String) : Store(dispatcher) {
+        @HandlesActions(MediaAction::class, priority = 1)
+        override fun onAction(action: Action<*>) {
+            delivered.add("$name:${action.type}")
+        }
+
+        override fun onRegister() = Unit
+    }
+
+    class ActionSubscriber {
+        val actions = mutableListOf<Any>()
+
+        @Subscribe(threadMode = ThreadMode.POSTING)
+        fun onAction(action: Action<*>) {
+            actions.add(action.type)
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.store.stats
+
+import com.nhaarman.mockitokotlin2.mock
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart.UNDISPATCHED
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.async
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.network.utils.StatsGranularity.DAYS
+import org.wordpress.android.fluxc.network.utils.StatsGranularity.WEEKS
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.REFERRERS
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer.StatsRequestKey
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer.StatsRequestMetrics
+import org.wordpress.android.fluxc.test
+
+private val DAY_KEY = StatsRequestKey(1, REFERRERS, DAYS, "2020-01-01", 6, false)
+private val WEEK_KEY = StatsRequestKey(1, REFERRERS, WEEKS, "2020-01-01", 6, false)
+
+@ExperimentalCoroutinesApi
+class StatsRequestCoalescerTest {
+    private val coalescer = StatsRequestCoalescer(Dispatchers.Unconfined, mock())
+
+    @Test
+    fun `identical requests in flight share a single request`() = test {
+        val response = CompletableDeferred<String>()
+        var requestCount = 0
+        val request = suspend {
+            requestCount++
+            response.await()
+        }
+
+        val first = async(start = UNDISPATCHED) { coalescer.fetch(DAY_KEY, request) }
+        val second = async(start = UNDISPATCHED) { coalescer.fetch(DAY_KEY, request) }
+        response.complete("referrers")
+
+        assertThat(first.await()).isEqualTo("referrers")
+        assertThat(second.await()).isEqualTo("referrers")
+        assertThat(requestCount).isEqualTo(1)
+        assertThat(coalescer.getMetrics()).isEqualTo(StatsRequestMetrics(1, 1, 0))
+    }
+
+    @Test
+    fun `different requests are not shared`() = test {
+        val response = CompletableDeferred<String>()
+        val request = suspend { response.await() }
+
+        val first = async(start = UNDISPATCHED) { coalescer.fetch(DAY_KEY, request) }
+        val second = async(start = UNDISPATCHED) { coalescer.fetch(WEEK_KEY, request) }
+        response.complete("referrers")
+        first.await()
+        second.await()
+
+        assertThat(coalescer.getMetrics()).isEqualTo(StatsRequestMetrics(2, 0, 0))
+    }
+
+    @Test
+    fun `completed requests are issued again`() = test {
+        coalescer.fetch(DAY_KEY) { "first" }
+        val result = coalescer.fetch(DAY_KEY) { "second" }
+
+        assertThat(result).isEqualTo("second")
+        assertThat(coalescer.getMetrics()).isEqualTo(StatsRequestMetrics(2, 0, 0))
+    }
+
+    @Test
+    fun `fetches wait for the revalidation in flight`() = test {
+        val response = CompletableDeferred<String>()
+        val request = suspend { response.await() }
+
+        coalescer.revalidate(DAY_KEY, request)
+        val result = async(start = UNDISPATCHED) { coalescer.fetch(DAY_KEY, request) }
+        response.complete("referrers")
+
+        assertThat(result.await()).isEqualTo("referrers")
+        assertThat(coalescer.getMetrics()).isEqualTo(StatsRequestMetrics(1, 1, 1))
+    }
+}
@@ -6,6 +6,7 @@ import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
+import kotlinx.coroutines.Dispatchers
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -23,6 +24,7 @@ import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.AuthorsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
 import org.wordpress.android.fluxc.store.StatsStore.StatsError
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.API_ERROR
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.test
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
 import java.util.Date
@@ -46,7 +48,8 @@ class AuthorsStoreTest {
                 restClient,
                 sqlUtils,
                 mapper,
-                initCoroutineEngine()
+                initCoroutineEngine(),
+                StatsRequestCoalescer(Dispatchers.Unconfined, mock())
         )
     }
 
@@ -85,6 +88,25 @@ class AuthorsStoreTest {
         verify(sqlUtils, never()).insert(any(), any(), any(), any<Date>(), isNull())
     }
 
+    @Test
+    fun `returns stale data per site and fetches it again in the background`() = test {
+        whenever(sqlUtils.hasStaleRequest(site, DAYS, DATE, ITEMS_TO_LOAD)).thenReturn(true)
+        whenever(sqlUtils.select(site, DAYS, DATE)).thenReturn(AUTHORS_RESPONSE)
+        val model = mock<AuthorsModel>()
+        whenever(mapper.map(AUTHORS_RESPONSE, LIMIT_MODE)).thenReturn(model)
+        val forced = false
+        whenever(restClient.fetchAuthors(site, DAYS, DATE, ITEMS_TO_LOAD + 1, forced)).thenReturn(
+                FetchStatsPayload(AUTHORS_RESPONSE)
+        )
+
+        val responseModel = store.fetchAuthors(site, DAYS, LIMIT_MODE, DATE, forced)
+
+        assertThat(responseModel.model).isEqualTo(model)
+        assertThat(responseModel.cached).isTrue()
+        verify(restClient).fetchAuthors(site, DAYS, DATE, ITEMS_TO_LOAD + 1, forced)
+        verify(sqlUtils).insert(site, AUTHORS_RESPONSE, DAYS, DATE, ITEMS_TO_LOAD)
+    }
+
     @Test
     fun `returns error when data call fail`() = test {
         val type = API_ERROR
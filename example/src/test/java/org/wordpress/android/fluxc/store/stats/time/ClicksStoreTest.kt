@@ -6,6 +6,7 @@ import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
+import kotlinx.coroutines.Dispatchers
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -23,6 +24,7 @@ import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.ClicksSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
 import org.wordpress.android.fluxc.store.StatsStore.StatsError
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.API_ERROR
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.test
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
 import java.util.Date
@@ -46,7 +48,8 @@ class ClicksStoreTest {
                 restClient,
                 sqlUtils,
                 mapper,
-                initCoroutineEngine()
+                initCoroutineEngine(),
+                StatsRequestCoalescer(Dispatchers.Unconfined, mock())
         )
     }
 
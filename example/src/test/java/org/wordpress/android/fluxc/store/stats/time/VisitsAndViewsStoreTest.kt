@@ -7,6 +7,7 @@ import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
+import kotlinx.coroutines.Dispatchers
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -25,6 +26,7 @@ import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.VisitsAndViewsS
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
 import org.wordpress.android.fluxc.store.StatsStore.StatsError
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.API_ERROR
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.test
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
 import org.wordpress.android.fluxc.utils.AppLogWrapper
@@ -56,7 +58,8 @@ class VisitsAndViewsStoreTest {
                 statsUtils,
                 currentTimeProvider,
                 initCoroutineEngine(),
-                appLogWrapper
+                appLogWrapper,
+                StatsRequestCoalescer(Dispatchers.Unconfined, mock())
         )
         val currentDate = Date(0)
         whenever(currentTimeProvider.currentDate()).thenReturn(currentDate)
@@ -39,6 +39,42 @@ public class XMLSerializerUtilsTest {
         Assert.assertEquals(xml, result);
     }
 
+    @Test
+    public void testXmlRpcResponseBufferScrubWithJunk() throws IOException {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><nothing></nothing>";
+        final String junk = "this is junk text 12345,./;'pp<<><><;;<?xm";
+        Assert.assertEquals(xml, scrubBuffer(junk + xml));
+    }
+
+    @Test
+    public void testXmlRpcResponseBufferScrubWithoutJunk() throws IOException {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><nothing></nothing>";
+        Assert.assertEquals(xml, scrubBuffer(xml));
+    }
+
+    @Test
+    public void testXmlRpcResponseBufferScrubWithoutProlog() throws IOException {
+        final String xml = "<methodResponse></methodResponse>";
+        Assert.assertEquals(xml, scrubBuffer(xml));
+    }
+
+    @Test
+    public void testDeserializeScrubbedBufferWithPhpWarning() throws Exception {
+        final String junk = "Warning: virtual() [function.virtual2]: Unable to include '/cgi-bin/script/l' - request"
+                            + " execution failed in /home/mysite/public_html/index.php on line 2\n";
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param>"
+                           + "<value><string>caf\u00e9</string></value></param></params></methodResponse>";
+        final InputStream is = XMLSerializerUtils.scrubXmlResponse((junk + xml).getBytes("UTF-8"));
+        Assert.assertEquals("caf\u00e9", XMLSerializerUtils.deserialize(is));
+    }
+
+    private String scrubBuffer(String input) throws IOException {
+        final InputStream resultStream = XMLSerializerUtils.scrubXmlResponse(input.getBytes("UTF-8"));
+        final byte[] bb = new byte[resultStream.available()];
+        final int read = resultStream.read(bb);
+        return new String(bb, 0, read, "UTF-8");
+    }
+
     private String scrub(String input, int xmlLength) {
         try {
             final InputStream is = new ByteArrayInputStream(input.getBytes("UTF-8"));
@@ -6,7 +6,9 @@ import org.junit.Test
 import org.wordpress.android.fluxc.UnitTestUtils
 import org.wordpress.android.fluxc.model.order.ShippingLine
 import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
 import kotlin.test.assertNull
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 class OrderEntityTest {
@@ -109,6 +111,20 @@ class OrderEntityTest {
         assertEquals(0.0, model.copy(lineItems = "[{\"total\": \"12.26\"},{\"total\": \"15.39\"}]").getOrderSubtotal())
     }
 
+    @Test
+    fun testDecodedLineItemsAreReusedByTheSameInstance() {
+        val model = OrderTestUtils.generateSampleOrder(61).copy(
+                lineItems = UnitTestUtils.getStringFromResourceFile(this.javaClass, "wc/lineitems.json")
+        )
+
+        assertSame(model.getLineItemList(), model.getLineItemList())
+
+        val updatedModel = model.copy(lineItems = "[{\"subtotal\": \"12.26\"}]")
+        assertNotSame(model.getLineItemList(), updatedModel.getLineItemList())
+        assertEquals(1, updatedModel.getLineItemList().size)
+        assertEquals(12.26, updatedModel.getOrderSubtotal())
+    }
+
     @Test
     fun testGetShippingLines() {
         val model = OrderTestUtils.generateSampleOrder(61).copy(
@@ -11,14 +11,18 @@ import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests
 import org.wordpress.android.fluxc.TestSiteSqlUtils
 import org.wordpress.android.fluxc.UnitTestUtils
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCProductCategoryLinkModel
 import org.wordpress.android.fluxc.model.WCProductCategoryModel
 import org.wordpress.android.fluxc.model.WCProductModel
 import org.wordpress.android.fluxc.model.WCProductReviewModel
 import org.wordpress.android.fluxc.model.WCProductShippingClassModel
 import org.wordpress.android.fluxc.model.WCProductTagModel
+import org.wordpress.android.fluxc.model.WCProductVariationModel
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCProductStore.ProductFilterOption
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_ASC
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_DESC
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
@@ -40,6 +44,8 @@ class ProductSqlUtilsTest {
                 appContext,
                 listOf(
                         WCProductModel::class.java,
+                        WCProductCategoryLinkModel::class.java,
+                        WCProductVariationModel::class.java,
                         WCProductReviewModel::class.java,
                         WCProductCategoryModel::class.java,
                         WCProductShippingClassModel::class.java,
@@ -131,6 +137,45 @@ class ProductSqlUtilsTest {
         assertEquals(3, storedProductsCount)
     }
 
+    @Test
+    fun testInsertOrUpdateProductsUpdatesExistingProductsInBatch() {
+        val site = SiteModel().apply { id = 2 }
+        ProductSqlUtils.insertOrUpdateProduct(ProductTestUtils.generateSampleProduct(40, siteId = site.id))
+
+        val products = listOf(
+                ProductTestUtils.generateSampleProduct(40, siteId = site.id, name = "updated"),
+                ProductTestUtils.generateSampleProduct(41, siteId = site.id),
+                ProductTestUtils.generateSampleProduct(41, siteId = site.id, name = "repeated"),
+                // Same remote id, different site
+                ProductTestUtils.generateSampleProduct(40, siteId = 3)
+        )
+        val rowsAffected = ProductSqlUtils.insertOrUpdateProducts(products)
+
+        assertEquals(4, rowsAffected)
+        assertEquals(2, ProductSqlUtils.getProductCountForSite(site))
+        assertEquals("updated", ProductSqlUtils.getProductByRemoteId(site, 40)?.name)
+        assertEquals("repeated", ProductSqlUtils.getProductByRemoteId(site, 41)?.name)
+        assertEquals(1, ProductSqlUtils.getProductCountForSite(SiteModel().apply { id = 3 }))
+    }
+
+    @Test
+    fun testInsertOrUpdateProductVariations() {
+        val site = SiteModel().apply { id = 6 }
+        ProductSqlUtils.insertOrUpdateProductVariation(ProductTestUtils.generateSampleVariation(42, 1))
+
+        val variations = listOf(
+                ProductTestUtils.generateSampleVariation(42, 1, status = "private"),
+                ProductTestUtils.generateSampleVariation(42, 2),
+                ProductTestUtils.generateSampleVariation(43, 1)
+        )
+        val rowsAffected = ProductSqlUtils.insertOrUpdateProductVariations(variations)
+
+        assertEquals(3, rowsAffected)
+        assertEquals(2, ProductSqlUtils.getVariationsForProduct(site, 42).size)
+        assertEquals(1, ProductSqlUtils.getVariationsForProduct(site, 43).size)
+        assertEquals("private", ProductSqlUtils.getVariationByRemoteId(site, 42, 1)?.status)
+    }
+
     @Test
     fun testGetProductsForSite() {
         // insert products for one site
@@ -495,6 +540,49 @@ class ProductSqlUtilsTest {
         assertEquals(42, differentSiteProducts.first().remoteProductId)
     }
 
+    @Test
+    fun testGetProductsByCategoryUsesUpdatedCategories() {
+        val hoodies = "[{\"id\":1374,\"name\":\"Hoodies\",\"slug\":\"hoodies\"}]"
+        val decorAndHoodies = "[{\"id\":1377,\"name\":\"Decor\",\"slug\":\"decor\"}," +
+                "{\"id\":1374,\"name\":\"Hoodies\",\"slug\":\"hoodies\"}]"
+        val product1 = ProductTestUtils.generateSampleProduct(40, categories = hoodies)
+        val product2 = ProductTestUtils.generateSampleProduct(41, categories = decorAndHoodies)
+        ProductSqlUtils.insertOrUpdateProducts(listOf(product1, product2))
+
+        val site = SiteModel().apply { id = product1.localSiteId }
+        val decorFilter = mapOf(ProductFilterOption.CATEGORY to "1377")
+        val hoodiesFilter = mapOf(ProductFilterOption.CATEGORY to "1374")
+        val decorProducts = ProductSqlUtils.getProductsByFilterOptions(site, decorFilter)
+        assertEquals(listOf(41L), decorProducts.map { it.remoteProductId })
+        assertEquals(2, ProductSqlUtils.getProductsByFilterOptions(site, hoodiesFilter).size)
+
+        // Removing a category from a product removes it from the filtered results
+        ProductSqlUtils.insertOrUpdateProduct(product2.apply { categories = hoodies })
+        assertTrue(ProductSqlUtils.getProductsByFilterOptions(site, decorFilter).isEmpty())
+
+        // Deleting a product removes it from the filtered results
+        ProductSqlUtils.deleteProduct(site, product1.remoteProductId)
+        val remainingHoodies = ProductSqlUtils.getProductsByFilterOptions(site, hoodiesFilter)
+        assertEquals(listOf(41L), remainingHoodies.map { it.remoteProductId })
+    }
+
+    @Test
+    fun testGetProductsByFilterOptionsSortsByNameIgnoringCaseAndPages() {
+        val names = listOf("banana", "Apple", "cherry", "apricot")
+        names.forEachIndexed { index, name ->
+            ProductSqlUtils.insertOrUpdateProduct(ProductTestUtils.generateSampleProduct(40L + index, name = name))
+        }
+        val site = SiteModel().apply { id = 6 }
+
+        val sortedNames = ProductSqlUtils.getProductsByFilterOptions(site, emptyMap(), TITLE_ASC).map { it.name }
+        assertEquals(listOf("Apple", "apricot", "banana", "cherry"), sortedNames)
+
+        val secondPage = ProductSqlUtils.getProductsByFilterOptions(
+                site, emptyMap(), TITLE_DESC, offset = 2, limit = 2
+        ).map { it.name }
+        assertEquals(listOf("apricot", "Apple"), secondPage)
+    }
+
     @Test
     fun testInsertOrUpdateProductReview() {
         val review = getProductReviews(site.id)[0]
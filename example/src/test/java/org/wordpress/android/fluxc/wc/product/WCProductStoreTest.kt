@@ -16,6 +16,7 @@ import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests
 import org.wordpress.android.fluxc.generated.WCProductActionBuilder
 import org.wordpress.android.fluxc.model.AccountModel
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCProductCategoryLinkModel
 import org.wordpress.android.fluxc.model.WCProductModel
 import org.wordpress.android.fluxc.model.WCProductReviewModel
 import org.wordpress.android.fluxc.model.WCProductVariationModel
@@ -66,6 +67,7 @@ class WCProductStoreTest {
                 appContext,
                 listOf(
                         WCProductModel::class.java,
+                        WCProductCategoryLinkModel::class.java,
                         WCProductVariationModel::class.java,
                         WCProductReviewModel::class.java,
                         SiteModel::class.java,
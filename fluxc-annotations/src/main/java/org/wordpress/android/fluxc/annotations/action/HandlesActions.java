@@ -0,0 +1,21 @@
+package org.wordpress.android.fluxc.annotations.action;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the action enums handled by a store's onAction method. The Dispatcher only delivers actions of these types
+ * to the store, on a background thread, instead of broadcasting every action to every store.
+ */
+@Target(value = ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HandlesActions {
+    Class<? extends IAction>[] value() default {};
+
+    /**
+     * Stores with a higher priority get an action delivered before the other stores handling the same action.
+     */
+    int priority() default 0;
+}
@@ -55,3 +55,16 @@
 -keep,allowobfuscation,allowshrinking class * extends com.google.gson.reflect.TypeToken
 
 ##---------------End: proguard configuration for Gson  ----------
+
+##---------------Begin: proguard configuration for EventBus  ----------
+# The subscriber indexes of the plugins are looked up by name by the Dispatcher
+-keep class org.wordpress.android.fluxc.generated.*EventBusIndex { <init>(); }
+##---------------End: proguard configuration for EventBus  ----------
+
+##---------------Begin: proguard configuration for the Dispatcher  ----------
+# The Dispatcher reads the actions handled by each store from their onAction method
+-keepattributes RuntimeVisibleAnnotations
+-keepclassmembers class * extends org.wordpress.android.fluxc.store.Store {
+    @org.wordpress.android.fluxc.annotations.action.HandlesActions <methods>;
+}
+##---------------End: proguard configuration for the Dispatcher  ----------
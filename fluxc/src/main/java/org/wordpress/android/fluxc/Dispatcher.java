@@ -1,41 +1,112 @@
 package org.wordpress.android.fluxc;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.EventBusBuilder;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.generated.FluxCEventBusIndex;
 import org.wordpress.android.fluxc.store.Store;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
 public class Dispatcher {
+    /**
+     * Subscriber indexes generated by the EventBus annotation processor in the plugins, used when they're available.
+     */
+    private static final String[] PLUGIN_SUBSCRIBER_INDEXES = {
+            "org.wordpress.android.fluxc.generated.WooCommerceEventBusIndex"
+    };
+
     private final EventBus mBus;
+    private final List<SubscriberInfoIndex> mSubscriberIndexes;
+    private final ExecutorService mExecutorService;
+
+    /**
+     * The stores declaring the action types they handle with {@link HandlesActions}, by action enum class.
+     * Those stores only get the actions routed to them, the other subscribers get every action through the EventBus.
+     */
+    private final Map<Class<?>, List<RoutedStore>> mActionRoutes = new ConcurrentHashMap<>();
 
     @Inject public Dispatcher() {
-        mBus = EventBus.builder()
+        this(Executors.newCachedThreadPool());
+    }
+
+    @VisibleForTesting
+    public Dispatcher(ExecutorService executorService) {
+        mExecutorService = executorService;
+        mSubscriberIndexes = loadSubscriberIndexes();
+        EventBusBuilder builder = EventBus.builder()
                 .logNoSubscriberMessages(true)
                 .sendNoSubscriberEvent(true)
                 .throwSubscriberException(true)
-                .build();
+                .executorService(executorService);
+        // The indexes spare the reflective lookup of the @Subscribe methods when registering the stores and clients,
+        // classes missing from them (e.g. in the apps) are still looked up through reflection
+        for (SubscriberInfoIndex index : mSubscriberIndexes) {
+            builder.addIndex(index);
+        }
+        mBus = builder.build();
     }
 
     public void register(final Object object) {
-        mBus.register(object);
+        HandlesActions handlesActions = object instanceof Store ? getHandlesActions((Store) object) : null;
+        if (handlesActions == null) {
+            mBus.register(object);
+        } else {
+            addActionRoutes((Store) object, handlesActions);
+            // The store might still subscribe to other events than actions
+            if (hasSubscriberMethods(object, mSubscriberIndexes)) {
+                mBus.register(object);
+            }
+        }
         if (object instanceof Store) {
             ((Store) object).onRegister();
         }
     }
 
     public void unregister(final Object object) {
-        mBus.unregister(object);
+        if (object instanceof Store) {
+            removeActionRoutes((Store) object);
+        }
+        if (mBus.isRegistered(object)) {
+            mBus.unregister(object);
+        }
     }
 
     public void dispatch(Action action) {
-        AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
-                + "-" + action.getType().toString());
-        post(action);
+        if (BuildConfig.DEBUG) {
+            AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
+                    + "-" + action.getType().toString());
+        }
+        List<RoutedStore> routedStores = getRoutedStores(action.getType());
+        for (RoutedStore routedStore : routedStores) {
+            deliver(routedStore.mStore, action);
+        }
+        // Keep posting the action for the subscribers not using the routes, and to report actions nobody handles
+        if (routedStores.isEmpty() || mBus.hasSubscriberForEvent(Action.class)) {
+            post(action);
+        }
     }
 
     public void emitChange(final Object changeEvent) {
@@ -45,4 +116,101 @@ public class Dispatcher {
     private void post(final Object event) {
         mBus.post(event);
     }
+
+    private void deliver(final Store store, final Action action) {
+        mExecutorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                store.onAction(action);
+            }
+        });
+    }
+
+    @NonNull
+    private List<RoutedStore> getRoutedStores(@Nullable IAction actionType) {
+        if (actionType == null) {
+            return Collections.emptyList();
+        }
+        Class<?> actionClass = actionType instanceof Enum
+                ? ((Enum<?>) actionType).getDeclaringClass()
+                : actionType.getClass();
+        List<RoutedStore> routedStores = mActionRoutes.get(actionClass);
+        return routedStores == null ? Collections.<RoutedStore>emptyList() : routedStores;
+    }
+
+    private synchronized void addActionRoutes(Store store, HandlesActions handlesActions) {
+        RoutedStore routedStore = new RoutedStore(store, handlesActions.priority());
+        for (Class<? extends IAction> actionClass : handlesActions.value()) {
+            List<RoutedStore> routedStores = mActionRoutes.get(actionClass);
+            if (routedStores == null) {
+                routedStores = new CopyOnWriteArrayList<>();
+                mActionRoutes.put(actionClass, routedStores);
+            }
+            // Keep the stores sorted by descending priority, in registration order for a same priority
+            int index = 0;
+            while (index < routedStores.size() && routedStores.get(index).mPriority >= routedStore.mPriority) {
+                index++;
+            }
+            routedStores.add(index, routedStore);
+        }
+    }
+
+    private synchronized void removeActionRoutes(Store store) {
+        for (List<RoutedStore> routedStores : mActionRoutes.values()) {
+            for (RoutedStore routedStore : routedStores) {
+                if (routedStore.mStore == store) {
+                    routedStores.remove(routedStore);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static HandlesActions getHandlesActions(Store store) {
+        try {
+            Method onAction = store.getClass().getMethod("onAction", Action.class);
+            return onAction.getAnnotation(HandlesActions.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static List<SubscriberInfoIndex> loadSubscriberIndexes() {
+        List<SubscriberInfoIndex> indexes = new ArrayList<>();
+        indexes.add(new FluxCEventBusIndex());
+        for (String indexClassName : PLUGIN_SUBSCRIBER_INDEXES) {
+            try {
+                indexes.add((SubscriberInfoIndex) Class.forName(indexClassName).newInstance());
+            } catch (ClassNotFoundException e) {
+                // The plugin isn't part of the app
+            } catch (IllegalAccessException | InstantiationException e) {
+                AppLog.e(T.API, "Unable to load the EventBus index " + indexClassName, e);
+            }
+        }
+        return indexes;
+    }
+
+    private static boolean hasSubscriberMethods(Object object, List<SubscriberInfoIndex> indexes) {
+        for (SubscriberInfoIndex index : indexes) {
+            if (index.getSubscriberInfo(object.getClass()) != null) {
+                return true;
+            }
+        }
+        for (Method method : object.getClass().getMethods()) {
+            if (method.isAnnotationPresent(Subscribe.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class RoutedStore {
+        private final Store mStore;
+        private final int mPriority;
+
+        RoutedStore(Store store, int priority) {
+            mStore = store;
+            mPriority = priority;
+        }
+    }
 }
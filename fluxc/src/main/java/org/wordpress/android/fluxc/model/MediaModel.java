@@ -54,6 +54,8 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
     @Column private String mFilePath;
     @Column private String mFileExtension;
     @Column private String mMimeType;
+    // Top-level type of the MIME type, e.g. "image", stored so the media can be filtered by type with an index
+    @Column private String mMimeClass;
 
     // Descriptive strings
     @Column private String mTitle;
@@ -237,12 +239,24 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
 
     public void setMimeType(String mimeType) {
         mMimeType = mimeType;
+        mMimeClass = MediaUtils.getMimeClass(mimeType);
     }
 
     public String getMimeType() {
         return mMimeType;
     }
 
+    /**
+     * Only meant to be used when reading the media from the DB, the MIME class is set along with the MIME type.
+     */
+    public void setMimeClass(String mimeClass) {
+        mMimeClass = mimeClass;
+    }
+
+    public String getMimeClass() {
+        return mMimeClass;
+    }
+
     public void setTitle(String title) {
         mTitle = title;
     }
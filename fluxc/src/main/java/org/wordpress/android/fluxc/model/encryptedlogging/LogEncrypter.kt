@@ -5,6 +5,10 @@ import com.goterl.lazysodium.interfaces.SecretStream
 import com.goterl.lazysodium.interfaces.SecretStream.State
 import com.goterl.lazysodium.utils.Key
 import dagger.Reusable
+import okio.Buffer
+import okio.BufferedSink
+import okio.Source
+import okio.buffer
 import javax.inject.Inject
 
 data class EncryptedLoggingKey(val publicKey: Key)
@@ -23,29 +27,47 @@ class LogEncrypter @Inject constructor(private val encryptedLoggingKey: Encrypte
      * @param text Text contents to be encrypted
      * @param uuid Uuid for the encrypted log
      */
-    fun encrypt(text: String, uuid: String): String = buildString {
+    fun encrypt(text: String, uuid: String): String {
+        val encryptedLog = Buffer()
+        encrypt(Buffer().writeUtf8(text), uuid, encryptedLog)
+        return encryptedLog.readUtf8()
+    }
+
+    /**
+     * Encrypts the contents of the given [source] line by line, and writes the encrypted log to the given [sink] as it
+     * goes, so only a line of the log is held in memory at a time. It also adds the given [uuid] to its headers.
+     *
+     * @param source Contents to be encrypted
+     * @param uuid Uuid for the encrypted log
+     * @param sink Where the encrypted log is written
+     */
+    fun encrypt(source: Source, uuid: String, sink: BufferedSink) {
         val state = State.ByReference()
-        append(buildHeader(uuid, state))
-        val lines = text.lines()
-        lines.asSequence().mapIndexed { index, line ->
-            if (index + 1 >= lines.size) {
-                // If it's the last element
-                line
-            } else {
-                "$line\n"
+        sink.writeUtf8(buildHeader(uuid, state))
+        source.buffer().use { bufferedSource ->
+            while (true) {
+                // Every line is a message, except the lines too long to be held in memory at once. The last line is
+                // always a message, even if it's empty, as it carries the end of the log.
+                val newlineIndex = bufferedSource.indexOf(NEWLINE, 0, MAX_MESSAGE_BYTES)
+                if (newlineIndex >= 0) {
+                    sink.writeUtf8(buildMessage(bufferedSource.readByteArray(newlineIndex + 1), state))
+                } else if (bufferedSource.request(MAX_MESSAGE_BYTES)) {
+                    sink.writeUtf8(buildMessage(bufferedSource.readByteArray(MAX_MESSAGE_BYTES), state))
+                } else {
+                    sink.writeUtf8(buildMessage(bufferedSource.readByteArray(), state))
+                    break
+                }
             }
-        }.forEach { line ->
-            append(buildMessage(line, state))
         }
-        append(buildFooter(state))
+        sink.writeUtf8(buildFooter(state))
     }
 
     /**
-     * Encrypt and write the provided string to the encrypted log file.
-     * @param string: The string to be written to the file.
+     * Encrypt and write the provided bytes to the encrypted log file.
+     * @param plainBytes: The bytes to be written to the file.
      */
-    private fun buildMessage(string: String, state: State): String {
-        val encryptedString = encryptMessage(string, SecretStream.TAG_MESSAGE, state)
+    private fun buildMessage(plainBytes: ByteArray, state: State): String {
+        val encryptedString = encryptMessage(plainBytes, SecretStream.TAG_MESSAGE, state)
         return "\t\t\"$encryptedString\",\n"
     }
 
@@ -87,7 +109,7 @@ class LogEncrypter @Inject constructor(private val encryptedLoggingKey: Encrypte
      * Add the closing file tag
      */
     private fun buildFooter(state: State): String {
-        val encryptedClosingTag = encryptMessage("", SecretStream.TAG_FINAL, state)
+        val encryptedClosingTag = encryptMessage(ByteArray(0), SecretStream.TAG_FINAL, state)
         return buildString {
             append("\t\t\"$encryptedClosingTag\"\n")
             append("\t]\n")
@@ -98,9 +120,7 @@ class LogEncrypter @Inject constructor(private val encryptedLoggingKey: Encrypte
     /**
      * An internal convenience function to push more data into the sodium secret stream.
      */
-    private fun encryptMessage(string: String, tag: Byte, state: State): String {
-        val plainBytes = string.toByteArray()
-
+    private fun encryptMessage(plainBytes: ByteArray, tag: Byte, state: State): String {
         val encryptedBytes = ByteArray(SecretStream.ABYTES + plainBytes.size) // Stores the encrypted bytes
         check(
                 EncryptionUtils.sodium.cryptoSecretStreamPush(
@@ -111,11 +131,16 @@ class LogEncrypter @Inject constructor(private val encryptedLoggingKey: Encrypte
                         tag
                 )
         ) {
-            "Unable to encrypt message: $string"
+            "Unable to encrypt message of ${plainBytes.size} bytes"
         }
 
         return base64Encode(encryptedBytes)
     }
+
+    private companion object {
+        val NEWLINE = '\n'.toByte()
+        const val MAX_MESSAGE_BYTES = 64 * 1024L
+    }
 }
 
 // On Android base64 has lots of options, so define a helper to make it easier to
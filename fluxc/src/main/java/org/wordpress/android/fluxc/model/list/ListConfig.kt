@@ -19,9 +19,22 @@ private const val PRE_FETCH_DISTANCE = DB_PAGE_SIZE * 3
  * of visible items onscreen). Smaller page sizes improve memory usage, latency, and avoid GC churn. Larger pages
  * generally improve loading throughput, to a point.
  * See [Builder.setPageSize] for more information.
- * @param prefetchDistance ?
+ * @param prefetchDistance How far from the end of the loaded content the next page starts being loaded, in number of
+ * items. Since the next page is fetched from the API when the end of the list is loaded, a larger distance starts
+ * fetching it earlier, so fast scrolls are less likely to reach the end of the list before it's fetched.
+ * See [Builder.setPrefetchDistance] for more information.
+ * @param maxPagesAhead How many pages can be fetched from the API at once when loading more data. With more than one
+ * page, the pages following the next one are requested in parallel and added to the list in order. It requires the
+ * fetched pages to be dispatched with their offset in `FetchedListItemsPayload`, otherwise they are expected to be
+ * dispatched in the order they were requested.
  */
-class ListConfig(val networkPageSize: Int, val initialLoadSize: Int, val dbPageSize: Int, val prefetchDistance: Int) {
+class ListConfig(
+    val networkPageSize: Int,
+    val initialLoadSize: Int,
+    val dbPageSize: Int,
+    val prefetchDistance: Int,
+    val maxPagesAhead: Int = 1
+) {
     companion object {
         val default = ListConfig(
                 networkPageSize = NETWORK_PAGE_SIZE,
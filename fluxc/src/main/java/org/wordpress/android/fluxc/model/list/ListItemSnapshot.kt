@@ -0,0 +1,68 @@
+package org.wordpress.android.fluxc.model.list
+
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+
+/**
+ * An immutable snapshot of the remote item ids of a list, kept in memory by `ListStore` so a list's data source can be
+ * re-created without reloading every item of the list from the DB.
+ *
+ * Changes to the list are applied as deltas, each of them returning a new snapshot with an incremented [version], so
+ * the data sources created from an earlier snapshot keep working with consistent identifiers.
+ *
+ * @property version Incremented every time the items of the list change.
+ * @property remoteItemIds The remote ids of the items of the list, in the order they were fetched.
+ */
+class ListItemSnapshot private constructor(
+    val version: Int,
+    val remoteItemIds: List<RemoteId>,
+    private val remoteItemIdSet: Set<Long>
+) {
+    /**
+     * Creates the initial snapshot of a list from the remote ids of its items, as they are stored in the DB.
+     */
+    constructor(remoteItemIds: List<Long>) : this(0, remoteItemIds.map { RemoteId(it) }, remoteItemIds.toHashSet())
+
+    val size: Int
+        get() = remoteItemIds.size
+
+    /**
+     * Returns a snapshot with the items of the list replaced by the given ones, after the first page is fetched.
+     */
+    fun withItems(remoteItemIds: List<Long>): ListItemSnapshot {
+        val distinctIds = remoteItemIds.distinct()
+        if (distinctIds.size == size && distinctIds.indices.all { distinctIds[it] == this.remoteItemIds[it].value }) {
+            return this
+        }
+        return ListItemSnapshot(version + 1, distinctIds.map { RemoteId(it) }, distinctIds.toHashSet())
+    }
+
+    /**
+     * Returns a snapshot with the given items added at the end of the list, after more items are fetched.
+     *
+     * Just like the unique constraint of `ListItemModel`, items already in the list are ignored, so the order of the
+     * items doesn't change while the user is browsing the list.
+     */
+    fun withAppendedItems(remoteItemIds: List<Long>): ListItemSnapshot {
+        val idSet = HashSet(remoteItemIdSet)
+        val newIds = remoteItemIds.filter { idSet.add(it) }
+        if (newIds.isEmpty()) {
+            return this
+        }
+        return ListItemSnapshot(version + 1, this.remoteItemIds + newIds.map { RemoteId(it) }, idSet)
+    }
+
+    /**
+     * Returns a snapshot without the given items, or this snapshot if none of them are in the list.
+     */
+    fun withoutItems(remoteItemIds: Collection<Long>): ListItemSnapshot {
+        val removedIds = remoteItemIds.filterTo(HashSet()) { remoteItemIdSet.contains(it) }
+        if (removedIds.isEmpty()) {
+            return this
+        }
+        return ListItemSnapshot(
+                version + 1,
+                this.remoteItemIds.filter { !removedIds.contains(it.value) },
+                remoteItemIdSet - removedIds
+        )
+    }
+}
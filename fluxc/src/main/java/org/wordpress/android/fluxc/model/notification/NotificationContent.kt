@@ -0,0 +1,60 @@
+package org.wordpress.android.fluxc.model.notification
+
+import org.wordpress.android.fluxc.tools.FormattableContent
+import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import org.wordpress.android.fluxc.tools.FormattableMeta
+
+/**
+ * The formattable content of a [NotificationModel]. When it's read from the DB, it keeps the raw JSON and decodes each
+ * part on first access, so the notifications that are never displayed are never decoded.
+ */
+internal class NotificationContent private constructor(
+    private val lazyBody: Lazy<List<FormattableContent>?>,
+    private val lazySubject: Lazy<List<FormattableContent>?>,
+    private val lazyMeta: Lazy<FormattableMeta?>,
+    val rawBody: String?,
+    val rawSubject: String?,
+    val rawMeta: String?
+) {
+    val body: List<FormattableContent>? get() = lazyBody.value
+    val subject: List<FormattableContent>? get() = lazySubject.value
+    val meta: FormattableMeta? get() = lazyMeta.value
+
+    companion object {
+        fun decoded(body: List<FormattableContent>?, subject: List<FormattableContent>?, meta: FormattableMeta?) =
+                NotificationContent(lazyOf(body), lazyOf(subject), lazyOf(meta), null, null, null)
+
+        /**
+         * @param onDecoded Called every time a part of the content is decoded
+         */
+        fun encoded(
+            rawBody: String?,
+            rawSubject: String?,
+            rawMeta: String?,
+            formattableContentMapper: FormattableContentMapper,
+            onDecoded: () -> Unit = {}
+        ) = NotificationContent(
+                lazy {
+                    rawBody?.let {
+                        onDecoded()
+                        formattableContentMapper.mapToFormattableContentList(it)
+                    }
+                },
+                lazy {
+                    rawSubject?.let {
+                        onDecoded()
+                        formattableContentMapper.mapToFormattableContentList(it)
+                    }
+                },
+                lazy {
+                    rawMeta?.let {
+                        onDecoded()
+                        formattableContentMapper.mapToFormattableMeta(it)
+                    }
+                },
+                rawBody,
+                rawSubject,
+                rawMeta
+        )
+    }
+}
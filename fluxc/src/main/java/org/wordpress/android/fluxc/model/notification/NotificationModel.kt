@@ -4,26 +4,110 @@ import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableMeta
 import java.util.Locale
 
-data class NotificationModel(
-    val noteId: Int = 0,
-    val remoteNoteId: Long = 0L,
+/**
+ * A notification. When it's read from the DB, its formattable [body], [subject] and [meta] are decoded on first access,
+ * since a list of notifications only ever displays a few of them.
+ */
+class NotificationModel internal constructor(
+    val noteId: Int,
+    val remoteNoteId: Long,
 
     // Note: this could be 0 in the db if the notification is not for one of the users sites
-    var remoteSiteId: Long = 0L,
+    var remoteSiteId: Long,
 
-    var noteHash: Long = 0L,
-    val type: Kind = Kind.UNKNOWN,
-    val subtype: Subkind? = Subkind.NONE,
-    var read: Boolean = false,
-    val icon: String? = null,
-    val noticon: String? = null,
-    val timestamp: String? = null,
-    val url: String? = null,
-    val title: String? = null,
-    val body: List<FormattableContent>? = null,
-    val subject: List<FormattableContent>? = null,
-    val meta: FormattableMeta? = null
+    var noteHash: Long,
+    val type: Kind,
+    val subtype: Subkind?,
+    var read: Boolean,
+    val icon: String?,
+    val noticon: String?,
+    val timestamp: String?,
+    val url: String?,
+    val title: String?,
+    internal val content: NotificationContent
 ) {
+    constructor(
+        noteId: Int = 0,
+        remoteNoteId: Long = 0L,
+        remoteSiteId: Long = 0L,
+        noteHash: Long = 0L,
+        type: Kind = Kind.UNKNOWN,
+        subtype: Subkind? = Subkind.NONE,
+        read: Boolean = false,
+        icon: String? = null,
+        noticon: String? = null,
+        timestamp: String? = null,
+        url: String? = null,
+        title: String? = null,
+        body: List<FormattableContent>? = null,
+        subject: List<FormattableContent>? = null,
+        meta: FormattableMeta? = null
+    ) : this(
+            noteId,
+            remoteNoteId,
+            remoteSiteId,
+            noteHash,
+            type,
+            subtype,
+            read,
+            icon,
+            noticon,
+            timestamp,
+            url,
+            title,
+            NotificationContent.decoded(body, subject, meta)
+    )
+
+    val body: List<FormattableContent>? get() = content.body
+    val subject: List<FormattableContent>? get() = content.subject
+    val meta: FormattableMeta? get() = content.meta
+
+    fun copy(
+        noteId: Int = this.noteId,
+        remoteNoteId: Long = this.remoteNoteId,
+        remoteSiteId: Long = this.remoteSiteId,
+        noteHash: Long = this.noteHash,
+        type: Kind = this.type,
+        subtype: Subkind? = this.subtype,
+        read: Boolean = this.read,
+        icon: String? = this.icon,
+        noticon: String? = this.noticon,
+        timestamp: String? = this.timestamp,
+        url: String? = this.url,
+        title: String? = this.title,
+        body: List<FormattableContent>? = UNCHANGED_CONTENT_LIST,
+        subject: List<FormattableContent>? = UNCHANGED_CONTENT_LIST,
+        meta: FormattableMeta? = UNCHANGED_META
+    ): NotificationModel {
+        // The content is immutable, a copy keeping it shares it without decoding it
+        val copiedContent = if (body === UNCHANGED_CONTENT_LIST &&
+                subject === UNCHANGED_CONTENT_LIST &&
+                meta === UNCHANGED_META) {
+            content
+        } else {
+            NotificationContent.decoded(
+                    if (body === UNCHANGED_CONTENT_LIST) this.body else body,
+                    if (subject === UNCHANGED_CONTENT_LIST) this.subject else subject,
+                    if (meta === UNCHANGED_META) this.meta else meta
+            )
+        }
+        return NotificationModel(
+                noteId,
+                remoteNoteId,
+                remoteSiteId,
+                noteHash,
+                type,
+                subtype,
+                read,
+                icon,
+                noticon,
+                timestamp,
+                url,
+                title,
+                copiedContent
+        )
+    }
+
     enum class Kind {
         AUTOMATTCHER,
         COMMENT,
@@ -64,8 +148,46 @@ data class NotificationModel(
         }
     }
 
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is NotificationModel) return false
+        return noteId == other.noteId &&
+                remoteNoteId == other.remoteNoteId &&
+                remoteSiteId == other.remoteSiteId &&
+                noteHash == other.noteHash &&
+                type == other.type &&
+                subtype == other.subtype &&
+                read == other.read &&
+                icon == other.icon &&
+                noticon == other.noticon &&
+                timestamp == other.timestamp &&
+                url == other.url &&
+                title == other.title &&
+                body == other.body &&
+                subject == other.subject &&
+                meta == other.meta
+    }
+
+    override fun hashCode(): Int {
+        // Leaves out the formattable content, so hashing a notification doesn't decode it
+        return listOf(noteId, remoteNoteId, remoteSiteId, noteHash, type, subtype, read, icon, noticon, timestamp, url,
+                title).hashCode()
+    }
+
+    override fun toString(): String {
+        return "NotificationModel(noteId=$noteId, remoteNoteId=$remoteNoteId, remoteSiteId=$remoteSiteId, " +
+                "noteHash=$noteHash, type=$type, subtype=$subtype, read=$read, icon=$icon, noticon=$noticon, " +
+                "timestamp=$timestamp, url=$url, title=$title, body=$body, subject=$subject, meta=$meta)"
+    }
+
     fun toLogString(): String {
         return "[id=$noteId, remoteNoteId=$remoteNoteId, read=$read, " +
                 "siteId=$remoteSiteId, type=${type.name}, subtype=${subtype?.name}, title=$title]"
     }
+
+    private companion object {
+        // Markers of the parts of the content left unchanged by copy(), compared by identity
+        val UNCHANGED_CONTENT_LIST = ArrayList<FormattableContent>()
+        val UNCHANGED_META = FormattableMeta()
+    }
 }
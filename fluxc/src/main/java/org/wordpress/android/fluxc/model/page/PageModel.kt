@@ -5,6 +5,11 @@ import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.util.DateTimeUtils
 import java.util.Date
 
+/**
+ * @property post The post backing the page. The pages loaded by [org.wordpress.android.fluxc.store.PageStore] lists
+ * and searches leave out the content and autosaved content of the pages without local changes, use
+ * [org.wordpress.android.fluxc.store.PostStore.getPostByLocalPostId] to read them.
+ */
 data class PageModel(
     val post: PostModel,
     val site: SiteModel,
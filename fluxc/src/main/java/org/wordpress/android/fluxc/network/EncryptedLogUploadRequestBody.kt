@@ -0,0 +1,46 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+import okio.source
+import org.wordpress.android.fluxc.model.encryptedlogging.LogEncrypter
+import java.io.File
+import java.io.IOException
+
+private val CONTENT_TYPE_JSON = "application/json".toMediaType()
+
+/**
+ * Request body of an encrypted log upload. The log file is encrypted while it's written to the request, so neither
+ * the log nor its encrypted version are ever held in memory, whatever their size. The body is sent with a chunked
+ * transfer encoding, since the size of the encrypted log isn't known until the whole log is encrypted.
+ */
+class EncryptedLogUploadRequestBody(
+    private val file: File,
+    private val uuid: String,
+    private val logEncrypter: LogEncrypter
+) : RequestBody() {
+    override fun contentType(): MediaType = CONTENT_TYPE_JSON
+
+    override fun writeTo(sink: BufferedSink) {
+        try {
+            logEncrypter.encrypt(file.source(), uuid, sink)
+        } catch (e: UnsatisfiedLinkError) {
+            // Anything but an IOException thrown while writing the request would crash the network thread
+            throw EncryptionUnavailableException(e)
+        } catch (e: RuntimeException) {
+            throw EncryptionFailedException(e)
+        }
+    }
+
+    /**
+     * Thrown when the log couldn't be encrypted because the native encryption library couldn't be loaded.
+     */
+    class EncryptionUnavailableException(cause: Throwable) : IOException(cause)
+
+    /**
+     * Thrown when the log couldn't be encrypted, e.g. when the encryption library fails to initialize the stream.
+     */
+    class EncryptionFailedException(cause: Throwable) : IOException(cause)
+}
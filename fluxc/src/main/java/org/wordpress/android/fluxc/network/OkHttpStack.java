@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.network;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.Header;
@@ -13,6 +14,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
@@ -30,11 +32,32 @@ import okhttp3.ResponseBody;
  */
 public class OkHttpStack extends BaseHttpStack {
     private final OkHttpClient mOkHttpClient;
+    // Clients derived from mOkHttpClient, keyed by timeout. They all share the same connection pool and dispatcher,
+    // and requests only use a handful of distinct timeouts, so we can build each one once and reuse it.
+    private final Map<Integer, OkHttpClient> mTimeoutAwareClients = new ConcurrentHashMap<>();
 
     public OkHttpStack(final OkHttpClient okHttpClient) {
         this.mOkHttpClient = okHttpClient;
     }
 
+    @VisibleForTesting
+    @NonNull
+    OkHttpClient getClientForTimeout(int timeoutMs) {
+        OkHttpClient client = mTimeoutAwareClients.get(timeoutMs);
+        if (client == null) {
+            OkHttpClient newClient = mOkHttpClient.newBuilder()
+                                                  .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                                  .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                                  .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                                  .build();
+            client = mTimeoutAwareClients.putIfAbsent(timeoutMs, newClient);
+            if (client == null) {
+                client = newClient;
+            }
+        }
+        return client;
+    }
+
     private static void setConnectionParametersForRequest(okhttp3.Request.Builder builder, Request<?> request)
             throws AuthFailureError {
         switch (request.getMethod()) {
@@ -86,13 +109,7 @@ public class OkHttpStack extends BaseHttpStack {
     @Override
     public HttpResponse executeRequest(Request<?> request, Map<String, String> additionalHeaders)
             throws IOException, AuthFailureError {
-        int timeoutMs = request.getTimeoutMs();
-
-        final OkHttpClient timeoutAwareClient = mOkHttpClient.newBuilder()
-                                                             .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
-                                                             .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
-                                                             .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
-                                                             .build();
+        final OkHttpClient timeoutAwareClient = getClientForTimeout(request.getTimeoutMs());
 
         okhttp3.Request.Builder okHttpRequestBuilder = new okhttp3.Request.Builder();
         okHttpRequestBuilder.url(request.getUrl());
@@ -8,11 +8,15 @@ import com.android.volley.Response.Listener;
 import com.android.volley.toolbox.HttpHeaderParser;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import org.jetbrains.annotations.Nullable;
 import org.wordpress.android.fluxc.network.BaseRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
@@ -23,6 +27,9 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
     private static final String PROTOCOL_CHARSET = "utf-8";
     private static final String PROTOCOL_CONTENT_TYPE = String.format("application/json; charset=%s", PROTOCOL_CHARSET);
 
+    // Gson is thread safe, and sharing a single instance lets all the requests reuse the type adapters it caches
+    private static final Gson GSON = setupGsonBuilder().create();
+
     private final Gson mGson;
     private final Class<T> mClass;
     private final Type mType;
@@ -43,7 +50,7 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
         mClass = clazz;
         mType = type;
         mListener = listener;
-        mGson = setupGsonBuilder().create();
+        mGson = GSON;
         mParams = params;
         mBody = body;
     }
@@ -84,22 +91,30 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
     @Override
     protected Response<T> parseNetworkResponse(NetworkResponse response) {
         try {
-            String json = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-            T res;
-            if (mClass == null) {
-                res = mGson.fromJson(json, mType);
-            } else {
-                res = mGson.fromJson(json, mClass);
-            }
+            T res = fromJson(response.data, HttpHeaderParser.parseCharset(response.headers));
             return Response.success(res, createCacheEntry(response));
         } catch (UnsupportedEncodingException e) {
             return Response.error(new ParseError(e));
         } catch (JsonSyntaxException e) {
             return Response.error(new ParseError(e));
+        } catch (JsonIOException e) {
+            return Response.error(new ParseError(e));
+        }
+    }
+
+    /**
+     * Decodes the response straight from its bytes, without building an intermediate String of the whole body.
+     */
+    private T fromJson(byte[] data, String charsetName) throws UnsupportedEncodingException {
+        Reader reader = new InputStreamReader(new ByteArrayInputStream(data), charsetName);
+        if (mClass == null) {
+            return mGson.fromJson(reader, mType);
+        } else {
+            return mGson.fromJson(reader, mClass);
         }
     }
 
-    private GsonBuilder setupGsonBuilder() {
+    private static GsonBuilder setupGsonBuilder() {
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.setLenient();
         gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrFalse.class, new JsonObjectOrFalseDeserializer());
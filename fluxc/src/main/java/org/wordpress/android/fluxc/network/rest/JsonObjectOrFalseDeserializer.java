@@ -20,6 +20,8 @@ import java.lang.reflect.Type;
  * So, this class is only useful if we don't care about the actual value of the primitive, only of the object.
  */
 public class JsonObjectOrFalseDeserializer implements JsonDeserializer<JsonObjectOrFalse> {
+    private static final Gson GSON = new Gson();
+
     @Override
     public JsonObjectOrFalse deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
             throws JsonParseException {
@@ -37,7 +39,7 @@ public class JsonObjectOrFalseDeserializer implements JsonDeserializer<JsonObjec
             }
 
             Field[] fields = clazz.getFields();
-            Gson gson = new Gson();
+            Gson gson = GSON;
             for (Field field : fields) {
                 JsonElement element = json.getAsJsonObject().get(field.getName());
                 if (element == null) {
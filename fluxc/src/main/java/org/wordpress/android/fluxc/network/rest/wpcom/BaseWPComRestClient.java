@@ -21,6 +21,9 @@ import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
 import org.wordpress.android.util.LanguageUtils;
 
+import java.util.Collections;
+import java.util.Map;
+
 import okhttp3.HttpUrl;
 
 public abstract class BaseWPComRestClient {
@@ -138,6 +141,15 @@ public abstract class BaseWPComRestClient {
         return url.contains(WPCOM_V2_PREFIX) ? LOCALE_PARAM_NAME_FOR_V2 : LOCALE_PARAM_NAME_FOR_V1;
     }
 
+    /**
+     * Returns the locale query parameter added to the requests sent to the given URL, for the requests built outside
+     * of this client, e.g. the sub-requests of a batch request.
+     */
+    public @NotNull Map<String, String> getLocaleParams(@NotNull String url) {
+        return Collections.singletonMap(getLocaleParamName(url),
+                LanguageUtils.getPatchedCurrentDeviceLanguage(mAppContext));
+    }
+
     protected @Nullable HttpUrl getHttpUrlWithLocale(@NotNull String url) {
         HttpUrl httpUrl = HttpUrl.parse(url);
 
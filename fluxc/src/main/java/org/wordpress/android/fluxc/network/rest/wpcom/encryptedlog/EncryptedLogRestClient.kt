@@ -1,61 +1,100 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog
 
-import com.android.volley.NoConnectionError
-import com.android.volley.RequestQueue
-import com.android.volley.Response
-import com.android.volley.VolleyError
 import kotlinx.coroutines.suspendCancellableCoroutine
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody
+import okhttp3.Response
+import org.json.JSONException
 import org.json.JSONObject
-import org.wordpress.android.fluxc.network.EncryptedLogUploadRequest
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody.EncryptionFailedException
+import org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody.EncryptionUnavailableException
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AppSecrets
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploadFailed
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploaded
 import org.wordpress.android.fluxc.store.EncryptedLogStore.UploadEncryptedLogError
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.net.SocketTimeoutException
 import javax.inject.Inject
 import javax.inject.Named
 import javax.inject.Singleton
 import kotlin.coroutines.resume
 
+private const val AUTHORIZATION_HEADER = "Authorization"
+private const val UUID_HEADER = "log-uuid"
 private const val INVALID_REQUEST = "invalid-request"
 private const val TOO_MANY_REQUESTS = "too_many_requests"
 
 @Singleton
 class EncryptedLogRestClient @Inject constructor(
-    @Named("regular") private val requestQueue: RequestQueue,
+    @Named("regular") private val okHttpClient: OkHttpClient,
     private val appSecrets: AppSecrets
 ) {
-    suspend fun uploadLog(logUuid: String, contents: String): UploadEncryptedLogResult {
+    /**
+     * Uploads an encrypted log. The request is sent with OkHttp rather than Volley, as Volley needs the whole body
+     * in memory, while [contents] can be streamed, see
+     * [org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody].
+     */
+    suspend fun uploadLog(logUuid: String, contents: RequestBody): UploadEncryptedLogResult {
+        val request = Request.Builder()
+                .url(WPCOMREST.encrypted_logging.urlV1_1)
+                .post(contents)
+                .header(AUTHORIZATION_HEADER, appSecrets.appSecret)
+                .header(UUID_HEADER, logUuid)
+                .build()
         return suspendCancellableCoroutine { cont ->
-            val request = EncryptedLogUploadRequest(logUuid, contents, appSecrets.appSecret, Response.Listener {
-                cont.resume(LogUploaded)
-            }, Response.ErrorListener { error ->
-                cont.resume(LogUploadFailed(mapError(error)))
+            val call = okHttpClient.newCall(request)
+            call.enqueue(object : Callback {
+                override fun onFailure(call: Call, e: IOException) {
+                    if (cont.isActive) {
+                        cont.resume(LogUploadFailed(mapError(e)))
+                    }
+                }
+
+                override fun onResponse(call: Call, response: Response) {
+                    val result = response.use {
+                        if (it.isSuccessful) LogUploaded else LogUploadFailed(mapError(it))
+                    }
+                    if (cont.isActive) {
+                        cont.resume(result)
+                    }
+                }
             })
-            cont.invokeOnCancellation { request.cancel() }
-            requestQueue.add(request)
+            cont.invokeOnCancellation { call.cancel() }
+        }
+    }
+
+    private fun mapError(exception: IOException): UploadEncryptedLogError {
+        return when (exception) {
+            is EncryptionUnavailableException -> UploadEncryptedLogError.UnsatisfiedLinkException
+            is EncryptionFailedException -> UploadEncryptedLogError.Unknown(message = exception.cause?.message)
+            is FileNotFoundException -> UploadEncryptedLogError.MissingFile
+            is SocketTimeoutException -> UploadEncryptedLogError.Unknown(message = exception.message)
+            else -> UploadEncryptedLogError.NoConnection
         }
     }
 
     // {"error":"too_many_requests","message":"You're sending too many messages. Please slow down."}
     // {"error":"invalid-request","message":"Invalid UUID: uuids must only contain letters, numbers, dashes, and curly brackets"}
-    private fun mapError(error: VolleyError): UploadEncryptedLogError {
-        if (error is NoConnectionError) {
-            return UploadEncryptedLogError.NoConnection
-        }
-        error.networkResponse?.let { networkResponse ->
-            val statusCode = networkResponse.statusCode
-            val json = JSONObject(String(networkResponse.data))
+    private fun mapError(response: Response): UploadEncryptedLogError {
+        val statusCode = response.code
+        return try {
+            val json = JSONObject(response.body?.string().orEmpty())
             val errorMessage = json.getString("message")
-            json.getString("error").let { errorType ->
-                if (errorType == INVALID_REQUEST) {
-                    return UploadEncryptedLogError.InvalidRequest
-                } else if (errorType == TOO_MANY_REQUESTS) {
-                    return UploadEncryptedLogError.TooManyRequests
-                }
+            when (json.getString("error")) {
+                INVALID_REQUEST -> UploadEncryptedLogError.InvalidRequest
+                TOO_MANY_REQUESTS -> UploadEncryptedLogError.TooManyRequests
+                else -> UploadEncryptedLogError.Unknown(statusCode, errorMessage)
             }
-            return UploadEncryptedLogError.Unknown(statusCode, errorMessage)
+        } catch (e: JSONException) {
+            UploadEncryptedLogError.Unknown(statusCode)
+        } catch (e: IOException) {
+            UploadEncryptedLogError.Unknown(statusCode)
         }
-        return UploadEncryptedLogError.Unknown()
     }
 }
 
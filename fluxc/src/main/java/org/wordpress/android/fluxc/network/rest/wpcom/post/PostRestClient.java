@@ -247,7 +247,7 @@ public class PostRestClient extends BaseWPComRestClient {
                         boolean canLoadMore = postListItems.size() > 0
                                               && response.getFound() > offset + postListItems.size();
                         FetchPostListResponsePayload responsePayload =
-                                new FetchPostListResponsePayload(listDescriptor, postListItems, loadedMore,
+                                new FetchPostListResponsePayload(listDescriptor, postListItems, offset, loadedMore,
                                         canLoadMore, null);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostListAction(responsePayload));
                     }
@@ -258,7 +258,7 @@ public class PostRestClient extends BaseWPComRestClient {
                         PostError postError = new PostError(error.apiError, error.message);
                         FetchPostListResponsePayload responsePayload =
                                 new FetchPostListResponsePayload(listDescriptor, Collections.<PostListItem>emptyList(),
-                                        loadedMore, false, postError);
+                                        offset, loadedMore, false, postError);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostListAction(responsePayload));
                     }
                 });
@@ -0,0 +1,235 @@
+package org.wordpress.android.fluxc.network.rest.wpcom.stats
+
+import com.google.gson.Gson
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParseException
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.AUTHORIZATION_REQUIRED
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.PARSE_ERROR
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.UNKNOWN
+import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Error
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
+import java.net.URLEncoder
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Packs the stats GET requests issued together, e.g. by the blocks of the stats screen, into a single request to the
+ * WP.com batch endpoint, and hands every caller the response to its own request, so the rest clients keep mapping
+ * their responses as before.
+ *
+ * The requests are collected for [BATCH_WINDOW_MILLIS] after the first one, or until [MAX_BATCH_SIZE] of them are
+ * waiting. A request left alone is sent as is. A sub-request answered with an error fails on its own, while a failing
+ * batch fails all its sub-requests.
+ */
+@Singleton
+class StatsBatchRequestBuilder
+@Inject constructor(
+    private val wpComGsonRequestBuilder: WPComGsonRequestBuilder,
+    private val gson: Gson,
+    coroutineContext: CoroutineContext
+) {
+    private val coroutineScope = CoroutineScope(coroutineContext + SupervisorJob())
+    private var pendingRequests = mutableListOf<BatchedRequest<*>>()
+
+    private var batchCount = 0L
+    private var batchedRequestCount = 0L
+    private var singleRequestCount = 0L
+
+    /**
+     * Creates a new GET request, sent along with the other requests issued in the meantime, and awaits its response.
+     * @param restClient rest client that handles the request
+     * @param url the request URL
+     * @param params the parameters to append to the request URL
+     * @param clazz the class defining the expected response
+     */
+    suspend fun <T> syncGetRequest(
+        restClient: BaseWPComRestClient,
+        url: String,
+        params: Map<String, String>,
+        clazz: Class<T>,
+        forced: Boolean = false
+    ): Response<T> {
+        val request = BatchedRequest(restClient, url, params, clazz, forced)
+        if (!url.startsWith(API_URL)) {
+            // The batch endpoint only runs requests of its own API version
+            request.sendAlone()
+        } else {
+            enqueue(request)
+        }
+        return request.response.await()
+    }
+
+    @Synchronized
+    fun getMetrics() = StatsBatchMetrics(batchCount, batchedRequestCount, singleRequestCount)
+
+    @Synchronized
+    private fun enqueue(request: BatchedRequest<*>) {
+        pendingRequests.add(request)
+        if (pendingRequests.size == 1) {
+            coroutineScope.launch {
+                delay(BATCH_WINDOW_MILLIS)
+                send(takePendingRequests())
+            }
+        } else if (pendingRequests.size >= MAX_BATCH_SIZE) {
+            val requests = takePendingRequests()
+            coroutineScope.launch { send(requests) }
+        }
+    }
+
+    @Synchronized
+    private fun takePendingRequests(): List<BatchedRequest<*>> {
+        val requests = pendingRequests
+        pendingRequests = mutableListOf()
+        return requests
+    }
+
+    private suspend fun send(requests: List<BatchedRequest<*>>) {
+        try {
+            when (requests.size) {
+                0 -> return
+                1 -> requests.first().sendAlone()
+                else -> sendBatch(requests)
+            }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            // The callers get the failure as an error response, instead of seeing their own request cancelled
+            val error = createError(UNKNOWN, null, e.message)
+            requests.forEach { it.fail(error) }
+        } finally {
+            // Doesn't leave the callers waiting if the scope was cancelled before the responses came
+            requests.forEach { it.response.cancel() }
+        }
+    }
+
+    private suspend fun sendBatch(requests: List<BatchedRequest<*>>) {
+        // Identical requests share the same sub-request
+        val paths = requests.map { it.path }.distinct()
+        val params = paths.mapIndexed { index, path -> "urls[$index]" to path }.toMap()
+        synchronized(this) {
+            batchCount++
+            batchedRequestCount += requests.size
+        }
+        val response = wpComGsonRequestBuilder.syncGetRequest(
+                requests.first().restClient,
+                BATCH_URL,
+                params,
+                JsonObject::class.java,
+                enableCaching = false,
+                forced = requests.any { it.forced }
+        )
+        when (response) {
+            is Success -> requests.forEach { it.complete(response.data.get(it.path)) }
+            is Error -> requests.forEach { it.fail(response.error) }
+        }
+    }
+
+    private inner class BatchedRequest<T>(
+        val restClient: BaseWPComRestClient,
+        val url: String,
+        val params: Map<String, String>,
+        val clazz: Class<T>,
+        val forced: Boolean
+    ) {
+        val response = CompletableDeferred<Response<T>>()
+
+        // The batch endpoint takes the URLs relative to the API root, and keys the responses by them. The locale of the
+        // batch request isn't passed on to its sub-requests, so each of them carries its own.
+        val path = (params + restClient.getLocaleParams(url)).let { pathParams ->
+            if (pathParams.isEmpty()) {
+                url.removePrefix(API_URL)
+            } else {
+                url.removePrefix(API_URL) + pathParams.entries.joinToString(separator = "&", prefix = "?") {
+                    "${URLEncoder.encode(it.key, CHARSET)}=${URLEncoder.encode(it.value, CHARSET)}"
+                }
+            }
+        }
+
+        suspend fun sendAlone() {
+            synchronized(this@StatsBatchRequestBuilder) {
+                singleRequestCount++
+            }
+            response.complete(
+                    wpComGsonRequestBuilder.syncGetRequest(
+                            restClient,
+                            url,
+                            params,
+                            clazz,
+                            enableCaching = false,
+                            forced = forced
+                    )
+            )
+        }
+
+        fun complete(subResponse: JsonElement?) {
+            response.complete(parse(subResponse))
+        }
+
+        fun fail(error: WPComGsonNetworkError) {
+            response.complete(Error(error))
+        }
+
+        private fun parse(subResponse: JsonElement?): Response<T> {
+            if (subResponse == null || subResponse.isJsonNull) {
+                return Error(createError(INVALID_RESPONSE, null, "Missing from the batch response"))
+            }
+            if (subResponse.isJsonObject && subResponse.asJsonObject.has(ERROR_KEY)) {
+                val apiError = subResponse.asJsonObject.getString(ERROR_KEY)
+                val type = if (apiError in AUTHORIZATION_ERRORS) AUTHORIZATION_REQUIRED else UNKNOWN
+                return Error(createError(type, apiError, subResponse.asJsonObject.getString(MESSAGE_KEY)))
+            }
+            return try {
+                Success(gson.fromJson(subResponse, clazz))
+            } catch (e: JsonParseException) {
+                Error(createError(PARSE_ERROR, null, e.message))
+            }
+        }
+    }
+
+    private fun JsonObject.getString(key: String): String? {
+        return get(key)?.takeIf { it.isJsonPrimitive }?.asString
+    }
+
+    private fun createError(type: GenericErrorType, apiError: String?, message: String?): WPComGsonNetworkError {
+        return WPComGsonNetworkError(BaseNetworkError(type)).apply {
+            this.apiError = apiError.orEmpty()
+            this.message = message.orEmpty()
+        }
+    }
+
+    /**
+     * @property batchCount The number of batch requests sent.
+     * @property batchedRequestCount The number of requests sent within a batch.
+     * @property singleRequestCount The number of requests sent on their own.
+     */
+    data class StatsBatchMetrics(val batchCount: Long, val batchedRequestCount: Long, val singleRequestCount: Long)
+
+    companion object {
+        const val BATCH_WINDOW_MILLIS = 20L
+        const val MAX_BATCH_SIZE = 10
+
+        private const val CHARSET = "UTF-8"
+        private const val ERROR_KEY = "error"
+        private const val MESSAGE_KEY = "message"
+        private val AUTHORIZATION_ERRORS = setOf("authorization_required", "unauthorized")
+
+        private val BATCH_URL = WPCOMREST.batch.urlV1_1
+        private val API_URL = BATCH_URL.removeSuffix(WPCOMREST.batch.endpoint)
+    }
+}
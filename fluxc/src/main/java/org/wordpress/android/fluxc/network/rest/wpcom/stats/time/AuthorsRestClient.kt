@@ -12,10 +12,10 @@ import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
-import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Error
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.StatsBatchRequestBuilder
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
 import org.wordpress.android.fluxc.network.utils.getInt
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
@@ -29,7 +29,7 @@ import javax.inject.Singleton
 class AuthorsRestClient
 @Inject constructor(
     dispatcher: Dispatcher,
-    private val wpComGsonRequestBuilder: WPComGsonRequestBuilder,
+    private val statsBatchRequestBuilder: StatsBatchRequestBuilder,
     appContext: Context?,
     @Named("regular") requestQueue: RequestQueue,
     accessToken: AccessToken,
@@ -50,12 +50,11 @@ class AuthorsRestClient
                 "max" to itemsToLoad.toString(),
                 "date" to statsUtils.getFormattedDate(date)
         )
-        val response = wpComGsonRequestBuilder.syncGetRequest(
+        val response = statsBatchRequestBuilder.syncGetRequest(
                 this,
                 url,
                 params,
                 AuthorsResponse::class.java,
-                enableCaching = false,
                 forced = forced
         )
         return when (response) {
@@ -9,10 +9,10 @@ import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
-import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Error
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.StatsBatchRequestBuilder
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
 import org.wordpress.android.fluxc.store.toStatsError
@@ -25,7 +25,7 @@ import javax.inject.Singleton
 class FileDownloadsRestClient
 @Inject constructor(
     dispatcher: Dispatcher,
-    private val wpComGsonRequestBuilder: WPComGsonRequestBuilder,
+    private val statsBatchRequestBuilder: StatsBatchRequestBuilder,
     appContext: Context?,
     @Named("regular") requestQueue: RequestQueue,
     accessToken: AccessToken,
@@ -46,12 +46,11 @@ class FileDownloadsRestClient
                 "num" to itemsToLoad.toString(),
                 "date" to statsUtils.getFormattedDate(date)
         )
-        val response = wpComGsonRequestBuilder.syncGetRequest(
+        val response = statsBatchRequestBuilder.syncGetRequest(
                 this,
                 url,
                 params,
                 FileDownloadsResponse::class.java,
-                enableCaching = false,
                 forced = forced
         )
         return when (response) {
@@ -8,10 +8,10 @@ import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
-import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Error
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder.Response.Success
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.StatsBatchRequestBuilder
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
 import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
 import org.wordpress.android.fluxc.store.toStatsError
@@ -24,7 +24,7 @@ import javax.inject.Singleton
 class PostAndPageViewsRestClient
 @Inject constructor(
     dispatcher: Dispatcher,
-    private val wpComGsonRequestBuilder: WPComGsonRequestBuilder,
+    private val statsBatchRequestBuilder: StatsBatchRequestBuilder,
     appContext: Context?,
     @Named("regular") requestQueue: RequestQueue,
     accessToken: AccessToken,
@@ -44,12 +44,11 @@ class PostAndPageViewsRestClient
                 "max" to pageSize.toString(),
                 "date" to statsUtils.getFormattedDate(date)
         )
-        val response = wpComGsonRequestBuilder.syncGetRequest(
+        val response = statsBatchRequestBuilder.syncGetRequest(
                 this,
                 url,
                 params,
                 PostAndPageViewsResponse::class.java,
-                enableCaching = false,
                 forced = forced
         )
         return when (response) {
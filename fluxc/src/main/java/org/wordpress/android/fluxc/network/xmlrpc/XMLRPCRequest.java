@@ -22,12 +22,10 @@ import org.wordpress.android.util.AppLog.T;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlSerializer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.nio.charset.Charset;
 import java.util.List;
 
 
@@ -65,9 +63,8 @@ public class XMLRPCRequest extends BaseRequest<Object> {
     @Override
     protected Response<Object> parseNetworkResponse(NetworkResponse response) {
         try {
-            String data = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-            InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
-            Object obj = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
+            InputStream is = XMLSerializerUtils.scrubXmlResponse(response.data);
+            Object obj = XMLSerializerUtils.deserialize(is, HttpHeaderParser.parseCharset(response.headers));
             return Response.success(obj, createCacheEntry(response));
         } catch (XMLRPCFault e) {
             return Response.error(new VolleyError(e));
@@ -27,6 +27,7 @@ public class XMLSerializerUtils {
     private static final String TAG_FAULT_STRING = "faultString";
 
     private static final int MAX_SCRUB_CHARACTERS = 5000;
+    private static final byte[] XML_PROLOG_START = {'<', '?', 'x', 'm', 'l'};
 
     public static StringWriter serialize(XmlSerializer serializer, XMLRPC method, Object[] params)
             throws IOException {
@@ -55,9 +56,14 @@ public class XMLSerializerUtils {
 
     public static Object deserialize(InputStream is)
             throws IOException, XmlPullParserException, XMLRPCException {
+        return deserialize(is, "UTF-8");
+    }
+
+    public static Object deserialize(InputStream is, String inputEncoding)
+            throws IOException, XmlPullParserException, XMLRPCException {
         // setup pull parser
         XmlPullParser pullParser = XmlPullParserFactory.newInstance().newPullParser();
-        pullParser.setInput(is, "UTF-8");
+        pullParser.setInput(is, inputEncoding);
 
         // lets start pulling...
         pullParser.nextTag();
@@ -87,6 +93,38 @@ public class XMLSerializerUtils {
         }
     }
 
+    /**
+     * Same as {@link #scrubXmlResponse(InputStream)}, but works directly on the response buffer: the prolog is
+     * located with a single indexed scan and the returned stream reads from the original array without copying it.
+     */
+    public static InputStream scrubXmlResponse(byte[] data) {
+        int start = indexOfXmlProlog(data);
+        if (start < 0) {
+            // No prolog found, let the parser deal with the response as is
+            start = 0;
+        }
+        return new ByteArrayInputStream(data, start, data.length - start);
+    }
+
+    static int indexOfXmlProlog(byte[] data) {
+        // Many WordPress configs can output junk before the xml response (php warnings for example), only look for
+        // the prolog in the first MAX_SCRUB_CHARACTERS bytes.
+        int lastStart = Math.min(data.length - XML_PROLOG_START.length, MAX_SCRUB_CHARACTERS);
+        for (int i = 0; i <= lastStart; i++) {
+            if (data[i] != XML_PROLOG_START[0]) {
+                continue;
+            }
+            int j = 1;
+            while (j < XML_PROLOG_START.length && data[i + j] == XML_PROLOG_START[j]) {
+                j++;
+            }
+            if (j == XML_PROLOG_START.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public static InputStream scrubXmlResponse(InputStream is) throws IOException {
         // Many WordPress configs can output junk before the xml response (php warnings for example), this cleans it.
         int bomCheck = -1;
@@ -1,7 +1,5 @@
 package org.wordpress.android.fluxc.network.xmlrpc.media;
 
-import android.util.Base64;
-
 import androidx.annotation.NonNull;
 
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -9,6 +7,7 @@ import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -39,6 +38,17 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
     private static final String APPEND_XML =
             "</base64></value></member></struct></value></param></params></methodCall>";
 
+    private static final byte[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Same line wrapping as {@link android.util.Base64#DEFAULT}: a '\n' after every 76 encoded characters (57 input
+     * bytes), including after the last (partial) line.
+     */
+    private static final int BASE64_LINE_INPUT_BYTES = 57;
+    private static final int BASE64_LINE_OUTPUT_BYTES = 77;
+    // Must be a multiple of BASE64_LINE_INPUT_BYTES so lines don't break across chunks
+    private static final int READ_BUFFER_SIZE = BASE64_LINE_INPUT_BYTES * 64;
+
     private final String mPrependString;
     private long mMediaSize;
     private long mContentSize = -1;
@@ -84,19 +94,61 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
         return mContentSize;
     }
 
-    private long getMediaBase64EncodedSize() throws IOException {
-        FileInputStream fis = new FileInputStream(getMedia().getFilePath());
-        int totalSize = 0;
-        try {
-            byte[] buffer = new byte[3600];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                totalSize += Base64.encodeToString(buffer, 0, length, Base64.DEFAULT).length();
+    private long getMediaBase64EncodedSize() {
+        return getBase64EncodedSize(new File(getMedia().getFilePath()).length());
+    }
+
+    static long getBase64EncodedSize(long inputSize) {
+        if (inputSize <= 0) {
+            return 0;
+        }
+        long lineCount = (inputSize + BASE64_LINE_INPUT_BYTES - 1) / BASE64_LINE_INPUT_BYTES;
+        return (inputSize + 2) / 3 * 4 + lineCount;
+    }
+
+    /**
+     * Reads from {@code is} until {@code buffer} is full or the end of the stream is reached.
+     */
+    private static int readFully(FileInputStream is, byte[] buffer) throws IOException {
+        int total = 0;
+        int read;
+        while (total < buffer.length && (read = is.read(buffer, total, buffer.length - total)) > 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Base64 encodes {@code length} bytes of {@code input} into {@code output}, wrapping lines like
+     * {@link android.util.Base64#DEFAULT}.
+     *
+     * @return the number of bytes written to {@code output}
+     */
+    static int encodeBase64Chunk(byte[] input, int length, byte[] output) {
+        int op = 0;
+        int ip = 0;
+        while (ip < length) {
+            int lineEnd = Math.min(ip + BASE64_LINE_INPUT_BYTES, length);
+            while (ip + 3 <= lineEnd) {
+                int bits = (input[ip] & 0xff) << 16 | (input[ip + 1] & 0xff) << 8 | (input[ip + 2] & 0xff);
+                output[op++] = BASE64_ALPHABET[(bits >> 18) & 0x3f];
+                output[op++] = BASE64_ALPHABET[(bits >> 12) & 0x3f];
+                output[op++] = BASE64_ALPHABET[(bits >> 6) & 0x3f];
+                output[op++] = BASE64_ALPHABET[bits & 0x3f];
+                ip += 3;
             }
-        } finally {
-            fis.close();
+            int remaining = lineEnd - ip;
+            if (remaining > 0) {
+                int bits = (input[ip] & 0xff) << 16 | (remaining == 2 ? (input[ip + 1] & 0xff) << 8 : 0);
+                output[op++] = BASE64_ALPHABET[(bits >> 18) & 0x3f];
+                output[op++] = BASE64_ALPHABET[(bits >> 12) & 0x3f];
+                output[op++] = remaining == 2 ? BASE64_ALPHABET[(bits >> 6) & 0x3f] : (byte) '=';
+                output[op++] = '=';
+                ip = lineEnd;
+            }
+            output[op++] = '\n';
         }
-        return totalSize;
+        return op;
     }
 
     @Override
@@ -111,13 +163,13 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
 
         FileInputStream fis = new FileInputStream(getMedia().getFilePath());
         try {
-            byte[] buffer = new byte[3600]; // you must use a 24bit multiple
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            byte[] encoded = new byte[READ_BUFFER_SIZE / BASE64_LINE_INPUT_BYTES * BASE64_LINE_OUTPUT_BYTES];
             int length;
-            String chunk;
-            while ((length = fis.read(buffer)) > 0) {
-                chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
+            while ((length = readFully(fis, buffer)) > 0) {
+                int encodedLength = encodeBase64Chunk(buffer, length, encoded);
                 mMediaBytesWritten += length;
-                bufferedSink.writeUtf8(chunk);
+                bufferedSink.write(encoded, 0, encodedLength);
             }
         } finally {
             fis.close();
@@ -169,7 +169,7 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                         List<PostListItem> postListItems = postListItemsFromPostsResponse(response);
                         PostError postError = response == null ? new PostError(PostErrorType.INVALID_RESPONSE) : null;
                         FetchPostListResponsePayload responsePayload =
-                                new FetchPostListResponsePayload(listDescriptor, postListItems, loadedMore,
+                                new FetchPostListResponsePayload(listDescriptor, postListItems, offset, loadedMore,
                                         canLoadMore, postError);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostListAction(responsePayload));
                     }
@@ -180,7 +180,7 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                         PostError postError = createPostErrorFromBaseNetworkError(error);
                         FetchPostListResponsePayload responsePayload =
                                 new FetchPostListResponsePayload(listDescriptor, Collections.<PostListItem>emptyList(),
-                                        loadedMore, false, postError);
+                                        offset, loadedMore, false, postError);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostListAction(responsePayload));
                     }
                 });
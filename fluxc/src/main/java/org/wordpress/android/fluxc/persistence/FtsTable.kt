@@ -0,0 +1,131 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+
+/**
+ * An FTS4 external content table indexing some text columns of a WellSql table. The index is kept in sync with the
+ * content table by triggers, so the regular write paths don't need to know about it.
+ *
+ * See https://www.sqlite.org/fts3.html#_external_content_fts4_tables_ for details.
+ */
+class FtsTable(
+    val contentTableName: String,
+    private val columns: List<String>
+) {
+    val tableName = "${contentTableName}Fts"
+
+    private val triggerNames = listOf("bu", "bd", "au", "ai").map { "${tableName}_$it" }
+
+    fun create(db: SQLiteDatabase) {
+        db.execSQL(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS $tableName USING fts4(" +
+                        "content=\"$contentTableName\",${columns.joinToString(",")},tokenize=unicode61)"
+        )
+        createTriggers(db)
+        rebuild(db)
+    }
+
+    /**
+     * Replaces the triggers keeping the index in sync with the content table, without re-indexing the rows.
+     */
+    fun recreateTriggers(db: SQLiteDatabase) {
+        dropTriggers(db)
+        createTriggers(db)
+    }
+
+    private fun createTriggers(db: SQLiteDatabase) {
+        val columnList = columns.joinToString(",")
+        val newValues = columns.joinToString(",") { "new.$it" }
+        // The index has to be updated before the content row changes, since FTS reads the old values from it. The
+        // updates of the other columns don't change the index, so they don't re-index the row.
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS ${triggerNames[0]} BEFORE UPDATE OF $columnList ON $contentTableName " +
+                        "BEGIN " +
+                        "DELETE FROM $tableName WHERE docid=old._id; END"
+        )
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS ${triggerNames[1]} BEFORE DELETE ON $contentTableName BEGIN " +
+                        "DELETE FROM $tableName WHERE docid=old._id; END"
+        )
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS ${triggerNames[2]} AFTER UPDATE OF $columnList ON $contentTableName " +
+                        "BEGIN " +
+                        "INSERT INTO $tableName(docid,$columnList) VALUES(new._id,$newValues); END"
+        )
+        db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS ${triggerNames[3]} AFTER INSERT ON $contentTableName BEGIN " +
+                        "INSERT INTO $tableName(docid,$columnList) VALUES(new._id,$newValues); END"
+        )
+    }
+
+    private fun dropTriggers(db: SQLiteDatabase) {
+        triggerNames.forEach { db.execSQL("DROP TRIGGER IF EXISTS $it") }
+    }
+
+    fun drop(db: SQLiteDatabase) {
+        dropTriggers(db)
+        db.execSQL("DROP TABLE IF EXISTS $tableName")
+    }
+
+    fun recreate(db: SQLiteDatabase) {
+        drop(db)
+        create(db)
+    }
+
+    /**
+     * Re-indexes all the rows of the content table.
+     */
+    fun rebuild(db: SQLiteDatabase) {
+        db.execSQL("INSERT INTO $tableName($tableName) VALUES('rebuild')")
+    }
+
+    /**
+     * Condition matching the `_id` of the content table rows matching the query passed as the single argument.
+     */
+    fun idMatchCondition() = "_id IN (SELECT docid FROM $tableName WHERE $tableName MATCH ?)"
+
+    companion object {
+        private val TOKEN_SEPARATOR = Regex("[^\\p{L}\\p{N}]+")
+
+        // The scripts written without spaces between words, which the unicode61 tokenizer indexes as a single token
+        // per run of text, so the words inside a title can't be looked up
+        private val UNSEGMENTED_BLOCKS = setOf(
+                Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS,
+                Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A,
+                Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS,
+                Character.UnicodeBlock.HIRAGANA,
+                Character.UnicodeBlock.KATAKANA,
+                Character.UnicodeBlock.KATAKANA_PHONETIC_EXTENSIONS,
+                Character.UnicodeBlock.THAI,
+                Character.UnicodeBlock.LAO,
+                Character.UnicodeBlock.KHMER,
+                Character.UnicodeBlock.MYANMAR,
+                Character.UnicodeBlock.TIBETAN
+        )
+
+        val POST_MODEL = FtsTable("PostModel", listOf("TITLE", "CONTENT", "EXCERPT"))
+        val MEDIA_MODEL = FtsTable("MediaModel", listOf("TITLE", "CAPTION", "DESCRIPTION"))
+
+        val ALL = listOf(POST_MODEL, MEDIA_MODEL)
+
+        /**
+         * Turns free text typed by the user into an FTS query where every word is matched as a prefix, or returns
+         * null if the text doesn't contain any searchable word. The words are only matched against the given column
+         * when there's one, instead of all the indexed columns.
+         *
+         * Also returns null for text in a script written without spaces, such as Chinese, Japanese or Thai, since
+         * the index can't find it in the middle of a title. The callers fall back to a substring search then.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun toPrefixMatchQuery(searchQuery: String?, column: String? = null): String? {
+            if (searchQuery.orEmpty().any { Character.UnicodeBlock.of(it) in UNSEGMENTED_BLOCKS }) {
+                return null
+            }
+            val tokens = searchQuery.orEmpty().split(TOKEN_SEPARATOR).filter { it.isNotEmpty() }
+            val columnFilter = column?.let { "$it:" }.orEmpty()
+            // Lowercase the words so they can't be mistaken for query operators such as OR or NOT
+            return if (tokens.isEmpty()) null else tokens.joinToString(" ") { "$columnFilter${it.lowercase()}*" }
+        }
+    }
+}
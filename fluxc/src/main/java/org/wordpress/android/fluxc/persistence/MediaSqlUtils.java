@@ -1,7 +1,11 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
+
 import com.wellsql.generated.MediaModelTable;
 import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.DeleteQuery;
@@ -15,7 +19,9 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.utils.MimeType.Type;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MediaSqlUtils {
     public static List<MediaModel> getAllSiteMedia(SiteModel siteModel) {
@@ -36,7 +42,7 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
-                .contains(MediaModelTable.MIME_TYPE, mimeType)
+                .equals(MediaModelTable.MIME_CLASS, mimeType)
                 .isIn(MediaModelTable.UPLOAD_STATE, uploadStates)
                 .endGroup().endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
@@ -47,7 +53,7 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
-                .contains(MediaModelTable.MIME_TYPE, Type.IMAGE.getValue())
+                .equals(MediaModelTable.MIME_CLASS, Type.IMAGE.getValue())
                 .isIn(MediaModelTable.UPLOAD_STATE, uploadStates)
                 .endGroup().endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
@@ -115,23 +121,58 @@ public class MediaSqlUtils {
     }
 
     public static List<MediaModel> searchSiteMedia(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaQuery(siteModel, searchTerm).getAsModel();
+        return searchSiteMediaByMimeClass(siteModel, searchTerm, null);
     }
 
     public static List<MediaModel> searchSiteImages(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.IMAGE.getValue()).getAsModel();
+        return searchSiteMediaByMimeClass(siteModel, searchTerm, Type.IMAGE.getValue());
     }
 
     public static List<MediaModel> searchSiteAudio(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.AUDIO.getValue()).getAsModel();
+        return searchSiteMediaByMimeClass(siteModel, searchTerm, Type.AUDIO.getValue());
     }
 
     public static List<MediaModel> searchSiteVideos(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.VIDEO.getValue()).getAsModel();
+        return searchSiteMediaByMimeClass(siteModel, searchTerm, Type.VIDEO.getValue());
     }
 
     public static List<MediaModel> searchSiteDocuments(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.APPLICATION.getValue()).getAsModel();
+        return searchSiteMediaByMimeClass(siteModel, searchTerm, Type.APPLICATION.getValue());
+    }
+
+    /**
+     * Searches the media of the given site using the full-text index over their title, caption and description,
+     * instead of scanning every row with `LIKE`. Every word of the search term is matched as a prefix. Without a MIME
+     * class, the media with a MIME type containing the search term match too. Search terms the index can't look up,
+     * e.g. in Chinese or Thai, which aren't split into words, are still matched as substrings with `LIKE`.
+     */
+    private static List<MediaModel> searchSiteMediaByMimeClass(SiteModel siteModel, String searchTerm,
+                                                               @Nullable String mimeClass) {
+        String matchQuery = FtsTable.toPrefixMatchQuery(searchTerm);
+        if (matchQuery == null) {
+            if (mimeClass == null) {
+                return searchSiteMediaQuery(siteModel, searchTerm).getAsModel();
+            }
+            return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, mimeClass).getAsModel();
+        }
+        List<String> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + MediaModelTable.ID + " FROM "
+                                              + FtsTable.MEDIA_MODEL.getContentTableName()
+                                              + " WHERE " + MediaModelTable.LOCAL_SITE_ID + " = ?");
+        args.add(String.valueOf(siteModel.getId()));
+        if (mimeClass != null) {
+            sql.append(" AND ").append(MediaModelTable.MIME_CLASS).append(" = ?");
+            args.add(mimeClass);
+            sql.append(" AND ").append(FtsTable.MEDIA_MODEL.idMatchCondition());
+            args.add(matchQuery);
+        } else {
+            sql.append(" AND (").append(FtsTable.MEDIA_MODEL.idMatchCondition())
+               .append(" OR ").append(MediaModelTable.MIME_TYPE).append(" LIKE ?)");
+            args.add(matchQuery);
+            args.add("%" + searchTerm + "%");
+        }
+        sql.append(" ORDER BY ").append(MediaModelTable.UPLOAD_DATE).append(" DESC");
+        return getMediaWithIds(queryIds(sql.toString(), args));
     }
 
     private static SelectQuery<MediaModel> searchSiteMediaQuery(SiteModel siteModel,
@@ -151,11 +192,11 @@ public class MediaSqlUtils {
 
     private static SelectQuery<MediaModel> searchSiteMediaByMimeTypeQuery(SiteModel siteModel,
                                                                           String searchTerm,
-                                                                          String mimeTypePrefix) {
+                                                                          String mimeClass) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, mimeTypePrefix)
+                .equals(MediaModelTable.MIME_CLASS, mimeClass)
                 .beginGroup()
                     .contains(MediaModelTable.TITLE, searchTerm)
                     .or().contains(MediaModelTable.CAPTION, searchTerm)
@@ -165,6 +206,117 @@ public class MediaSqlUtils {
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
     }
 
+    /**
+     * Returns a page of the media of the given site, most recently uploaded first, optionally restricted to a MIME
+     * class and to the media matching a search term like {@link #searchSiteMedia(SiteModel, String)}. The page starts
+     * right after the last media of the previous page rather than at an offset, so every page is read straight from
+     * the (LOCAL_SITE_ID, MIME_CLASS, UPLOAD_DATE) index like the first one, and the media saved in the meantime
+     * don't shift the following pages.
+     *
+     * @param mimeClass the MIME class of the media, or null for all the media
+     * @param searchTerm the words the title, caption or description of the media start with, or null for all the media.
+     *                   When the full-text index can't look it up, e.g. in Chinese or Thai, it's matched as a substring
+     * @param lastMedia the last media of the previous page, or null for the first page
+     */
+    public static List<MediaModel> getSiteMediaPage(SiteModel site, @Nullable Type mimeClass,
+                                                    @Nullable String searchTerm, @Nullable MediaModel lastMedia,
+                                                    int pageSize) {
+        String matchQuery = FtsTable.toPrefixMatchQuery(searchTerm);
+        List<Integer> ids = new ArrayList<>();
+        String lastUploadDate = lastMedia != null ? lastMedia.getUploadDate() : null;
+        // The media without an upload date sort last, and can't be part of the range on UPLOAD_DATE
+        if (lastMedia == null || lastUploadDate != null) {
+            List<String> conditionArgs = new ArrayList<>();
+            String condition = MediaModelTable.UPLOAD_DATE + " IS NOT NULL";
+            if (lastMedia != null) {
+                condition += " AND " + MediaModelTable.UPLOAD_DATE + " <= ? AND (" + MediaModelTable.UPLOAD_DATE
+                             + " < ? OR " + MediaModelTable.ID + " < ?)";
+                conditionArgs.add(lastUploadDate);
+                conditionArgs.add(lastUploadDate);
+                conditionArgs.add(String.valueOf(lastMedia.getId()));
+            }
+            ids.addAll(getSiteMediaPageIds(site, mimeClass, searchTerm, matchQuery, condition, conditionArgs,
+                    pageSize));
+        }
+        if (ids.size() < pageSize) {
+            List<String> conditionArgs = new ArrayList<>();
+            String condition = MediaModelTable.UPLOAD_DATE + " IS NULL";
+            if (lastMedia != null && lastUploadDate == null) {
+                condition += " AND " + MediaModelTable.ID + " < ?";
+                conditionArgs.add(String.valueOf(lastMedia.getId()));
+            }
+            ids.addAll(getSiteMediaPageIds(site, mimeClass, searchTerm, matchQuery, condition, conditionArgs,
+                    pageSize - ids.size()));
+        }
+        return getMediaWithIds(ids);
+    }
+
+    private static List<Integer> getSiteMediaPageIds(SiteModel site, @Nullable Type mimeClass,
+                                                     @Nullable String searchTerm, @Nullable String matchQuery,
+                                                     String condition, List<String> conditionArgs, int limit) {
+        List<String> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + MediaModelTable.ID + " FROM "
+                                              + FtsTable.MEDIA_MODEL.getContentTableName()
+                                              + " WHERE " + MediaModelTable.LOCAL_SITE_ID + " = ?");
+        args.add(String.valueOf(site.getId()));
+        if (mimeClass != null) {
+            sql.append(" AND ").append(MediaModelTable.MIME_CLASS).append(" = ?");
+            args.add(mimeClass.getValue());
+        }
+        if (matchQuery != null) {
+            sql.append(" AND ").append(FtsTable.MEDIA_MODEL.idMatchCondition());
+            args.add(matchQuery);
+        } else if (!TextUtils.isEmpty(searchTerm)) {
+            sql.append(" AND (").append(MediaModelTable.TITLE).append(" LIKE ? OR ")
+               .append(MediaModelTable.CAPTION).append(" LIKE ? OR ")
+               .append(MediaModelTable.DESCRIPTION).append(" LIKE ?)");
+            String pattern = "%" + searchTerm + "%";
+            args.add(pattern);
+            args.add(pattern);
+            args.add(pattern);
+        }
+        sql.append(" AND ").append(condition);
+        args.addAll(conditionArgs);
+        sql.append(" ORDER BY ").append(MediaModelTable.UPLOAD_DATE).append(" DESC, ")
+           .append(MediaModelTable.ID).append(" DESC LIMIT ").append(limit);
+        return queryIds(sql.toString(), args);
+    }
+
+    private static List<Integer> queryIds(String sql, List<String> args) {
+        List<Integer> ids = new ArrayList<>();
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery(sql, args.toArray(new String[0]));
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the media with the given local IDs, in the same order as the IDs.
+     */
+    private static List<MediaModel> getMediaWithIds(List<Integer> ids) {
+        Map<Integer, MediaModel> mediaById = new HashMap<>();
+        for (List<Integer> batch : UploadSqlUtils.getBatches(ids, UploadSqlUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (MediaModel media : WellSql.select(MediaModel.class)
+                                           .where().isIn(MediaModelTable.ID, batch).endWhere()
+                                           .getAsModel()) {
+                mediaById.put(media.getId(), media);
+            }
+        }
+        List<MediaModel> mediaList = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            MediaModel media = mediaById.get(id);
+            if (media != null) {
+                mediaList.add(media);
+            }
+        }
+        return mediaList;
+    }
+
     public static List<MediaModel> getSiteImages(SiteModel siteModel) {
         return getSiteImagesQuery(siteModel).getAsModel();
     }
@@ -193,7 +345,7 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, Type.IMAGE.getValue())
+                .equals(MediaModelTable.MIME_CLASS, Type.IMAGE.getValue())
                 .isNotIn(MediaModelTable.MEDIA_ID, filter)
                 .endGroup().endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
@@ -211,11 +363,11 @@ public class MediaSqlUtils {
         return getSiteMediaByMimeTypeQuery(siteModel, Type.APPLICATION.getValue());
     }
 
-    private static SelectQuery<MediaModel> getSiteMediaByMimeTypeQuery(SiteModel siteModel, String mimeTypePrefix) {
+    private static SelectQuery<MediaModel> getSiteMediaByMimeTypeQuery(SiteModel siteModel, String mimeClass) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, mimeTypePrefix)
+                .equals(MediaModelTable.MIME_CLASS, mimeClass)
                 .endGroup().endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
     }
@@ -300,6 +452,104 @@ public class MediaSqlUtils {
         }
     }
 
+    /**
+     * Inserts or updates the media fetched from the given site in a single transaction. The existing media are looked
+     * up by their remote media ID with a single query, and their local ID is set on the fetched media, as the local ID
+     * of the new rows is set on the inserted media.
+     *
+     * @return the number of rows inserted or updated
+     */
+    public static int insertOrUpdateFetchedSiteMedia(SiteModel site, List<MediaModel> mediaList) {
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            int rowsAffected = insertOrUpdateFetchedSiteMediaInTransaction(site, mediaList);
+            db.setTransactionSuccessful();
+            return rowsAffected;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Saves the first page of media fetched from the given site in a single transaction: inserts or updates the media
+     * like {@link #insertOrUpdateFetchedSiteMedia(SiteModel, List)}, then deletes the uploaded media of the site missing
+     * from the page like {@link #deleteUploadedSiteMediaNotInList(SiteModel, List, String)}.
+     *
+     * @return the number of rows inserted or updated
+     */
+    public static int replaceFetchedSiteMedia(SiteModel site, List<MediaModel> mediaList, String mimeType) {
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            int rowsAffected = insertOrUpdateFetchedSiteMediaInTransaction(site, mediaList);
+            deleteUploadedSiteMediaNotInList(site, mediaList, mimeType);
+            db.setTransactionSuccessful();
+            return rowsAffected;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static int insertOrUpdateFetchedSiteMediaInTransaction(SiteModel site, List<MediaModel> mediaList) {
+        Map<Long, Integer> localIds = getLocalIdsByRemoteId(site, mediaList);
+        int rowsAffected = 0;
+        for (MediaModel media : mediaList) {
+            if (media == null) {
+                continue;
+            }
+            if (media.getMediaId() == 0) {
+                // Local media can only be matched by local ID
+                rowsAffected += insertOrUpdateMedia(media);
+                continue;
+            }
+            Integer localId = localIds.get(media.getMediaId());
+            if (localId == null) {
+                WellSql.insert(media).execute();
+                // Later duplicates of the same media update the row just inserted
+                localIds.put(media.getMediaId(), media.getId());
+                rowsAffected++;
+            } else {
+                media.setId(localId);
+                rowsAffected += WellSql.update(MediaModel.class).whereId(localId)
+                        .put(media, new UpdateAllExceptId<>(MediaModel.class)).execute();
+            }
+        }
+        return rowsAffected;
+    }
+
+    private static Map<Long, Integer> getLocalIdsByRemoteId(SiteModel site, List<MediaModel> mediaList) {
+        List<Long> remoteIds = new ArrayList<>();
+        for (MediaModel media : mediaList) {
+            if (media != null && media.getMediaId() != 0) {
+                remoteIds.add(media.getMediaId());
+            }
+        }
+        Map<Long, Integer> localIds = new HashMap<>();
+        for (List<Long> batch : UploadSqlUtils.getBatches(remoteIds, UploadSqlUtils.MAX_IN_CLAUSE_SIZE)) {
+            // Same order as getSiteMediaWithId(), so duplicated rows resolve to the same row
+            WellCursor<MediaModel> cursor = WellSql.select(MediaModel.class)
+                    .columns(MediaModelTable.ID, MediaModelTable.MEDIA_ID)
+                    .where().beginGroup()
+                    .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
+                    .isIn(MediaModelTable.MEDIA_ID, batch)
+                    .endGroup().endWhere()
+                    .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                    .getAsCursor();
+            try {
+                while (cursor.moveToNext()) {
+                    long remoteId = cursor.getLong(1);
+                    if (!localIds.containsKey(remoteId)) {
+                        localIds.put(remoteId, cursor.getInt(0));
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return localIds;
+    }
+
     public static MediaModel insertMediaForResult(MediaModel media) {
         WellSql.insert(media).asSingleTransaction(true).execute();
         return media;
@@ -363,7 +613,7 @@ public class MediaSqlUtils {
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString())
-                .contains(MediaModelTable.MIME_TYPE, mimeType)
+                .equals(MediaModelTable.MIME_CLASS, mimeType)
                 .endGroup().endWhere().execute();
     }
 
@@ -392,7 +642,7 @@ public class MediaSqlUtils {
                 .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString());
 
         if (!TextUtils.isEmpty(mimeType)) {
-            builder.contains(MediaModelTable.MIME_TYPE, mimeType);
+            builder.equals(MediaModelTable.MIME_CLASS, mimeType);
         }
 
         return builder.endGroup().endWhere().execute();
@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.persistence
+
+import org.wordpress.android.fluxc.model.notification.NotificationContent
+
+/**
+ * In-memory LRU cache of the formattable content of the notifications read by [NotificationSqlUtils], so reading the
+ * notifications again, e.g. every time the observed notifications are emitted again, doesn't decode their JSON again.
+ * Only the content that was decoded is cached, i.e. the content of the notifications that were displayed, so reading
+ * long lists of notifications doesn't evict it.
+ *
+ * The content is keyed by the remote id and hash of the notification, since the hash changes whenever the notification
+ * does. The content of a notification is evicted when it's written anyway, in case it was changed locally, and the
+ * content of the notifications read before a write isn't cached after it.
+ */
+internal class NotificationContentCache(private val maxSize: Int) {
+    private val contents = object : LinkedHashMap<Key, NotificationContent>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, NotificationContent>?) = size > maxSize
+    }
+
+    // Incremented on every eviction, so the content of a notification read before a write isn't cached after it
+    private var generation = 0L
+    private var hitCount = 0L
+    private var missCount = 0L
+
+    @Synchronized
+    fun get(key: Key): NotificationContent? {
+        val content = contents[key]
+        if (content != null) {
+            hitCount++
+        } else {
+            missCount++
+        }
+        return content
+    }
+
+    /**
+     * Returns the generation to pass to [put] for the notifications read from now on.
+     */
+    @Synchronized
+    fun getGeneration() = generation
+
+    /**
+     * Caches the content of a notification read at the given [readGeneration], unless a write happened since.
+     */
+    @Synchronized
+    fun put(key: Key, content: NotificationContent, readGeneration: Long) {
+        if (generation == readGeneration) {
+            contents[key] = content
+        }
+    }
+
+    @Synchronized
+    fun remove(keys: Collection<Key>) {
+        generation++
+        keys.forEach { contents.remove(it) }
+    }
+
+    @Synchronized
+    fun clear() {
+        generation++
+        contents.clear()
+    }
+
+    @Synchronized
+    fun getHitCount() = hitCount
+
+    @Synchronized
+    fun getMissCount() = missCount
+
+    @Synchronized
+    fun getSize() = contents.size
+
+    data class Key(val remoteNoteId: Long, val noteHash: Long)
+
+    private companion object {
+        const val INITIAL_CAPACITY = 16
+        const val LOAD_FACTOR = 0.75f
+    }
+}
@@ -17,17 +17,19 @@ import kotlinx.coroutines.flow.mapLatest
 import kotlinx.coroutines.flow.onStart
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.notification.NoteIdSet
+import org.wordpress.android.fluxc.model.notification.NotificationContent
 import org.wordpress.android.fluxc.model.notification.NotificationModel
 import org.wordpress.android.fluxc.model.notification.NotificationModel.Kind
-import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
-import org.wordpress.android.fluxc.tools.FormattableMeta
+import java.util.concurrent.atomic.AtomicLong
 import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
 class NotificationSqlUtils @Inject constructor(private val formattableContentMapper: FormattableContentMapper) {
     private val dataUpdatesTrigger = MutableSharedFlow<Unit>(extraBufferCapacity = 1)
+    private val contentCache = NotificationContentCache(MAX_CACHED_CONTENTS)
+    private val decodedCount = AtomicLong()
 
     fun insertOrUpdateNotification(notification: NotificationModel): Int {
         val notificationResult = WellSql.select(NotificationModelBuilder::class.java)
@@ -41,10 +43,9 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup().endWhere()
                 .asModel
 
-        return if (notificationResult.isEmpty()) {
+        val affectedRows = if (notificationResult.isEmpty()) {
             // insert
             WellSql.insert(notification.toBuilder()).asSingleTransaction(true).execute()
-            dataUpdatesTrigger.tryEmit(Unit)
             1
         } else {
             // update
@@ -52,8 +53,112 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
             WellSql.update(NotificationModelBuilder::class.java).whereId(oldId).put(
                     notification.toBuilder(),
                     UpdateAllExceptId<NotificationModelBuilder>(NotificationModelBuilder::class.java)
-            ).execute().also(::triggerUpdateIfNeeded)
+            ).execute()
         }
+        evictContents(listOf(notification))
+        triggerUpdateIfNeeded(affectedRows)
+        return affectedRows
+    }
+
+    /**
+     * Same as [insertOrUpdateNotification] for all the given notifications, written in a single transaction.
+     *
+     * The existing rows are looked up with a single query, and the observers are notified once.
+     *
+     * @return The number of rows inserted or updated.
+     */
+    fun insertOrUpdateNotifications(notifications: List<NotificationModel>): Int {
+        if (notifications.isEmpty()) {
+            return 0
+        }
+        var affectedRows = 0
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val existingIds = getExistingNotificationIds(notifications)
+            notifications.forEach { notification ->
+                val remoteKey = notification.remoteSiteId to notification.remoteNoteId
+                val existingId = notification.noteId.takeIf { it in existingIds.localIds }
+                        ?: existingIds.byRemoteId[remoteKey]
+                val builder = notification.toBuilder()
+                if (existingId == null) {
+                    WellSql.insert(builder).execute()
+                    // Later duplicates of the same notification update the row just inserted
+                    existingIds.byRemoteId[remoteKey] = builder.id
+                    affectedRows++
+                } else {
+                    affectedRows += WellSql.update(NotificationModelBuilder::class.java).whereId(existingId).put(
+                            builder,
+                            UpdateAllExceptId<NotificationModelBuilder>(NotificationModelBuilder::class.java)
+                    ).execute()
+                }
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+            evictContents(notifications)
+        }
+        triggerUpdateIfNeeded(affectedRows)
+        return affectedRows
+    }
+
+    /**
+     * Evicts the content of the given notifications once they're written, so it's neither served from the cache nor
+     * cached again by a read that happened before the write.
+     */
+    private fun evictContents(notifications: List<NotificationModel>) {
+        contentCache.remove(notifications.map { NotificationContentCache.Key(it.remoteNoteId, it.noteHash) })
+    }
+
+    private fun getExistingNotificationIds(notifications: List<NotificationModel>): ExistingNotificationIds {
+        val existingIds = ExistingNotificationIds()
+        val localIds = notifications.map { it.noteId }.filter { it > 0 }.distinct()
+        val remoteIds = notifications.map { it.remoteNoteId }.distinct()
+        localIds.chunked(UploadSqlUtils.MAX_IN_CLAUSE_SIZE).forEach { ids ->
+            selectIdColumns().where().isIn(NotificationModelTable.ID, ids).endWhere()
+                    .getAsCursor().use { cursor ->
+                        while (cursor.moveToNext()) {
+                            existingIds.localIds.add(cursor.getInt(0))
+                        }
+                    }
+        }
+        remoteIds.chunked(UploadSqlUtils.MAX_IN_CLAUSE_SIZE).forEach { ids ->
+            // Ordered by id, so duplicated rows resolve to the first one as in insertOrUpdateNotification
+            selectIdColumns().where().isIn(NotificationModelTable.REMOTE_NOTE_ID, ids).endWhere()
+                    .orderBy(NotificationModelTable.ID, SelectQuery.ORDER_ASCENDING)
+                    .getAsCursor().use { cursor ->
+                        while (cursor.moveToNext()) {
+                            val remoteKey = cursor.getLong(1) to cursor.getLong(2)
+                            if (!existingIds.byRemoteId.containsKey(remoteKey)) {
+                                existingIds.byRemoteId[remoteKey] = cursor.getInt(0)
+                            }
+                        }
+                    }
+        }
+        return existingIds
+    }
+
+    private fun selectIdColumns() = WellSql.select(NotificationModelBuilder::class.java).columns(
+            NotificationModelTable.ID,
+            NotificationModelTable.REMOTE_SITE_ID,
+            NotificationModelTable.REMOTE_NOTE_ID
+    )
+
+    /**
+     * @return The remote id and hash of every notification, sorted by remote id. The content of the notifications
+     * isn't read, so it's cheap enough to compare against the hashes fetched on every sync.
+     */
+    fun getNotificationHashes(): List<NotificationHash> {
+        return WellSql.select(NotificationModelBuilder::class.java)
+                .columns(NotificationModelTable.REMOTE_NOTE_ID, NotificationModelTable.NOTE_HASH)
+                .orderBy(NotificationModelTable.REMOTE_NOTE_ID, SelectQuery.ORDER_ASCENDING)
+                .getAsCursor().use { cursor ->
+                    val hashes = ArrayList<NotificationHash>(cursor.count)
+                    while (cursor.moveToNext()) {
+                        hashes.add(NotificationHash(cursor.getLong(0), cursor.getLong(1)))
+                    }
+                    hashes
+                }
     }
 
     /**
@@ -67,6 +172,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         filterByType: List<String>? = null,
         filterBySubtype: List<String>? = null
     ): List<NotificationModel> {
+        val readGeneration = contentCache.getGeneration()
         val conditionClauseBuilder = WellSql.select(NotificationModelBuilder::class.java)
                 .where()
 
@@ -91,7 +197,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.buildWithCachedContent(readGeneration) }
     }
 
     @SuppressLint("WrongConstant")
@@ -101,6 +207,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         filterByType: List<String>? = null,
         filterBySubtype: List<String>? = null
     ): List<NotificationModel> {
+        val readGeneration = contentCache.getGeneration()
         val conditionClauseBuilder = WellSql.select(NotificationModelBuilder::class.java)
                 .where()
                 .equals(NotificationModelTable.REMOTE_SITE_ID, site.siteId)
@@ -126,7 +233,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.buildWithCachedContent(readGeneration) }
     }
 
     fun observeNotificationsForSite(
@@ -176,6 +283,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
 
     fun getNotificationByIdSet(idSet: NoteIdSet): NotificationModel? {
         val (id, remoteNoteId, remoteSiteId) = idSet
+        val readGeneration = contentCache.getGeneration()
         return WellSql.select(NotificationModelBuilder::class.java)
                 .where().beginGroup()
                 .equals(NotificationModelTable.ID, id)
@@ -186,21 +294,25 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup()
                 .endGroup().endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.buildWithCachedContent(readGeneration)
     }
 
     fun getNotificationByRemoteId(remoteNoteId: Long): NotificationModel? {
+        val readGeneration = contentCache.getGeneration()
         return WellSql.select(NotificationModelBuilder::class.java)
                 .where()
                 .equals(NotificationModelTable.REMOTE_NOTE_ID, remoteNoteId)
                 .endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.buildWithCachedContent(readGeneration)
     }
 
-    fun deleteAllNotifications() = WellSql.delete(NotificationModelBuilder::class.java)
-            .execute()
-            .also(::triggerUpdateIfNeeded)
+    fun deleteAllNotifications(): Int {
+        contentCache.clear()
+        return WellSql.delete(NotificationModelBuilder::class.java)
+                .execute()
+                .also(::triggerUpdateIfNeeded)
+    }
 
     fun deleteNotificationByRemoteId(remoteNoteId: Long): Int {
         return WellSql.delete(NotificationModelBuilder::class.java)
@@ -211,6 +323,58 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .also(::triggerUpdateIfNeeded)
     }
 
+    /**
+     * Deletes the notifications with the given remote ids in a single transaction.
+     *
+     * @return The number of rows deleted.
+     */
+    fun deleteNotificationsByRemoteIds(remoteNoteIds: List<Long>): Int {
+        if (remoteNoteIds.isEmpty()) {
+            return 0
+        }
+        var deletedRows = 0
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            remoteNoteIds.chunked(UploadSqlUtils.MAX_IN_CLAUSE_SIZE).forEach { ids ->
+                deletedRows += WellSql.delete(NotificationModelBuilder::class.java)
+                        .where().isIn(NotificationModelTable.REMOTE_NOTE_ID, ids).endWhere()
+                        .execute()
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        triggerUpdateIfNeeded(deletedRows)
+        return deletedRows
+    }
+
+    fun getContentMetrics() = NotificationContentMetrics(
+            contentCache.getHitCount(),
+            contentCache.getMissCount(),
+            contentCache.getSize(),
+            decodedCount.get()
+    )
+
+    /**
+     * @param readGeneration The generation of the content cache when the notification was read from the DB
+     */
+    private fun NotificationModelBuilder.buildWithCachedContent(readGeneration: Long): NotificationModel {
+        val key = NotificationContentCache.Key(remoteNoteId, noteHash)
+        contentCache.get(key)?.let { return build(it) }
+        lateinit var content: NotificationContent
+        content = NotificationContent.encoded(
+                formattableBody,
+                formattableSubject,
+                formattableMeta,
+                formattableContentMapper
+        ) {
+            decodedCount.incrementAndGet()
+            contentCache.put(key, content, readGeneration)
+        }
+        return build(content)
+    }
+
     private fun triggerUpdateIfNeeded(affectedRows: Int) {
         if (affectedRows != 0) dataUpdatesTrigger.tryEmit(Unit)
     }
@@ -229,12 +393,23 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 timestamp = this.timestamp,
                 url = this.url,
                 title = this.title,
-                formattableBody = this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableSubject = this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableMeta = this.meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
+                // Notifications read from the db are written back without decoding and encoding their content again
+                formattableBody = content.rawBody
+                        ?: this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableSubject = content.rawSubject
+                        ?: this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableMeta = content.rawMeta
+                        ?: this.meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
         )
     }
 
+    data class NotificationHash(val remoteNoteId: Long, val noteHash: Long)
+
+    private class ExistingNotificationIds {
+        val localIds = HashSet<Int>()
+        val byRemoteId = HashMap<Pair<Long, Long>, Int>()
+    }
+
     @Table(name = "NotificationModel")
     data class NotificationModelBuilder(
         @PrimaryKey @Column private var mId: Int = -1,
@@ -261,17 +436,18 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         override fun getId() = this.mId
 
         fun build(formattableContentMapper: FormattableContentMapper): NotificationModel {
-            val subkind: NotificationModel.Subkind? = subtype?.let { NotificationModel.Subkind.fromString(it) }
+            return build(
+                    NotificationContent.encoded(
+                            formattableBody,
+                            formattableSubject,
+                            formattableMeta,
+                            formattableContentMapper
+                    )
+            )
+        }
 
-            val body: List<FormattableContent>? = formattableBody?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val subject: List<FormattableContent>? = formattableSubject?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val meta: FormattableMeta? = formattableMeta?.let {
-                formattableContentMapper.mapToFormattableMeta(it)
-            }
+        internal fun build(content: NotificationContent): NotificationModel {
+            val subkind: NotificationModel.Subkind? = subtype?.let { NotificationModel.Subkind.fromString(it) }
             return NotificationModel(
                     mId,
                     remoteNoteId,
@@ -285,10 +461,25 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                     timestamp,
                     url,
                     title,
-                    body,
-                    subject,
-                    meta
+                    content
             )
         }
     }
+
+    /**
+     * @property hitCount The number of notifications read with the content decoded by an earlier read.
+     * @property missCount The number of notifications read with a content left to decode.
+     * @property cachedCount The number of decoded contents currently cached.
+     * @property decodedCount The number of parts of the contents decoded from JSON.
+     */
+    data class NotificationContentMetrics(
+        val hitCount: Long,
+        val missCount: Long,
+        val cachedCount: Int,
+        val decodedCount: Long
+    )
+
+    private companion object {
+        const val MAX_CACHED_CONTENTS = 500
+    }
 }
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
@@ -29,6 +30,7 @@ import org.wordpress.android.fluxc.model.revisions.LocalRevisionModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRemoteAutoSaveModel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -42,6 +44,8 @@ import dagger.Reusable;
 
 @Reusable
 public class PostSqlUtils {
+    private String[] mColumnsWithoutContent;
+
     @Inject public PostSqlUtils() {
     }
 
@@ -101,6 +105,124 @@ public class PostSqlUtils {
         return numberOfDeletedRows;
     }
 
+    /**
+     * Bulk version of {@link #insertOrUpdatePost(PostModel, boolean)}: existing rows for the whole list are resolved
+     * with a single query (only loading the columns needed to match them) and all the writes happen in a single
+     * transaction. Duplicate resolution and local changes handling are the same as for a single post.
+     *
+     * @return the number of affected rows, same as the sum of {@link #insertOrUpdatePost} for each post
+     */
+    public synchronized int insertOrUpdatePosts(List<PostModel> posts, boolean overwriteLocalChanges) {
+        if (posts == null || posts.isEmpty()) {
+            return 0;
+        }
+
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            List<PostModel> existingPosts = getExistingPostsForUpsert(posts);
+            int rowsAffected = 0;
+            for (PostModel post : posts) {
+                if (post == null) {
+                    continue;
+                }
+                rowsAffected += insertOrUpdatePostInTransaction(post, overwriteLocalChanges, existingPosts);
+            }
+            db.setTransactionSuccessful();
+            return rowsAffected;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private List<PostModel> getExistingPostsForUpsert(List<PostModel> posts) {
+        List<Integer> localIds = new ArrayList<>();
+        List<Long> remoteIds = new ArrayList<>();
+        for (PostModel post : posts) {
+            if (post == null) {
+                continue;
+            }
+            localIds.add(post.getId());
+            if (!post.isLocalDraft()) {
+                remoteIds.add(post.getRemotePostId());
+            }
+        }
+        ConditionClauseBuilder<SelectQuery<PostModel>> whereQuery =
+                WellSql.select(PostModel.class)
+                       // We only need the columns used to match and resolve the existing rows
+                       .columns(PostModelTable.ID, PostModelTable.REMOTE_POST_ID, PostModelTable.LOCAL_SITE_ID,
+                               PostModelTable.IS_LOCAL_DRAFT, PostModelTable.IS_LOCALLY_CHANGED)
+                       .where().beginGroup()
+                       .isIn(PostModelTable.ID, localIds);
+        if (!remoteIds.isEmpty()) {
+            whereQuery = whereQuery.or().isIn(PostModelTable.REMOTE_POST_ID, remoteIds);
+        }
+        // Same order as the single post query, so duplicates are resolved the same way
+        return new ArrayList<>(whereQuery.endGroup().endWhere().orderBy(PostModelTable.ID, SelectQuery.ORDER_ASCENDING)
+                                         .getAsModel());
+    }
+
+    /**
+     * Same as {@link #insertOrUpdatePost(PostModel, boolean)}, but matches the post against {@code existingPosts}
+     * instead of querying the database. {@code existingPosts} is kept in sync with the writes, so later posts in the
+     * same batch see earlier ones.
+     */
+    private int insertOrUpdatePostInTransaction(PostModel post, boolean overwriteLocalChanges,
+                                                List<PostModel> existingPosts) {
+        List<PostModel> postResult = new ArrayList<>();
+        for (PostModel existing : existingPosts) {
+            boolean matchesLocalId = existing.getId() == post.getId();
+            boolean matchesRemoteId = !post.isLocalDraft()
+                                      && existing.getRemotePostId() == post.getRemotePostId()
+                                      && existing.getLocalSiteId() == post.getLocalSiteId();
+            if (matchesLocalId || matchesRemoteId) {
+                postResult.add(existing);
+            }
+        }
+        int numberOfDeletedRows = 0;
+        if (postResult.isEmpty()) {
+            // insert
+            WellSql.insert(post).asSingleTransaction(false).execute();
+            existingPosts.add(copyForUpsert(post, post.getId()));
+            return 1;
+        } else {
+            if (postResult.size() > 1) {
+                // See insertOrUpdatePost: keep the entry matching the local ID and remove the duplicated one we got
+                // from a fetch.
+                ListIterator<PostModel> postModelListIterator = postResult.listIterator();
+                while (postModelListIterator.hasNext()) {
+                    PostModel item = postModelListIterator.next();
+                    if (item.getId() != post.getId()) {
+                        WellSql.delete(PostModel.class).whereId(item.getId());
+                        existingPosts.remove(item);
+                        postModelListIterator.remove();
+                        numberOfDeletedRows++;
+                    }
+                }
+            }
+            // Update only if local changes for this post don't exist
+            if (overwriteLocalChanges || !postResult.get(0).isLocallyChanged()) {
+                PostModel oldPost = postResult.get(0);
+                int oldId = oldPost.getId();
+                int updatedRows = WellSql.update(PostModel.class).whereId(oldId)
+                                         .put(post, new UpdateAllExceptId<>(PostModel.class)).execute();
+                existingPosts.set(existingPosts.indexOf(oldPost), copyForUpsert(post, oldId));
+                return updatedRows + numberOfDeletedRows;
+            }
+        }
+        return numberOfDeletedRows;
+    }
+
+    private static PostModel copyForUpsert(PostModel post, int id) {
+        PostModel copy = new PostModel();
+        copy.setId(id);
+        copy.setRemotePostId(post.getRemotePostId());
+        copy.setLocalSiteId(post.getLocalSiteId());
+        copy.setIsLocalDraft(post.isLocalDraft());
+        copy.setIsLocallyChanged(post.isLocallyChanged());
+        return copy;
+    }
+
     public int insertOrUpdatePostKeepingLocalChanges(PostModel post) {
         return insertOrUpdatePost(post, false);
     }
@@ -124,6 +246,118 @@ public class PostSqlUtils {
                 .getAsModel();
     }
 
+    /**
+     * Returns the pages of the given site without their content and autosaved content, which can be large and aren't
+     * needed to list pages. Local drafts and locally changed pages are loaded in full, since their content is part of
+     * the hash used to tell whether their changes were confirmed.
+     */
+    public List<PostModel> getPagesForSiteWithoutContent(SiteModel site) {
+        if (site == null) {
+            return Collections.emptyList();
+        }
+
+        List<PostModel> pages = new ArrayList<>(WellSql.select(PostModel.class)
+                .where()
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostModelTable.IS_PAGE, true)
+                .beginGroup()
+                .equals(PostModelTable.IS_LOCAL_DRAFT, true)
+                .or().equals(PostModelTable.IS_LOCALLY_CHANGED, true)
+                .endGroup().endWhere()
+                .getAsModel());
+        pages.addAll(WellSql.select(PostModel.class)
+                .columns(getColumnsWithoutContent())
+                .where().beginGroup()
+                .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(PostModelTable.IS_PAGE, true)
+                .equals(PostModelTable.IS_LOCAL_DRAFT, false)
+                .equals(PostModelTable.IS_LOCALLY_CHANGED, false)
+                .endGroup().endWhere()
+                .getAsModel());
+        return pages;
+    }
+
+    /**
+     * Same as {@link #getPagesForSiteWithoutContent(SiteModel)}, for the pages with the given remote ids only.
+     */
+    public List<PostModel> getPagesForSiteWithoutContent(SiteModel site, List<Long> remotePageIds) {
+        return getPagesForSiteWithoutContent(site, PostModelTable.REMOTE_POST_ID, remotePageIds);
+    }
+
+    private <T> List<PostModel> getPagesForSiteWithoutContent(SiteModel site, String idColumn, List<T> ids) {
+        List<PostModel> pages = new ArrayList<>();
+        for (List<T> batch : UploadSqlUtils.getBatches(ids, UploadSqlUtils.MAX_IN_CLAUSE_SIZE)) {
+            pages.addAll(WellSql.select(PostModel.class)
+                    .where()
+                    .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                    .equals(PostModelTable.IS_PAGE, true)
+                    .isIn(idColumn, batch)
+                    .beginGroup()
+                    .equals(PostModelTable.IS_LOCAL_DRAFT, true)
+                    .or().equals(PostModelTable.IS_LOCALLY_CHANGED, true)
+                    .endGroup().endWhere()
+                    .getAsModel());
+            pages.addAll(WellSql.select(PostModel.class)
+                    .columns(getColumnsWithoutContent())
+                    .where().beginGroup()
+                    .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
+                    .equals(PostModelTable.IS_PAGE, true)
+                    .isIn(idColumn, batch)
+                    .equals(PostModelTable.IS_LOCAL_DRAFT, false)
+                    .equals(PostModelTable.IS_LOCALLY_CHANGED, false)
+                    .endGroup().endWhere()
+                    .getAsModel());
+        }
+        return pages;
+    }
+
+    /**
+     * Returns the pages of the given site with a title matching every word of the search query as a prefix, without
+     * their content like {@link #getPagesForSiteWithoutContent(SiteModel)}, using the full-text index instead of
+     * scanning every title. Returns null when the search query doesn't contain any searchable word, or is written in
+     * a script the index doesn't split into words, such as Chinese or Thai.
+     */
+    @Nullable
+    public List<PostModel> searchPagesForSiteByTitleWithoutContent(SiteModel site, String searchQuery) {
+        String matchQuery = FtsTable.toPrefixMatchQuery(searchQuery, PostModelTable.TITLE);
+        if (matchQuery == null) {
+            return null;
+        }
+        String sql = "SELECT " + PostModelTable.ID + " FROM " + FtsTable.POST_MODEL.getContentTableName()
+                     + " WHERE " + PostModelTable.LOCAL_SITE_ID + " = ?"
+                     + " AND " + PostModelTable.IS_PAGE + " = 1"
+                     + " AND " + FtsTable.POST_MODEL.idMatchCondition();
+        String[] args = {String.valueOf(site.getId()), matchQuery};
+        List<Integer> pageIds = new ArrayList<>();
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                pageIds.add(cursor.getInt(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return getPagesForSiteWithoutContent(site, PostModelTable.ID, pageIds);
+    }
+
+    private synchronized String[] getColumnsWithoutContent() {
+        if (mColumnsWithoutContent == null) {
+            // Read the columns from the table, so the ones added later are part of the projection
+            Cursor cursor = WellSql.giveMeWritableDb()
+                                   .rawQuery("SELECT * FROM " + FtsTable.POST_MODEL.getContentTableName() + " LIMIT 0",
+                                           null);
+            try {
+                List<String> columns = new ArrayList<>(Arrays.asList(cursor.getColumnNames()));
+                columns.remove(PostModelTable.CONTENT);
+                columns.remove(PostModelTable.AUTO_SAVE_CONTENT);
+                mColumnsWithoutContent = columns.toArray(new String[0]);
+            } finally {
+                cursor.close();
+            }
+        }
+        return mColumnsWithoutContent;
+    }
+
     public List<PostModel> getPostsForSiteWithFormat(SiteModel site, List<String> postFormat, boolean getPages) {
         if (site == null) {
             return Collections.emptyList();
@@ -402,6 +636,10 @@ public class PostSqlUtils {
 
     public List<LocalId> getLocalPostIdsForFilter(SiteModel site, boolean isPage, String searchQuery,
                                                          String orderBy, @Order int order) {
+        String matchQuery = FtsTable.toPrefixMatchQuery(searchQuery);
+        if (matchQuery != null) {
+            return searchLocalPostIds(site, isPage, matchQuery, orderBy, order);
+        }
         ConditionClauseBuilder<SelectQuery<PostModel>> clauseBuilder =
                 WellSql.select(PostModel.class)
                        // We only need the local ids
@@ -427,6 +665,31 @@ public class PostSqlUtils {
         return localPostIds;
     }
 
+    /**
+     * Searches the local drafts using the full-text index over their title, content and excerpt, instead of
+     * scanning every post body with `LIKE`. Every word of the query is matched as a prefix.
+     */
+    private List<LocalId> searchLocalPostIds(SiteModel site, boolean isPage, String matchQuery,
+                                             String orderBy, @Order int order) {
+        String sql = "SELECT " + PostModelTable.ID + " FROM " + FtsTable.POST_MODEL.getContentTableName()
+                     + " WHERE " + PostModelTable.IS_LOCAL_DRAFT + " = 1"
+                     + " AND " + PostModelTable.LOCAL_SITE_ID + " = ?"
+                     + " AND " + PostModelTable.IS_PAGE + " = ?"
+                     + " AND " + FtsTable.POST_MODEL.idMatchCondition()
+                     + " ORDER BY " + orderBy + (order == SelectQuery.ORDER_ASCENDING ? " ASC" : " DESC");
+        String[] args = {String.valueOf(site.getId()), isPage ? "1" : "0", matchQuery};
+        List<LocalId> localPostIds = new ArrayList<>();
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                localPostIds.add(new LocalId(cursor.getInt(0)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return localPostIds;
+    }
+
     public int deletePostLikesAndPurgeExpired(long siteId, long remotePostId) {
         int numDeleted = WellSql.delete(LikeModel.class)
                                 .where()
@@ -0,0 +1,18 @@
+package org.wordpress.android.fluxc.persistence
+
+/**
+ * Tells an in-memory cache of WellSql rows whether the tables were reset by [WellSqlConfig.reset] since it last
+ * checked, in which case the cache has to be cleared. Not thread-safe, it's meant to be used under the cache's lock.
+ */
+internal class ResetObserver {
+    private var resetCount = WellSqlConfig.resetCount
+
+    fun hasReset(): Boolean {
+        val currentResetCount = WellSqlConfig.resetCount
+        if (currentResetCount == resetCount) {
+            return false
+        }
+        resetCount = currentResetCount
+        return true
+    }
+}
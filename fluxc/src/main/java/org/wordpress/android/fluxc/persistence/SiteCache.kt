@@ -0,0 +1,132 @@
+package org.wordpress.android.fluxc.persistence
+
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SiteCacheMetrics
+
+/**
+ * In-memory cache of the [SiteModel]s looked up by id, indexed by local id, (remote) site id and XML-RPC url.
+ *
+ * Sites are loaded lazily, and evicted by [SiteSqlUtils] every time their row is written, so the next lookup reads
+ * them again from the DB. Only sites found in the DB are cached: lookups of missing sites always hit the DB.
+ *
+ * [SiteModel] is mutable, so the cache keeps its own copies and returns a new copy on every lookup, the same way each
+ * DB lookup returns a new instance.
+ */
+internal class SiteCache {
+    private val sitesByLocalId = HashMap<Int, SiteModel>()
+    private val localIdsBySiteId = HashMap<Long, Int>()
+    private val localIdsByXmlRpcUrl = HashMap<String, Int>()
+    private val resetObserver = ResetObserver()
+
+    // Incremented on every invalidation, so a site read from the DB before a write isn't cached after it
+    private var generation = 0L
+    private var hitCount = 0L
+    private var missCount = 0L
+
+    fun getByLocalId(localId: Int, load: () -> SiteModel?): SiteModel? {
+        return get({ sitesByLocalId[localId] }, load)
+    }
+
+    fun getBySiteId(siteId: Long, load: () -> SiteModel?): SiteModel? {
+        return get({ getCachedBySiteIdLocked(siteId) }, load)
+    }
+
+    /**
+     * Returns the cached site with the given local id, counting a miss without loading anything if it's not cached.
+     */
+    fun getCachedByLocalId(localId: Int): SiteModel? = getCached { sitesByLocalId[localId] }
+
+    fun getCachedBySiteId(siteId: Long): SiteModel? = getCached { getCachedBySiteIdLocked(siteId) }
+
+    fun getCachedByXmlRpcUrl(xmlRpcUrl: String?): SiteModel? = getCached {
+        xmlRpcUrl?.let { localIdsByXmlRpcUrl[it] }?.let { sitesByLocalId[it] }
+    }
+
+    @Synchronized
+    fun invalidate(vararg localIds: Int) {
+        generation++
+        for (localId in localIds) {
+            val site = sitesByLocalId.remove(localId) ?: continue
+            if (localIdsBySiteId[site.siteId] == localId) {
+                localIdsBySiteId.remove(site.siteId)
+            }
+            if (localIdsByXmlRpcUrl[site.xmlRpcUrl] == localId) {
+                localIdsByXmlRpcUrl.remove(site.xmlRpcUrl)
+            }
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        clearLocked()
+    }
+
+    @Synchronized
+    fun getMetrics(): SiteCacheMetrics {
+        clearIfReset()
+        return SiteCacheMetrics(hitCount, missCount, sitesByLocalId.size)
+    }
+
+    private fun clearLocked() {
+        generation++
+        sitesByLocalId.clear()
+        localIdsBySiteId.clear()
+        localIdsByXmlRpcUrl.clear()
+    }
+
+    // The tables can be reset without going through SiteSqlUtils
+    private fun clearIfReset() {
+        if (resetObserver.hasReset()) {
+            clearLocked()
+        }
+    }
+
+    private fun get(getCached: () -> SiteModel?, load: () -> SiteModel?): SiteModel? {
+        val loadGeneration = synchronized(this) {
+            clearIfReset()
+            getCached()?.let {
+                hitCount++
+                return it.clone()
+            }
+            missCount++
+            generation
+        }
+        val site = load() ?: return null
+        synchronized(this) {
+            clearIfReset()
+            if (generation == loadGeneration) {
+                put(site.clone())
+            }
+        }
+        return site
+    }
+
+    @Synchronized
+    private fun getCached(getCached: () -> SiteModel?): SiteModel? {
+        clearIfReset()
+        val site = getCached()
+        if (site != null) hitCount++ else missCount++
+        return site?.clone()
+    }
+
+    private fun getCachedBySiteIdLocked(siteId: Long): SiteModel? {
+        // Self-hosted sites all share the 0 site id, they can't be told apart by it
+        if (siteId <= 0) {
+            return null
+        }
+        return localIdsBySiteId[siteId]?.let { sitesByLocalId[it] }
+    }
+
+    private fun put(site: SiteModel) {
+        sitesByLocalId[site.id] = site
+        // Keep the first site cached for a key, like the DB lookups would return the first matching row
+        if (site.siteId > 0 && !localIdsBySiteId.containsKey(site.siteId)) {
+            localIdsBySiteId[site.siteId] = site.id
+        }
+        site.xmlRpcUrl?.let { xmlRpcUrl ->
+            if (!localIdsByXmlRpcUrl.containsKey(xmlRpcUrl)) {
+                localIdsByXmlRpcUrl[xmlRpcUrl] = site.id
+            }
+        }
+    }
+}
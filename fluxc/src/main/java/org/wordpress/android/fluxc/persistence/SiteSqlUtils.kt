@@ -37,23 +37,42 @@ class SiteSqlUtils
         private const val serialVersionUID = -224883903136726226L
     }
 
-    fun getSiteWithLocalId(id: LocalId): SiteModel? = WellSql.select(SiteModel::class.java)
-            .where()
-            .equals(SiteModelTable.ID, id.value)
-            .endWhere()
-            .asModel
-            .firstOrNull()
-
-    fun getSitesWithLocalId(id: Int): List<SiteModel> {
-        return WellSql.select(SiteModel::class.java)
-                .where().equals(SiteModelTable.ID, id).endWhere().asModel
+    data class SiteCacheMetrics(val hitCount: Long, val missCount: Long, val cachedSiteCount: Int)
+
+    private val siteCache = SiteCache()
+
+    fun getSiteWithLocalId(id: LocalId): SiteModel? = siteCache.getByLocalId(id.value) {
+        WellSql.select(SiteModel::class.java)
+                .where()
+                .equals(SiteModelTable.ID, id.value)
+                .endWhere()
+                .asModel
+                .firstOrNull()
     }
 
+    fun getSitesWithLocalId(id: Int): List<SiteModel> = listOfNotNull(getSiteWithLocalId(LocalId(id)))
+
     fun getSitesWithRemoteId(id: Long): List<SiteModel> {
         return WellSql.select(SiteModel::class.java)
                 .where().equals(SiteModelTable.SITE_ID, id).endWhere().asModel
     }
 
+    /**
+     * Returns the first site matching the given (remote) site id, from the cache when it's been loaded already.
+     */
+    fun getSiteWithRemoteId(id: Long): SiteModel? = siteCache.getBySiteId(id) {
+        getSitesWithRemoteId(id).firstOrNull()
+    }
+
+    fun getSitesCount(): Int = WellSql.select(SiteModel::class.java).count().toInt()
+
+    fun getSitesCountWith(field: String?, value: Boolean): Int = getSitesWith(field, value).count().toInt()
+
+    /**
+     * Returns the hit and miss counts of the in-memory site cache, used by the site lookups by id.
+     */
+    fun getSiteCacheMetrics(): SiteCacheMetrics = siteCache.getMetrics()
+
     fun getWpComSites(): List<SiteModel> {
         return WellSql.select(SiteModel::class.java)
                 .where().equals(SiteModelTable.IS_WPCOM, true).endWhere().asModel
@@ -112,7 +131,16 @@ class SiteSqlUtils
         if (site == null) {
             return 0
         }
+        try {
+            return insertOrUpdateSiteRow(site)
+        } finally {
+            // The given model might be a cached instance the caller has edited, reload it on the next lookup
+            siteCache.invalidate(site.id)
+        }
+    }
 
+    @Throws(DuplicateSiteException::class)
+    private fun insertOrUpdateSiteRow(site: SiteModel): Int {
         // If we're inserting or updating a WP.com REST API site, validate that we actually have a WordPress.com
         // AccountModel present
         // This prevents a late UPDATE_SITES action from re-populating the database after sign out from WordPress.com
@@ -211,26 +239,34 @@ class SiteSqlUtils
                         e
                 )
                 throw DuplicateSiteException
+            } finally {
+                siteCache.invalidate(oldId)
             }
         }
     }
 
     fun deleteSite(site: SiteModel?): Int {
-        return if (site == null) {
-            0
-        } else WellSql.delete(SiteModel::class.java)
+        if (site == null) {
+            return 0
+        }
+        val rowsAffected = WellSql.delete(SiteModel::class.java)
                 .where().equals(SiteModelTable.ID, site.id).endWhere()
                 .execute()
+        siteCache.invalidate(site.id)
+        return rowsAffected
     }
 
     fun deleteAllSites(): Int {
-        return WellSql.delete(SiteModel::class.java).execute()
+        val rowsAffected = WellSql.delete(SiteModel::class.java).execute()
+        siteCache.clear()
+        return rowsAffected
     }
 
     fun setSiteVisibility(site: SiteModel?, visible: Boolean): Int {
-        return if (site == null) {
-            0
-        } else WellSql.update(SiteModel::class.java)
+        if (site == null) {
+            return 0
+        }
+        val rowsAffected = WellSql.update(SiteModel::class.java)
                 .whereId(site.id)
                 .where().equals(SiteModelTable.IS_WPCOM, true).endWhere()
                 .put(visible, { item ->
@@ -238,6 +274,8 @@ class SiteSqlUtils
                     cv.put(SiteModelTable.IS_VISIBLE, item)
                     cv
                 }).execute()
+        siteCache.invalidate(site.id)
+        return rowsAffected
     }
 
     val wPComSites: SelectQuery<SiteModel>
@@ -465,6 +503,7 @@ class SiteSqlUtils
      * Given a (remote) site id, returns the corresponding (local) id.
      */
     fun getLocalIdForRemoteSiteId(siteId: Long): Int {
+        siteCache.getCachedBySiteId(siteId)?.let { return it.id }
         val sites = WellSql.select(SiteModel::class.java)
                 .where().beginGroup()
                 .equals(SiteModelTable.SITE_ID, siteId)
@@ -487,6 +526,9 @@ class SiteSqlUtils
      * Given a (remote) self-hosted site id and XML-RPC url, returns the corresponding (local) id.
      */
     fun getLocalIdForSelfHostedSiteIdAndXmlRpcUrl(selfHostedSiteId: Long, xmlRpcUrl: String?): Int {
+        siteCache.getCachedByXmlRpcUrl(xmlRpcUrl)
+                ?.takeIf { it.selfHostedSiteId == selfHostedSiteId }
+                ?.let { return it.id }
         val sites = WellSql.select(SiteModel::class.java)
                 .where().beginGroup()
                 .equals(SiteModelTable.SELF_HOSTED_SITE_ID, selfHostedSiteId)
@@ -503,6 +545,7 @@ class SiteSqlUtils
      * sites.
      */
     fun getSiteIdForLocalId(id: Int): Long {
+        siteCache.getCachedByLocalId(id)?.let { return if (it.siteId > 0) it.siteId else it.selfHostedSiteId }
         val result = WellSql.select(SiteModel::class.java)
                 .where().beginGroup()
                 .equals(SiteModelTable.ID, id)
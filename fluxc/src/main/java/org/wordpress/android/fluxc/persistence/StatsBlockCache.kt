@@ -0,0 +1,102 @@
+package org.wordpress.android.fluxc.persistence
+
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsCacheMetrics
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType
+
+/**
+ * In-memory LRU cache of the stats blocks read by [StatsSqlUtils], kept decoded so reading a block again, e.g. when
+ * reopening the stats or switching back to a granularity, doesn't parse its JSON again.
+ *
+ * Blocks are loaded lazily, and evicted by [StatsSqlUtils] every time a block of the same site, block type and stats
+ * type is written, and cleared when the tables are reset. Blocks missing from the DB are cached as well.
+ */
+internal class StatsBlockCache(private val maxSize: Int) {
+    private val blocks = object : LinkedHashMap<Key, Entry>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>?) = size > maxSize
+    }
+    private val resetObserver = ResetObserver()
+
+    // Incremented on every invalidation, so a block read from the DB before a write isn't cached after it
+    private var generation = 0L
+    private var hitCount = 0L
+    private var missCount = 0L
+
+    fun <T> get(key: Key, load: () -> T): T {
+        val loadGeneration = synchronized(this) {
+            clearIfReset()
+            blocks[key]?.let {
+                hitCount++
+                @Suppress("UNCHECKED_CAST")
+                return it.value as T
+            }
+            missCount++
+            generation
+        }
+        val value = load()
+        synchronized(this) {
+            clearIfReset()
+            if (generation == loadGeneration) {
+                blocks[key] = Entry(value)
+            }
+        }
+        return value
+    }
+
+    /**
+     * Evicts the blocks of the given site, and of the given block and stats types when they're not `null`.
+     */
+    @Synchronized
+    fun invalidate(localSiteId: Int, blockType: BlockType? = null, statsType: StatsType? = null) {
+        generation++
+        blocks.keys.removeAll { key ->
+            key.localSiteId == localSiteId &&
+                    (blockType == null || key.blockType == blockType) &&
+                    (statsType == null || key.statsType == statsType)
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        clearLocked()
+    }
+
+    @Synchronized
+    fun getMetrics(): StatsCacheMetrics {
+        clearIfReset()
+        return StatsCacheMetrics(hitCount, missCount, blocks.size)
+    }
+
+    private fun clearLocked() {
+        generation++
+        blocks.clear()
+    }
+
+    // The tables can be reset without going through StatsSqlUtils
+    private fun clearIfReset() {
+        if (resetObserver.hasReset()) {
+            clearLocked()
+        }
+    }
+
+    /**
+     * Identifies a read of [StatsSqlUtils], either of the first block or of all the blocks matching the other fields.
+     */
+    data class Key(
+        val localSiteId: Int,
+        val blockType: BlockType,
+        val statsType: StatsType,
+        val date: String?,
+        val postId: Long?,
+        val classOfT: Class<*>,
+        val isAllBlocks: Boolean
+    )
+
+    // Wraps the cached values, which can be `null` when the block isn't in the DB
+    private class Entry(val value: Any?)
+
+    private companion object {
+        const val INITIAL_CAPACITY = 16
+        const val LOAD_FACTOR = 0.75f
+    }
+}
@@ -68,6 +68,29 @@ class StatsRequestSqlUtils
         ).asModel.firstOrNull<StatsRequestBuilder?>() != null
     }
 
+    /**
+     * Returns whether the block was fetched within the [STALE_WHILE_REVALIDATE_PERIOD]. Once the block isn't fresh
+     * anymore, the stores can return it while fetching it again in the background, instead of waiting for the request.
+     */
+    fun hasStaleRequest(
+        site: SiteModel,
+        blockType: BlockType,
+        statsType: StatsType,
+        requestedItems: Int? = null,
+        date: String? = null,
+        postId: Long? = null
+    ): Boolean {
+        return hasFreshRequest(
+                site,
+                blockType,
+                statsType,
+                requestedItems,
+                System.currentTimeMillis() - STALE_WHILE_REVALIDATE_PERIOD,
+                date,
+                postId
+        )
+    }
+
     private fun createSelectStatement(
         site: SiteModel,
         blockType: BlockType,
@@ -117,5 +140,6 @@ class StatsRequestSqlUtils
 
     companion object {
         private const val STALE_PERIOD = 5 * 60 * 1000
+        private const val STALE_WHILE_REVALIDATE_PERIOD = 30 * 60 * 1000
     }
 }
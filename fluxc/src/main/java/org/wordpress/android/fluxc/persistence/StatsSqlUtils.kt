@@ -15,6 +15,9 @@ import javax.inject.Singleton
 
 const val DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ"
 
+// Enough for the blocks of every granularity of the stats of a couple of sites
+private const val MAX_CACHED_BLOCKS = 200
+
 @Singleton
 class StatsSqlUtils
 @Inject constructor() {
@@ -24,6 +27,16 @@ class StatsSqlUtils
         builder.create()
     }
 
+    data class StatsCacheMetrics(val hitCount: Long, val missCount: Long, val cachedBlockCount: Int)
+
+    private val blockCache = StatsBlockCache(MAX_CACHED_BLOCKS)
+
+    /**
+     * Returns the hit and miss counts of the in-memory cache of the decoded stats blocks, used by [select] and
+     * [selectAll].
+     */
+    fun getCacheMetrics(): StatsCacheMetrics = blockCache.getMetrics()
+
     fun <T> insert(
         site: SiteModel,
         blockType: BlockType,
@@ -34,6 +47,23 @@ class StatsSqlUtils
         postId: Long? = null
     ) {
         val json = gson.toJson(item)
+        try {
+            insertBlock(site, blockType, statsType, json, replaceExistingData, date, postId)
+        } finally {
+            // The reads of the blocks of any date or post might have been changed
+            blockCache.invalidate(site.id, blockType, statsType)
+        }
+    }
+
+    private fun insertBlock(
+        site: SiteModel,
+        blockType: BlockType,
+        statsType: StatsType,
+        json: String,
+        replaceExistingData: Boolean,
+        date: String?,
+        postId: Long?
+    ) {
         if (replaceExistingData) {
             var deleteStatement = WellSql.delete(StatsBlockBuilder::class.java)
                     .where()
@@ -68,8 +98,11 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): List<T> {
-        val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
-        return models.map { gson.fromJson(it.json, classOfT) }
+        val key = StatsBlockCache.Key(site.id, blockType, statsType, date, postId, classOfT, isAllBlocks = true)
+        return blockCache.get(key) {
+            val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
+            models.map { gson.fromJson(it.json, classOfT) }
+        }
     }
 
     fun <T> select(
@@ -80,23 +113,27 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): T? {
-        val model = createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()
-        if (model != null) {
-            return gson.fromJson(model.json, classOfT)
+        val key = StatsBlockCache.Key(site.id, blockType, statsType, date, postId, classOfT, isAllBlocks = false)
+        return blockCache.get(key) {
+            val model = createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()
+            model?.let { gson.fromJson(it.json, classOfT) }
         }
-        return null
     }
 
     fun deleteAllStats(): Int {
-        return WellSql.delete(StatsBlockBuilder::class.java).execute()
+        val rowsAffected = WellSql.delete(StatsBlockBuilder::class.java).execute()
+        blockCache.clear()
+        return rowsAffected
     }
 
     fun deleteSiteStats(site: SiteModel): Int {
-        return WellSql.delete(StatsBlockBuilder::class.java)
+        val rowsAffected = WellSql.delete(StatsBlockBuilder::class.java)
                 .where()
                 .equals(StatsBlockTable.LOCAL_SITE_ID, site.id)
                 .endWhere()
                 .execute()
+        blockCache.invalidate(site.id)
+        return rowsAffected
     }
 
     private fun createSelectStatement(
@@ -0,0 +1,28 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+
+/**
+ * An index over some columns of a WellSql table. WellSql only creates the tables themselves, so the indexes have to be
+ * created again whenever their table is created, and are dropped along with it.
+ */
+class TableIndex(
+    val tableName: String,
+    private val columns: List<String>
+) {
+    val indexName = "index_${tableName}_${columns.joinToString("_")}"
+
+    fun create(db: SQLiteDatabase) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS $indexName ON $tableName(${columns.joinToString(",")})")
+    }
+
+    companion object {
+        val MEDIA_MODEL_SITE_UPLOAD_DATE = TableIndex("MediaModel", listOf("LOCAL_SITE_ID", "UPLOAD_DATE"))
+        val MEDIA_MODEL_SITE_MIME_CLASS_UPLOAD_DATE = TableIndex(
+                "MediaModel",
+                listOf("LOCAL_SITE_ID", "MIME_CLASS", "UPLOAD_DATE")
+        )
+
+        val ALL = listOf(MEDIA_MODEL_SITE_UPLOAD_DATE, MEDIA_MODEL_SITE_MIME_CLASS_UPLOAD_DATE)
+    }
+}
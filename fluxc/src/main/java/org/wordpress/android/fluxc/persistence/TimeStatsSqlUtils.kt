@@ -106,6 +106,30 @@ open class TimeStatsSqlUtils<RESPONSE_TYPE>(
         )
     }
 
+    fun hasStaleRequest(
+        site: SiteModel,
+        granularity: StatsGranularity,
+        date: Date,
+        requestedItems: Int? = null
+    ): Boolean {
+        return hasStaleRequest(site, granularity, statsUtils.getFormattedDate(date), requestedItems)
+    }
+
+    fun hasStaleRequest(
+        site: SiteModel,
+        granularity: StatsGranularity,
+        date: String,
+        requestedItems: Int? = null
+    ): Boolean {
+        return statsRequestSqlUtils.hasStaleRequest(
+                site,
+                blockType,
+                granularity.toStatsType(),
+                requestedItems,
+                date = date
+        )
+    }
+
     class PostsAndPagesSqlUtils
     @Inject constructor(
         statsSqlUtils: StatsSqlUtils,
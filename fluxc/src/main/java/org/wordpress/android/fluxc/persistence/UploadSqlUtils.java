@@ -25,6 +25,9 @@ import java.util.List;
 import java.util.Set;
 
 public class UploadSqlUtils {
+    // Leaves room for the other arguments of the queries under SQLite's default limit of 999 arguments
+    public static final int MAX_IN_CLAUSE_SIZE = 990;
+
     public static int insertOrUpdateMedia(MediaUploadModel media) {
         if (media == null) return 0;
 
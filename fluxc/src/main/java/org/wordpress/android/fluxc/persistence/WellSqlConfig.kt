@@ -7,9 +7,12 @@ import android.preference.PreferenceManager
 import android.view.Gravity
 import android.widget.Toast
 import androidx.annotation.StringDef
+import com.google.gson.JsonParseException
+import com.google.gson.JsonParser
 import com.yarolegovich.wellsql.DefaultWellConfig
 import com.yarolegovich.wellsql.WellSql
 import com.yarolegovich.wellsql.WellTableManager
+import com.yarolegovich.wellsql.core.Identifiable
 import org.wordpress.android.fluxc.BuildConfig
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T
@@ -19,6 +22,15 @@ import kotlin.annotation.AnnotationTarget.VALUE_PARAMETER
 open class WellSqlConfig : DefaultWellConfig {
     companion object {
         const val ADDON_WOOCOMMERCE = "WC"
+
+        /**
+         * Incremented every time the tables are dropped and created again, so the in-memory caches of their rows can
+         * tell they're stale, see [ResetObserver].
+         */
+        @Volatile
+        @JvmStatic
+        var resetCount = 0L
+            private set
     }
 
     constructor(context: Context) : super(context)
@@ -30,7 +42,7 @@ open class WellSqlConfig : DefaultWellConfig {
     annotation class AddOn
 
     override fun getDbVersion(): Int {
-        return 173
+        return 177
     }
 
     override fun getDbName(): String {
@@ -39,6 +51,7 @@ open class WellSqlConfig : DefaultWellConfig {
 
     override fun onCreate(db: SQLiteDatabase, helper: WellTableManager) {
         mTables.forEach { table -> helper.createTable(table) }
+        recreateFtsTables(db, mTables)
     }
 
     @Suppress("CheckStyle")
@@ -1848,6 +1861,35 @@ open class WellSqlConfig : DefaultWellConfig {
                 172 -> migrate(version) {
                     db.execSQL("ALTER TABLE EditorTheme ADD QUOTE_BLOCK_V2 BOOLEAN")
                 }
+                173 -> migrate(version) {
+                    FtsTable.POST_MODEL.create(db)
+                }
+                174 -> migrateAddOn(ADDON_WOOCOMMERCE, version) {
+                    db.execSQL(
+                            "CREATE TABLE WCProductCategoryLinkModel (_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                    "LOCAL_SITE_ID INTEGER,REMOTE_PRODUCT_ID INTEGER,REMOTE_CATEGORY_ID INTEGER," +
+                                    "UNIQUE (LOCAL_SITE_ID, REMOTE_CATEGORY_ID, REMOTE_PRODUCT_ID) " +
+                                    "ON CONFLICT IGNORE," +
+                                    "UNIQUE (LOCAL_SITE_ID, REMOTE_PRODUCT_ID, REMOTE_CATEGORY_ID) " +
+                                    "ON CONFLICT IGNORE)"
+                    )
+                    populateProductCategoryLinks(db)
+                }
+                175 -> migrate(version) {
+                    db.execSQL("ALTER TABLE MediaModel ADD MIME_CLASS TEXT")
+                    db.execSQL(
+                            "UPDATE MediaModel SET MIME_CLASS = NULLIF(LOWER(CASE WHEN INSTR(MIME_TYPE, '/') > 0 " +
+                                    "THEN SUBSTR(MIME_TYPE, 1, INSTR(MIME_TYPE, '/') - 1) ELSE MIME_TYPE END), '')"
+                    )
+                    TableIndex.MEDIA_MODEL_SITE_UPLOAD_DATE.create(db)
+                    TableIndex.MEDIA_MODEL_SITE_MIME_CLASS_UPLOAD_DATE.create(db)
+                    FtsTable.MEDIA_MODEL.create(db)
+                }
+                176 -> migrate(version) {
+                    // Only the updates of the indexed columns re-index the rows now
+                    FtsTable.POST_MODEL.recreateTriggers(db)
+                    FtsTable.MEDIA_MODEL.recreateTriggers(db)
+                }
             }
         }
         db.setTransactionSuccessful()
@@ -1872,6 +1914,7 @@ open class WellSqlConfig : DefaultWellConfig {
 
             AppLog.d(T.DB, "Database downgraded from version $oldVersion to $newVersion")
             helper?.let { reset(it) }
+            db?.let { recreateFtsTables(it, mTables) }
         } else {
             super.onDowngrade(db, helper, oldVersion, newVersion)
         }
@@ -1905,6 +1948,25 @@ open class WellSqlConfig : DefaultWellConfig {
             db.execSQL("DROP TABLE IF EXISTS ${table.tableName}")
             db.execSQL(table.createStatement())
         }
+        recreateFtsTables(db, mTables)
+        onTablesReset()
+    }
+
+    /**
+     * Lets the in-memory caches of the rows know the tables were dropped, to be called at the end of every reset.
+     */
+    protected fun onTablesReset() {
+        resetCount++
+    }
+
+    /**
+     * Drops and creates the full-text search tables (and their triggers) indexing any of the given [tables], and
+     * creates the indexes of the [tables], which are dropped along with them.
+     */
+    protected fun recreateFtsTables(db: SQLiteDatabase, tables: Collection<Class<out Identifiable>>) {
+        val tableNames = tables.map { getTable(it).tableName }
+        FtsTable.ALL.filter { tableNames.contains(it.contentTableName) }.forEach { it.recreate(db) }
+        TableIndex.ALL.filter { tableNames.contains(it.tableName) }.forEach { it.create(db) }
     }
 
     /**
@@ -1919,6 +1981,38 @@ open class WellSqlConfig : DefaultWellConfig {
             AppLog.d(T.DB, "creating table " + table.simpleName)
             helper.createTable(table)
         }
+        onTablesReset()
+    }
+
+    /**
+     * Fills WCProductCategoryLinkModel from the categories JSON stored on each existing product, e.g:
+     * [{"id":1377,"name":"Decor","slug":"decor"},{"id":1374,"name":"Hoodies","slug":"hoodies"}]
+     */
+    private fun populateProductCategoryLinks(db: SQLiteDatabase) {
+        val insertStatement = db.compileStatement(
+                "INSERT INTO WCProductCategoryLinkModel (LOCAL_SITE_ID,REMOTE_PRODUCT_ID,REMOTE_CATEGORY_ID) " +
+                        "VALUES (?,?,?)"
+        )
+        db.rawQuery("SELECT LOCAL_SITE_ID,REMOTE_PRODUCT_ID,CATEGORIES FROM WCProductModel", null).use { cursor ->
+            while (cursor.moveToNext()) {
+                val categories = try {
+                    JsonParser().parse(cursor.getString(2).orEmpty())
+                } catch (e: JsonParseException) {
+                    AppLog.e(T.DB, "Unable to parse the categories of product ${cursor.getLong(1)}", e)
+                    null
+                }
+                categories?.takeIf { it.isJsonArray }?.asJsonArray?.forEach { category ->
+                    val categoryId = category.takeIf { it.isJsonObject }?.asJsonObject?.get("id")
+                    if (categoryId != null && categoryId.isJsonPrimitive && categoryId.asJsonPrimitive.isNumber) {
+                        insertStatement.bindLong(1, cursor.getLong(0))
+                        insertStatement.bindLong(2, cursor.getLong(1))
+                        insertStatement.bindLong(3, categoryId.asLong)
+                        insertStatement.executeInsert()
+                    }
+                }
+            }
+        }
+        insertStatement.close()
     }
 
     private fun migrate(version: Int, script: () -> Unit) {
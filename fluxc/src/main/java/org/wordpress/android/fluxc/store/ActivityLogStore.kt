@@ -2,8 +2,6 @@ package org.wordpress.android.fluxc.store
 
 import android.annotation.SuppressLint
 import com.yarolegovich.wellsql.SelectQuery
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.ActivityLogAction
@@ -15,6 +13,7 @@ import org.wordpress.android.fluxc.action.ActivityLogAction.FETCH_BACKUP_DOWNLOA
 import org.wordpress.android.fluxc.action.ActivityLogAction.FETCH_REWIND_STATE
 import org.wordpress.android.fluxc.action.ActivityLogAction.REWIND
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.activity.ActivityLogModel
 import org.wordpress.android.fluxc.model.activity.ActivityTypeModel
@@ -39,7 +38,7 @@ class ActivityLogStore
     private val coroutineEngine: CoroutineEngine,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(ActivityLogAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? ActivityLogAction ?: return
         when (actionType) {
@@ -1,7 +1,5 @@
 package org.wordpress.android.fluxc.store
 
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.CommentAction
@@ -20,6 +18,7 @@ import org.wordpress.android.fluxc.action.CommentsAction.PUSHED_COMMENT
 import org.wordpress.android.fluxc.action.CommentsAction.PUSH_COMMENT
 import org.wordpress.android.fluxc.action.CommentsAction.UPDATE_COMMENT
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.CommentModel
 import org.wordpress.android.fluxc.model.CommentStatus
 import org.wordpress.android.fluxc.model.CommentStatus.ALL
@@ -482,7 +481,7 @@ class CommentsStore
     @Deprecated(
             "Action and event bus support should be gradually replaced while the Comments Unification project proceeds"
     )
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(CommentsAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? CommentsAction ?: return
 
@@ -1,13 +1,12 @@
 package org.wordpress.android.fluxc.store
 
 import com.google.gson.Gson
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.EditorThemeAction
 import org.wordpress.android.fluxc.action.EditorThemeAction.FETCH_EDITOR_THEME
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.BlockEditorSettings
 import org.wordpress.android.fluxc.model.EditorTheme
 import org.wordpress.android.fluxc.model.SiteModel
@@ -63,7 +62,7 @@ class EditorThemeStore
         return editorThemeSqlUtils.getEditorThemeForSite(site)
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(EditorThemeAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? EditorThemeAction ?: return
         when (actionType) {
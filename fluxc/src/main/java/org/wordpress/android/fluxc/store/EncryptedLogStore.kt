@@ -1,19 +1,19 @@
 package org.wordpress.android.fluxc.store
 
 import kotlinx.coroutines.delay
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.EncryptedLogAction
 import org.wordpress.android.fluxc.action.EncryptedLogAction.RESET_UPLOAD_STATES
 import org.wordpress.android.fluxc.action.EncryptedLogAction.UPLOAD_LOG
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedLog
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedLogUploadState.FAILED
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedLogUploadState.UPLOADING
 import org.wordpress.android.fluxc.model.encryptedlogging.LogEncrypter
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import org.wordpress.android.fluxc.network.EncryptedLogUploadRequestBody
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.EncryptedLogRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploadFailed
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploaded
@@ -62,7 +62,7 @@ class EncryptedLogStore @Inject constructor(
         AppLog.d(API, this.javaClass.name + ": onRegister")
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(EncryptedLogAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? EncryptedLogAction ?: return
         when (actionType) {
@@ -142,20 +142,16 @@ class EncryptedLogStore @Inject constructor(
             uploadNext()
             return
         }
-        try {
-            val encryptedText = logEncrypter.encrypt(text = encryptedLog.file.readText(), uuid = encryptedLog.uuid)
-
-            // Update the upload state of the log
-            encryptedLog.copy(uploadState = UPLOADING).let {
-                encryptedLogSqlUtils.insertOrUpdateEncryptedLog(it)
-            }
+        // Update the upload state of the log
+        encryptedLog.copy(uploadState = UPLOADING).let {
+            encryptedLogSqlUtils.insertOrUpdateEncryptedLog(it)
+        }
 
-            when (val result = encryptedLogRestClient.uploadLog(encryptedLog.uuid, encryptedText)) {
-                is LogUploaded -> handleSuccessfulUpload(encryptedLog)
-                is LogUploadFailed -> handleFailedUpload(encryptedLog, result.error)
-            }
-        } catch (e: UnsatisfiedLinkError) {
-            handleFailedUpload(encryptedLog, UnsatisfiedLinkException)
+        // The log is encrypted while it's uploaded, so it's never held in memory
+        val contents = EncryptedLogUploadRequestBody(encryptedLog.file, encryptedLog.uuid, logEncrypter)
+        when (val result = encryptedLogRestClient.uploadLog(encryptedLog.uuid, contents)) {
+            is LogUploaded -> handleSuccessfulUpload(encryptedLog)
+            is LogUploadFailed -> handleFailedUpload(encryptedLog, result.error)
         }
     }
 
@@ -10,6 +10,7 @@ import org.wordpress.android.fluxc.action.JetpackAction
 import org.wordpress.android.fluxc.action.JetpackAction.ACTIVATE_STATS_MODULE
 import org.wordpress.android.fluxc.action.JetpackAction.INSTALL_JETPACK
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.generated.SiteActionBuilder
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
@@ -34,7 +35,7 @@ class JetpackStore
 ) : Store(dispatcher) {
     private var siteContinuation: Continuation<Unit>? = null
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(JetpackAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? JetpackAction ?: return
         when (actionType) {
@@ -1,13 +1,12 @@
 package org.wordpress.android.fluxc.store
 
+import androidx.annotation.VisibleForTesting
 import androidx.lifecycle.Lifecycle
 import androidx.lifecycle.LiveData
 import androidx.paging.LivePagedListBuilder
 import androidx.paging.PagedList
 import androidx.paging.PagedList.BoundaryCallback
 import com.yarolegovich.wellsql.WellSql
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.ListAction
@@ -18,11 +17,14 @@ import org.wordpress.android.fluxc.action.ListAction.LIST_REQUIRES_REFRESH
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_ALL_LISTS
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_EXPIRED_LISTS
 import org.wordpress.android.fluxc.annotations.action.Action
-import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.list.LIST_STATE_TIMEOUT
+import org.wordpress.android.fluxc.model.list.ListConfig
 import org.wordpress.android.fluxc.model.list.ListDescriptor
 import org.wordpress.android.fluxc.model.list.ListDescriptorTypeIdentifier
+import org.wordpress.android.fluxc.model.list.ListDescriptorUniqueIdentifier
 import org.wordpress.android.fluxc.model.list.ListItemModel
+import org.wordpress.android.fluxc.model.list.ListItemSnapshot
 import org.wordpress.android.fluxc.model.list.ListModel
 import org.wordpress.android.fluxc.model.list.ListState
 import org.wordpress.android.fluxc.model.list.ListState.FETCHED
@@ -32,14 +34,17 @@ import org.wordpress.android.fluxc.model.list.datasource.InternalPagedListDataSo
 import org.wordpress.android.fluxc.model.list.datasource.ListItemDataSourceInterface
 import org.wordpress.android.fluxc.persistence.ListItemSqlUtils
 import org.wordpress.android.fluxc.persistence.ListSqlUtils
+import org.wordpress.android.fluxc.persistence.ResetObserver
 import org.wordpress.android.fluxc.store.ListStore.OnListChanged.CauseOfListChange
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.DateTimeUtils
 import java.util.Date
+import java.util.concurrent.TimeUnit
 import javax.inject.Inject
 import javax.inject.Singleton
 import kotlin.coroutines.CoroutineContext
+import kotlin.math.max
 
 // How long a list should stay in DB if it hasn't been updated
 const val DEFAULT_EXPIRATION_DURATION = 1000L * 60 * 60 * 24 * 7
@@ -57,7 +62,20 @@ class ListStore @Inject constructor(
     private val coroutineEngine: CoroutineEngine,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    /**
+     * The in-memory snapshots of the items of the lists consumed so far, kept in sync with the DB by applying the
+     * fetched and removed items to them. It's also used as the lock for the changes to the items of the lists.
+     */
+    private val listItemSnapshots = HashMap<ListKey, ListItemSnapshot>()
+
+    /**
+     * The progress of the fetches of the lists, guarded by the [listItemSnapshots] lock.
+     */
+    private val listFetches = HashMap<ListKey, ListFetch>()
+
+    private val resetObserver = ResetObserver()
+
+    @HandlesActions(ListAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? ListAction ?: return
 
@@ -125,10 +143,11 @@ class ListStore @Inject constructor(
                 .setEnablePlaceholders(true)
                 .setInitialLoadSizeHint(listDescriptor.config.initialLoadSize)
                 .setPageSize(listDescriptor.config.dbPageSize)
+                .setPrefetchDistance(listDescriptor.config.prefetchDistance)
                 .build()
         val boundaryCallback = object : BoundaryCallback<LIST_ITEM>() {
             override fun onItemAtEndLoaded(itemAtEnd: LIST_ITEM) {
-                // Load more items if we are near the end of list
+                // Load more items if we are near the end of list, `prefetchDistance` items before it's reached
                 coroutineEngine.launch(AppLog.T.API, this, "ListStore: Loading next page") {
                     handleFetchList(listDescriptor, loadMore = true) { offset ->
                         dataSource.fetchList(listDescriptor, offset)
@@ -148,7 +167,7 @@ class ListStore @Inject constructor(
         listDescriptor: LIST_DESCRIPTOR,
         dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
     ): PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM> {
-        val getRemoteItemIds = { getListItems(listDescriptor).map { RemoteId(value = it) } }
+        val getRemoteItemIds = { getListItemSnapshot(listDescriptor).remoteItemIds }
         val getIsListFullyFetched = { getListState(listDescriptor) == FETCHED }
         return PagedListFactory(
                 createDataSource = {
@@ -161,6 +180,29 @@ class ListStore @Inject constructor(
                 })
     }
 
+    /**
+     * Runs the given block holding the [listItemSnapshots] lock. The snapshots and fetches are dropped first if the
+     * tables were reset since, as [org.wordpress.android.fluxc.persistence.WellSqlConfig.reset] bypasses the store.
+     */
+    private inline fun <T> withListItemSnapshots(block: () -> T): T = synchronized(listItemSnapshots) {
+        if (resetObserver.hasReset()) {
+            listItemSnapshots.clear()
+            listFetches.clear()
+        }
+        block()
+    }
+
+    /**
+     * Returns the snapshot of the items of the given [ListDescriptor], loading it from the DB the first time it's
+     * consumed. Later changes are applied to the snapshot in memory, so re-creating a data source for the list, every
+     * time it's invalidated, doesn't need to reload all its items.
+     */
+    private fun getListItemSnapshot(listDescriptor: ListDescriptor): ListItemSnapshot {
+        return withListItemSnapshots {
+            listItemSnapshots.getOrPut(ListKey(listDescriptor)) { ListItemSnapshot(getListItems(listDescriptor)) }
+        }
+    }
+
     /**
      * A helper function that returns the list items for the given [ListDescriptor].
      */
@@ -175,32 +217,81 @@ class ListStore @Inject constructor(
      * A helper function that initiates the fetch from remote for the given [ListDescriptor].
      *
      * Before fetching the list, it'll first check if this is a valid fetch depending on the list's state. Then, it'll
-     * update the list's state and emit that change. Finally, it'll calculate the offset and initiate the fetch with
-     * the given [fetchList] function.
+     * update the list's state and emit that change. Finally, it'll calculate the offsets of the pages to fetch and
+     * initiate the fetches with the given [fetchList] function.
+     *
+     * While more data is being loaded, the pages following the one being fetched are requested as well, up to
+     * [ListConfig.maxPagesAhead] pages.
      */
-    private fun handleFetchList(
+    @VisibleForTesting
+    fun handleFetchList(
         listDescriptor: ListDescriptor,
         loadMore: Boolean,
         fetchList: (Long) -> Unit
     ) {
-        val currentState = getListState(listDescriptor)
-        if (!loadMore && currentState.isFetchingFirstPage()) {
-            // already fetching the first page
-            return
-        } else if (loadMore && !currentState.canLoadMore()) {
-            // we can only load more if there is more data to be loaded
-            return
+        val (newState, offsets) = withListItemSnapshots {
+            val currentState = getListState(listDescriptor)
+            val listFetch = listFetches.getOrPut(ListKey(listDescriptor)) { ListFetch() }
+            if (!loadMore) {
+                if (currentState.isFetchingFirstPage()) {
+                    // already fetching the first page
+                    return
+                }
+                // The pages being loaded won't be added to the refreshed list
+                listFetch.pendingOffsets.clear()
+                listFetch.fetchedPages.clear()
+                listFetch.endReachedAt = null
+                listFetch.pendingOffsets.add(0L)
+                listSqlUtils.insertOrUpdateList(listDescriptor, ListState.FETCHING_FIRST_PAGE)
+                Pair(ListState.FETCHING_FIRST_PAGE, listOf(0L))
+            } else {
+                val isLoadingMore = currentState.isLoadingMore() && listFetch.pendingOffsets.isNotEmpty()
+                if (!currentState.canLoadMore() && !isLoadingMore) {
+                    // we can only load more if there is more data to be loaded
+                    return
+                }
+                if (listFetch.endReachedAt == null) {
+                    listFetch.endReachedAt = System.nanoTime()
+                }
+                val offsets = requestNextPages(listDescriptor, listFetch)
+                // The state only changes when the list starts loading more
+                val newState = if (isLoadingMore) null else ListState.LOADING_MORE
+                newState?.let { listSqlUtils.insertOrUpdateList(listDescriptor, it) }
+                Pair(newState, offsets)
+            }
         }
+        newState?.let { handleListStateChange(listDescriptor, it) }
+        offsets.forEach(fetchList)
+    }
 
-        val newState = if (loadMore) ListState.LOADING_MORE else ListState.FETCHING_FIRST_PAGE
-        listSqlUtils.insertOrUpdateList(listDescriptor, newState)
-        handleListStateChange(listDescriptor, newState)
+    /**
+     * Adds the pages following the ones being fetched to the given [ListFetch], up to [ListConfig.maxPagesAhead] pages,
+     * and returns their offsets.
+     *
+     * The offset of the next page is the number of items in the list, which is kept in memory, while the pages after it
+     * are expected to be full pages.
+     */
+    private fun requestNextPages(listDescriptor: ListDescriptor, listFetch: ListFetch): List<Long> {
+        if (listFetch.pendingOffsets.isEmpty()) {
+            listFetch.nextOffset = getListItemSnapshot(listDescriptor).size.toLong()
+        }
+        val offsets = ArrayList<Long>()
+        while (listFetch.pendingOffsets.size < listDescriptor.config.maxPagesAhead.coerceAtLeast(1)) {
+            listFetch.pendingOffsets.add(listFetch.nextOffset)
+            offsets.add(listFetch.nextOffset)
+            listFetch.nextOffset += listDescriptor.config.networkPageSize
+        }
+        return offsets
+    }
 
-        val listModel = requireNotNull(listSqlUtils.getList(listDescriptor)) {
-            "The `ListModel` can never be `null` here since either a new list is inserted or existing one updated"
+    /**
+     * Returns the [ListFetchMetrics] of the given [ListDescriptor], since the app was started or the lists were last
+     * removed.
+     */
+    fun getListFetchMetrics(listDescriptor: ListDescriptor): ListFetchMetrics {
+        return withListItemSnapshots {
+            listFetches[ListKey(listDescriptor)]?.getMetrics() ?: ListFetchMetrics(0, 0L, 0L)
         }
-        val offset = if (loadMore) listItemSqlUtils.getListItemsCount(listModel.id) else 0L
-        fetchList(offset)
     }
 
     /**
@@ -214,50 +305,111 @@ class ListStore @Inject constructor(
      * Handles the [ListAction.FETCHED_LIST_ITEMS] action.
      *
      * Here is how it works:
-     * 1. If there was an error, update the list's state and emit the change. Otherwise:
-     * 2. If the first page is fetched, delete the existing [ListItemModel]s.
-     * 3. Update the [ListModel]'s state depending on whether there is more data to be fetched
-     * 4. Insert the [ListItemModel]s and emit the change
+     * 1. If pages requested before the fetched one are still being fetched, keep it until they are fetched. Otherwise,
+     * for the fetched page and the pages fetched ahead of it, in order:
+     * 2. If there was an error, update the list's state and emit the change. Otherwise:
+     * 3. If the first page is fetched, delete the existing [ListItemModel]s.
+     * 4. Update the [ListModel]'s state depending on whether there is more data to be fetched
+     * 5. Insert the [ListItemModel]s and emit the change
      *
      * See [handleFetchList] to see how items are fetched.
      */
     private fun handleFetchedListItems(payload: FetchedListItemsPayload) {
+        val addedPages = withListItemSnapshots {
+            takeFetchedPages(payload).map { page -> Pair(page, addFetchedPage(page)) }
+        }
+        for ((page, newState) in addedPages) {
+            val causeOfChange = if (page.isError) {
+                CauseOfListChange.ERROR
+            } else {
+                if (page.loadedMore) CauseOfListChange.LOADED_MORE else CauseOfListChange.FIRST_PAGE_FETCHED
+            }
+            emitChange(OnListChanged(listOf(page.listDescriptor), causeOfChange, page.error))
+            handleListStateChange(page.listDescriptor, newState, page.error)
+        }
+    }
+
+    /**
+     * Returns the fetched pages that can be added to the list in the order they were requested: the given page and the
+     * pages fetched ahead of it, or none if a page requested before it is still being fetched.
+     *
+     * Pages dispatched without an offset are expected to be the next page being fetched.
+     */
+    private fun takeFetchedPages(payload: FetchedListItemsPayload): List<FetchedListItemsPayload> {
+        val listFetch = listFetches[ListKey(payload.listDescriptor)]
+        val offset = payload.offset
+                ?: listFetch?.pendingOffsets?.firstOrNull()?.takeIf { (it > 0) == payload.loadedMore }
+        if (listFetch == null || offset == null || !listFetch.pendingOffsets.contains(offset)) {
+            return if (listFetch != null && payload.loadedMore && payload.offset != null) {
+                // The page was requested before the list was refreshed, or after a page that couldn't be fetched
+                emptyList()
+            } else listOf(payload)
+        }
+        listFetch.fetchedPages[offset] = payload
+        val pages = ArrayList<FetchedListItemsPayload>()
+        while (listFetch.pendingOffsets.isNotEmpty()) {
+            val page = listFetch.fetchedPages.remove(listFetch.pendingOffsets[0]) ?: break
+            listFetch.pendingOffsets.removeAt(0)
+            pages.add(page)
+            if (page.isError || !page.canLoadMore ||
+                    page.remoteItemIds.size < page.listDescriptor.config.networkPageSize) {
+                // The pages requested after this one are either past the end of the list or don't follow it
+                listFetch.pendingOffsets.clear()
+                listFetch.fetchedPages.clear()
+            }
+        }
+        return pages
+    }
+
+    /**
+     * Adds the given fetched page to the list, and returns the new [ListState] of the list.
+     */
+    private fun addFetchedPage(payload: FetchedListItemsPayload): ListState {
+        val listFetch = listFetches[ListKey(payload.listDescriptor)]
         val newState = when {
             payload.isError -> ListState.ERROR
+            listFetch != null && listFetch.pendingOffsets.isNotEmpty() -> ListState.LOADING_MORE
             payload.canLoadMore -> ListState.CAN_LOAD_MORE
             else -> FETCHED
         }
         listSqlUtils.insertOrUpdateList(payload.listDescriptor, newState)
 
         if (!payload.isError) {
-            val db = WellSql.giveMeWritableDb()
-            db.beginTransaction()
-            try {
-                if (!payload.loadedMore) {
-                    deleteListItems(payload.listDescriptor)
-                }
-                val listModel = requireNotNull(listSqlUtils.getList(payload.listDescriptor)) {
-                    "The `ListModel` can never be `null` here since either a new list is inserted or existing one " +
-                            "updated"
+            insertListItems(payload)
+            val key = ListKey(payload.listDescriptor)
+            listItemSnapshots[key]?.let { snapshot ->
+                listItemSnapshots[key] = if (payload.loadedMore) {
+                    snapshot.withAppendedItems(payload.remoteItemIds)
+                } else {
+                    snapshot.withItems(payload.remoteItemIds)
                 }
-                listItemSqlUtils.insertItemList(payload.remoteItemIds.map { remoteItemId ->
-                    val listItemModel = ListItemModel()
-                    listItemModel.listId = listModel.id
-                    listItemModel.remoteItemId = remoteItemId
-                    return@map listItemModel
-                })
-                db.setTransactionSuccessful()
-            } finally {
-                db.endTransaction()
             }
         }
-        val causeOfChange = if (payload.isError) {
-            CauseOfListChange.ERROR
-        } else {
-            if (payload.loadedMore) CauseOfListChange.LOADED_MORE else CauseOfListChange.FIRST_PAGE_FETCHED
+        listFetch?.onPageAdded(payload)
+        return newState
+    }
+
+    private fun insertListItems(payload: FetchedListItemsPayload) {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            if (!payload.loadedMore) {
+                deleteListItems(payload.listDescriptor)
+            }
+            val listModel = requireNotNull(listSqlUtils.getList(payload.listDescriptor)) {
+                "The `ListModel` can never be `null` here since either a new list is inserted or existing one " +
+                        "updated"
+            }
+            listItemSqlUtils.insertItemList(payload.remoteItemIds.map { remoteItemId ->
+                val listItemModel = ListItemModel()
+                listItemModel.listId = listModel.id
+                listItemModel.remoteItemId = remoteItemId
+                return@map listItemModel
+            })
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
         }
-        emitChange(OnListChanged(listOf(payload.listDescriptor), causeOfChange, payload.error))
-        handleListStateChange(payload.listDescriptor, newState, payload.error)
     }
 
     /**
@@ -267,8 +419,15 @@ class ListStore @Inject constructor(
      * [ListDescriptorTypeIdentifier] after which [OnListDataInvalidated] event will be emitted.
      */
     private fun handleListItemsRemoved(payload: ListItemsRemovedPayload) {
-        val lists = listSqlUtils.getListsWithTypeIdentifier(payload.type)
-        listItemSqlUtils.deleteItemsFromLists(lists.map { it.id }, payload.remoteItemIds)
+        withListItemSnapshots {
+            val lists = listSqlUtils.getListsWithTypeIdentifier(payload.type)
+            listItemSqlUtils.deleteItemsFromLists(lists.map { it.id }, payload.remoteItemIds)
+            for (entry in listItemSnapshots.entries) {
+                if (entry.key.typeIdentifier == payload.type) {
+                    entry.setValue(entry.value.withoutItems(payload.remoteItemIds))
+                }
+            }
+        }
         emitChange(OnListDataInvalidated(payload.type))
     }
 
@@ -298,7 +457,11 @@ class ListStore @Inject constructor(
      * It deletes [ListModel]s that hasn't been updated for the given [RemoveExpiredListsPayload.expirationDuration].
      */
     private fun handleRemoveExpiredLists(payload: RemoveExpiredListsPayload) {
-        listSqlUtils.deleteExpiredLists(payload.expirationDuration)
+        withListItemSnapshots {
+            listSqlUtils.deleteExpiredLists(payload.expirationDuration)
+            listItemSnapshots.clear()
+            listFetches.clear()
+        }
     }
 
     /**
@@ -307,7 +470,11 @@ class ListStore @Inject constructor(
      * It simply deletes every [ListModel] in the DB.
      */
     private fun handleRemoveAllLists() {
-        listSqlUtils.deleteAllLists()
+        withListItemSnapshots {
+            listSqlUtils.deleteAllLists()
+            listItemSnapshots.clear()
+            listFetches.clear()
+        }
     }
 
     /**
@@ -349,6 +516,75 @@ class ListStore @Inject constructor(
         return false
     }
 
+    /**
+     * Identifies a list the same way `ListSqlUtils` does.
+     */
+    private data class ListKey(
+        val uniqueIdentifier: ListDescriptorUniqueIdentifier,
+        val typeIdentifier: ListDescriptorTypeIdentifier
+    ) {
+        constructor(listDescriptor: ListDescriptor) : this(
+                listDescriptor.uniqueIdentifier,
+                listDescriptor.typeIdentifier
+        )
+    }
+
+    /**
+     * The progress of the fetches of a list, kept in memory.
+     *
+     * @property pendingOffsets The offsets of the pages requested and not added to the list yet, in the order they were
+     * requested.
+     * @property fetchedPages The pages fetched before the pages requested ahead of them, by offset.
+     * @property nextOffset The offset of the next page to request after the pending ones.
+     * @property endReachedAt When the end of the list was reached, in [System.nanoTime], if its next page wasn't added
+     * yet.
+     */
+    private class ListFetch {
+        val pendingOffsets = ArrayList<Long>()
+        val fetchedPages = HashMap<Long, FetchedListItemsPayload>()
+        var nextOffset = 0L
+        var endReachedAt: Long? = null
+
+        private var loadedMorePageCount = 0
+        private var totalPlaceholderDwellMillis = 0L
+        private var maxPlaceholderDwellMillis = 0L
+
+        fun onPageAdded(payload: FetchedListItemsPayload) {
+            val endReachedAt = endReachedAt
+            if (payload.loadedMore && !payload.isError && endReachedAt != null) {
+                val dwellMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - endReachedAt)
+                loadedMorePageCount++
+                totalPlaceholderDwellMillis += dwellMillis
+                maxPlaceholderDwellMillis = max(maxPlaceholderDwellMillis, dwellMillis)
+            }
+            // The end of the list moved, or the list was refreshed
+            this.endReachedAt = null
+        }
+
+        fun getMetrics() = ListFetchMetrics(
+                loadedMorePageCount,
+                totalPlaceholderDwellMillis,
+                maxPlaceholderDwellMillis
+        )
+    }
+
+    /**
+     * The metrics of the pages loaded when reaching the end of a list.
+     *
+     * The placeholder dwell time is how long the end of the list waited for its next page to be added, from the moment
+     * the last item of the list was loaded, `prefetchDistance` items before the user reaches it. It's the longest the
+     * user could have seen the placeholders shown at the end of the list while more data is loaded.
+     *
+     * @property loadedMorePageCount The number of pages added after the end of the list was reached.
+     * @property totalPlaceholderDwellMillis The total placeholder dwell time of those pages.
+     * @property maxPlaceholderDwellMillis The longest placeholder dwell time of those pages.
+     */
+    data class ListFetchMetrics(
+        val loadedMorePageCount: Int,
+        val totalPlaceholderDwellMillis: Long,
+        val maxPlaceholderDwellMillis: Long
+    )
+
     /**
      * The event to be emitted when there is a change to a [ListModel].
      */
@@ -407,13 +643,16 @@ class ListStore @Inject constructor(
      * @property remoteItemIds Fetched item ids
      * @property loadedMore Indicates whether the first page is fetched or we loaded more data
      * @property canLoadMore Indicates whether there is more data to be loaded from the server.
+     * @property offset The offset the items were fetched from, if known. It's used to add the pages fetched ahead of
+     * the ones before them in order, see [ListConfig.maxPagesAhead].
      */
-    class FetchedListItemsPayload(
+    class FetchedListItemsPayload @JvmOverloads constructor(
         val listDescriptor: ListDescriptor,
         val remoteItemIds: List<Long>,
         val loadedMore: Boolean,
         val canLoadMore: Boolean,
-        error: ListError?
+        error: ListError?,
+        val offset: Long? = null
     ) : Payload<ListError>() {
         init {
             this.error = error
@@ -7,12 +7,11 @@ import androidx.annotation.Nullable;
 
 import com.wellsql.generated.MediaModelTable;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
@@ -485,7 +484,7 @@ public class MediaStore extends Store {
         mWPV2MediaRestClient = wpv2MediaRestClient;
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(MediaAction.class)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -675,6 +674,18 @@ public class MediaStore extends Store {
         return MediaSqlUtils.searchSiteDocuments(siteModel, searchTerm);
     }
 
+    /**
+     * Returns the page of media following the given media, see
+     * {@link MediaSqlUtils#getSiteMediaPage(SiteModel, MimeType.Type, String, MediaModel, int)}.
+     *
+     * @param lastMedia the last media of the previous page, or null for the first page
+     */
+    public List<MediaModel> getSiteMediaPage(SiteModel siteModel, @Nullable MimeType.Type mimeType,
+                                             @Nullable String searchTerm, @Nullable MediaModel lastMedia,
+                                             int pageSize) {
+        return MediaSqlUtils.getSiteMediaPage(siteModel, mimeType, searchTerm, lastMedia, pageSize);
+    }
+
     public MediaModel getMediaForPostWithPath(PostImmutableModel postModel, String filePath) {
         List<MediaModel> media = MediaSqlUtils.matchPostMedia(postModel.getId(), MediaModelTable.FILE_PATH, filePath);
         return media.size() > 0 ? media.get(0) : null;
@@ -904,39 +915,16 @@ public class MediaStore extends Store {
     private void updateFetchedMediaList(@NonNull FetchMediaListResponsePayload payload) {
         // if we loaded another page, simply add the fetched media and be done
         if (payload.loadedMore) {
-            for (MediaModel media : payload.mediaList) {
-                updateMedia(media, false);
-            }
+            MediaSqlUtils.insertOrUpdateFetchedSiteMedia(payload.site, payload.mediaList);
             return;
         }
 
-        // build separate lists of existing and new media
-        List<MediaModel> existingMediaList = new ArrayList<>();
-        List<MediaModel> newMediaList = new ArrayList<>();
-        for (MediaModel fetchedMedia : payload.mediaList) {
-            MediaModel media = getSiteMediaWithId(payload.site, fetchedMedia.getMediaId());
-            if (media != null) {
-                // retain the local ID, then update this media item
-                fetchedMedia.setId(media.getId());
-                existingMediaList.add(fetchedMedia);
-                updateMedia(fetchedMedia, false);
-            } else {
-                newMediaList.add(fetchedMedia);
-            }
-        }
-
-        // remove media that is NOT in the existing list
+        // update the existing media, add the new media and remove the uploaded media missing from the first page
         String mimeTypeValue = "";
         if (payload.mimeType != null) {
             mimeTypeValue = payload.mimeType.getValue();
         }
-        MediaSqlUtils.deleteUploadedSiteMediaNotInList(
-                payload.site, existingMediaList, mimeTypeValue);
-
-        // add new media
-        for (MediaModel media : newMediaList) {
-            updateMedia(media, false);
-        }
+        MediaSqlUtils.replaceFetchedSiteMedia(payload.site, payload.mediaList, mimeTypeValue);
     }
 
     private void handleMediaListFetched(@NonNull FetchMediaListResponsePayload payload) {
@@ -4,12 +4,11 @@ import android.annotation.SuppressLint
 import android.content.Context
 import com.yarolegovich.wellsql.SelectQuery.ORDER_DESCENDING
 import kotlinx.coroutines.flow.Flow
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.NotificationAction
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.notification.NoteIdSet
 import org.wordpress.android.fluxc.model.notification.NotificationModel
@@ -164,7 +163,7 @@ class NotificationStore @Inject constructor(
         val changedNotificationLocalIds = mutableListOf<Int>()
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(NotificationAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? NotificationAction ?: return
         when (actionType) {
@@ -376,29 +375,36 @@ class NotificationStore @Inject constructor(
             return
         }
 
-        // Create a mutable copy of freshly fetched notifications map
-        val notifsToFetch = payload.hashesMap.toMutableMap()
-
-        // Pull cached notifications from the database and build a map of remoteNoteId to noteHash
-        val existingNotifsByRemoteIdMap = notificationSqlUtils
-                .getNotifications().associateBy { it.remoteNoteId }.toMap()
-
-        // Scrub the newly fetched list against the cached db records. Remove any entries for records that
-        // do not require an update from the remote API
-        existingNotifsByRemoteIdMap.entries.forEach { cached ->
-            // Compare new note_hash values against cached values. Delete from db if
-            // cached notification not present in new list
-            notifsToFetch[cached.key]?.let { newNoteHash ->
-                if (cached.value.noteHash == newNoteHash) {
-                    // Notifications are identical. No update needed, remove from
-                    // list of notifs to fetch
-                    notifsToFetch.remove(cached.key)
-                }
-            } ?: notificationSqlUtils.deleteNotificationByRemoteId(cached.key) // Delete notification from the db
+        // Walk the fetched hashes and the cached ones, both sorted by remote id, side by side. Only the remote ids
+        // and hashes of the cached notifications are read, their content isn't decoded.
+        val fetchedHashes = payload.hashesMap.entries.sortedBy { it.key }
+        val cachedHashes = notificationSqlUtils.getNotificationHashes()
+        val notifsToFetch = ArrayList<Long>()
+        val notifsToDelete = ArrayList<Long>()
+        var cachedIndex = 0
+        fetchedHashes.forEach { (remoteNoteId, noteHash) ->
+            // Cached notifications not present in the new list are deleted
+            while (cachedIndex < cachedHashes.size && cachedHashes[cachedIndex].remoteNoteId < remoteNoteId) {
+                notifsToDelete.add(cachedHashes[cachedIndex++].remoteNoteId)
+            }
+            var isCached = false
+            var isUpToDate = true
+            while (cachedIndex < cachedHashes.size && cachedHashes[cachedIndex].remoteNoteId == remoteNoteId) {
+                isCached = true
+                isUpToDate = isUpToDate && cachedHashes[cachedIndex++].noteHash == noteHash
+            }
+            // Identical notifications don't need an update from the remote API
+            if (!isCached || !isUpToDate) {
+                notifsToFetch.add(remoteNoteId)
+            }
+        }
+        while (cachedIndex < cachedHashes.size) {
+            notifsToDelete.add(cachedHashes[cachedIndex++].remoteNoteId)
         }
+        notificationSqlUtils.deleteNotificationsByRemoteIds(notifsToDelete)
 
         // Fetch new and updated notifications from the remote api
-        notificationRestClient.fetchNotifications(notifsToFetch.keys.toList())
+        notificationRestClient.fetchNotifications(notifsToFetch)
     }
 
     private fun handleFetchNotificationsCompleted(payload: FetchNotificationsResponsePayload) {
@@ -407,7 +413,7 @@ class NotificationStore @Inject constructor(
             OnNotificationChanged(0).also { it.error = payload.error }
         } else {
             // Save notifications to the database
-            val rowsAffected = payload.notifs.sumBy { notificationSqlUtils.insertOrUpdateNotification(it) }
+            val rowsAffected = notificationSqlUtils.insertOrUpdateNotifications(payload.notifs)
 
             OnNotificationChanged(rowsAffected)
         }.apply {
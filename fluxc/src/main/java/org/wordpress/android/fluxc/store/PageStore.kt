@@ -80,12 +80,43 @@ class PageStore @Inject constructor(
                 }
             }
 
+    /**
+     * Returns the pages with a title matching every word of the search query as a prefix, looked up through the
+     * full-text index. Only the matching pages and their ancestors are loaded.
+     */
     suspend fun search(site: SiteModel, searchQuery: String): List<PageModel> =
             coroutineEngine.withDefaultContext(AppLog.T.POSTS, this, "search") {
-                getPagesFromDb(site).filter {
-                    it.title.toLowerCase(Locale.ROOT)
-                            .contains(searchQuery.toLowerCase(Locale.ROOT))
+                // We don't want to return data from the database when it's still being loaded
+                if (postLoadContinuations.isNotEmpty()) {
+                    return@withDefaultContext listOf()
                 }
+                val matchingPosts = postSqlUtils.searchPagesForSiteByTitleWithoutContent(site, searchQuery)
+                        ?: return@withDefaultContext getPagesFromDb(site).filter {
+                            // Without any word the index can look up, fall back to matching the raw query
+                            it.title.toLowerCase(Locale.ROOT).contains(searchQuery.toLowerCase(Locale.ROOT))
+                        }
+                val matchingPages = matchingPosts.asSequence()
+                        .filter { PAGE_TYPES.contains(PostStatus.fromPost(it)) }
+                        .map { it.withUniqueRemoteId() }
+                        .associateBy { it.remotePostId }
+                val posts = HashMap(matchingPages)
+                // Load the missing ancestors one level at a time, so the matching pages get their parents
+                val requestedParentIds = HashSet<Long>()
+                var parentIds = matchingPages.values.map { it.parentId }
+                while (true) {
+                    val missingParentIds = parentIds.filter {
+                        it > 0L && !posts.containsKey(it) && requestedParentIds.add(it)
+                    }
+                    if (missingParentIds.isEmpty()) {
+                        break
+                    }
+                    val parents = postSqlUtils.getPagesForSiteWithoutContent(site, missingParentIds)
+                            .filter { PAGE_TYPES.contains(PostStatus.fromPost(it)) }
+                    parents.forEach { posts[it.remotePostId] = it }
+                    parentIds = parents.map { it.parentId }
+                }
+                val pages = buildPages(site, posts)
+                return@withDefaultContext matchingPages.keys.mapNotNull { pages[it] }.sortedBy { it.remoteId }
             }
 
     suspend fun updatePageInDb(page: PageModel): OnPageChanged = suspendCoroutine { cont ->
@@ -129,47 +160,63 @@ class PageStore @Inject constructor(
             return listOf()
         }
         return coroutineEngine.withDefaultContext(AppLog.T.POSTS, this, "getPagesFromDb") {
-            val posts = postStore.getPagesForSite(site)
+            // The content isn't part of the page models, no need to load it
+            val posts = postStore.getPagesForSiteWithoutContent(site)
                     .asSequence()
                     .filterNotNull()
                     .filter { PAGE_TYPES.contains(PostStatus.fromPost(it)) }
-                    .map {
-                        // local DB pages have a non-unique remote ID value of 0
-                        // to keep the apart we replace it with page ID (still unique)
-                        // and make it negative (to easily tell it's a temporary value)
-                        if (it.remotePostId == 0L) {
-                            /**
-                             * This hack is breaking the approach which we use for making sure we upload only changes which
-                             * were explicitly confirmed by the user. We are modifying the PostModel and we need to make
-                             * sure to retain the confirmation.
-                             */
-                            val changesConfirmed = it.contentHashcode() == it.changesConfirmedContentHashcode
-                            it.setRemotePostId(-it.id.toLong())
-                            if (changesConfirmed) {
-                                it.setChangesConfirmedContentHashcode(it.contentHashcode())
-                            }
-                        }
-                        it
-                    }
+                    .map { it.withUniqueRemoteId() }
                     .associateBy { it.remotePostId }
 
-            return@withDefaultContext posts.map { getPageFromPost(it.key, site, posts, false) }
-                    .filterNotNull()
-                    .sortedBy { it.remoteId }
+            return@withDefaultContext buildPages(site, posts).values.sortedBy { it.remoteId }
         }
     }
 
-    private fun getPageFromPost(
-        postId: Long,
-        site: SiteModel,
-        posts: Map<Long, PostModel>,
-        skipLocalPages: Boolean = true
-    ): PageModel? {
-        if (skipLocalPages && (postId <= 0L || !posts.containsKey(postId))) {
-            return null
+    private fun PostModel.withUniqueRemoteId(): PostModel {
+        // local DB pages have a non-unique remote ID value of 0
+        // to keep the apart we replace it with page ID (still unique)
+        // and make it negative (to easily tell it's a temporary value)
+        if (remotePostId == 0L) {
+            /**
+             * This hack is breaking the approach which we use for making sure we upload only changes which
+             * were explicitly confirmed by the user. We are modifying the PostModel and we need to make
+             * sure to retain the confirmation.
+             */
+            val changesConfirmed = contentHashcode() == changesConfirmedContentHashcode
+            setRemotePostId(-id.toLong())
+            if (changesConfirmed) {
+                setChangesConfirmedContentHashcode(contentHashcode())
+            }
+        }
+        return this
+    }
+
+    /**
+     * Builds the pages of the given posts, keyed by remote id, in a single pass. Each page is built once and shared
+     * as the parent of its children, instead of rebuilding the whole chain of ancestors for every page.
+     */
+    private fun buildPages(site: SiteModel, posts: Map<Long, PostModel>): Map<Long, PageModel> {
+        val pages = HashMap<Long, PageModel>(posts.size)
+        val unbuiltAncestors = ArrayList<PostModel>()
+        val unbuiltAncestorIds = HashSet<Long>()
+        for (post in posts.values) {
+            // Walk up to the first ancestor already built, stopping at a cycle if the parents have one
+            var current: PostModel? = post
+            while (current != null && !pages.containsKey(current.remotePostId) &&
+                    unbuiltAncestorIds.add(current.remotePostId)) {
+                unbuiltAncestors.add(current)
+                current = if (current.parentId > 0L) posts[current.parentId] else null
+            }
+            // Then build the chain from the top down, so every parent is built before its children
+            for (i in unbuiltAncestors.indices.reversed()) {
+                val ancestor = unbuiltAncestors[i]
+                val parent = if (ancestor.parentId > 0L) pages[ancestor.parentId] else null
+                pages[ancestor.remotePostId] = PageModel(ancestor, site, parent)
+            }
+            unbuiltAncestors.clear()
+            unbuiltAncestorIds.clear()
         }
-        val post = posts[postId]!!
-        return PageModel(post, site, getPageFromPost(post.parentId, site, posts))
+        return pages
     }
 
     suspend fun deletePageFromServer(page: PageModel): OnPageChanged = suspendCoroutine { cont ->
@@ -1,12 +1,11 @@
 package org.wordpress.android.fluxc.store
 
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.PlanOffersAction
 import org.wordpress.android.fluxc.action.PlanOffersAction.FETCH_PLAN_OFFERS
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.plans.PlanOffersModel
 import org.wordpress.android.fluxc.network.BaseRequest
 import org.wordpress.android.fluxc.network.rest.wpcom.planoffers.PlanOffersRestClient
@@ -24,7 +23,7 @@ class PlanOffersStore @Inject constructor(
     private val coroutineEngine: CoroutineEngine,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(PlanOffersAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? PlanOffersAction ?: return
         when (actionType) {
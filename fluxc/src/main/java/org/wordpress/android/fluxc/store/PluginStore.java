@@ -3,12 +3,11 @@ package org.wordpress.android.fluxc.store;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.PluginAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.PluginActionBuilder;
 import org.wordpress.android.fluxc.model.SiteModel;
@@ -758,7 +757,7 @@ public class PluginStore extends Store {
         AppLog.d(AppLog.T.API, "PluginStore onRegister");
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(PluginAction.class)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -9,14 +9,13 @@ import com.wellsql.generated.PostModelTable;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.jetbrains.annotations.NotNull;
 import org.wordpress.android.fluxc.BuildConfig;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.PostAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.ListActionBuilder;
 import org.wordpress.android.fluxc.generated.PostActionBuilder;
@@ -106,16 +105,30 @@ public class PostStore extends Store {
     public static class FetchPostListResponsePayload extends Payload<PostError> {
         @NotNull public PostListDescriptor listDescriptor;
         @NotNull public List<PostListItem> postListItems;
+        @Nullable public Long offset;
         public boolean loadedMore;
         public boolean canLoadMore;
 
+        /**
+         * Without the offset of the page, it's expected to be the next page of the list being fetched.
+         */
         public FetchPostListResponsePayload(@NonNull PostListDescriptor listDescriptor,
                                             @NonNull List<PostListItem> postListItems,
                                             boolean loadedMore,
                                             boolean canLoadMore,
                                             @Nullable PostError error) {
+            this(listDescriptor, postListItems, null, loadedMore, canLoadMore, error);
+        }
+
+        public FetchPostListResponsePayload(@NonNull PostListDescriptor listDescriptor,
+                                            @NonNull List<PostListItem> postListItems,
+                                            @Nullable Long offset,
+                                            boolean loadedMore,
+                                            boolean canLoadMore,
+                                            @Nullable PostError error) {
             this.listDescriptor = listDescriptor;
             this.postListItems = postListItems;
+            this.offset = offset;
             this.loadedMore = loadedMore;
             this.canLoadMore = canLoadMore;
             this.error = error;
@@ -519,6 +532,14 @@ public class PostStore extends Store {
         return mPostSqlUtils.getPostsForSite(site, true);
     }
 
+    /**
+     * Returns all pages in the store for the given site as a {@link PostModel} list, without the content of the pages
+     * which don't have local changes.
+     */
+    public List<PostModel> getPagesForSiteWithoutContent(SiteModel site) {
+        return mPostSqlUtils.getPagesForSiteWithoutContent(site);
+    }
+
     /**
      * Returns the number of posts in the store for the given site.
      */
@@ -678,7 +699,7 @@ public class PostStore extends Store {
         return mPostSqlUtils.getNumLocalChanges();
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(PostAction.class)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -932,7 +953,7 @@ public class PostStore extends Store {
 
         FetchedListItemsPayload fetchedListItemsPayload =
                 new FetchedListItemsPayload(payload.listDescriptor, postIds,
-                        payload.loadedMore, payload.canLoadMore, fetchedListItemsError);
+                        payload.loadedMore, payload.canLoadMore, fetchedListItemsError, payload.offset);
         mDispatcher.dispatch(ListActionBuilder.newFetchedListItemsAction(fetchedListItemsPayload));
     }
 
@@ -1028,10 +1049,7 @@ public class PostStore extends Store {
                 mPostSqlUtils.deleteUploadedPostsForSite(payload.site, payload.isPages);
             }
 
-            int rowsAffected = 0;
-            for (PostModel post : payload.posts.getPosts()) {
-                rowsAffected += mPostSqlUtils.insertOrUpdatePostKeepingLocalChanges(post);
-            }
+            int rowsAffected = mPostSqlUtils.insertOrUpdatePosts(payload.posts.getPosts(), false);
 
             onPostChanged = new OnPostChanged(causeOfChange, rowsAffected, payload.canLoadMore);
         }
@@ -2,12 +2,11 @@ package org.wordpress.android.fluxc.store;
 
 import androidx.annotation.NonNull;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.ReaderAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.ReaderSiteModel;
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
@@ -35,7 +34,7 @@ public class ReaderStore extends Store {
         AppLog.d(T.API, "ReaderStore onRegister");
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(ReaderAction.class)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
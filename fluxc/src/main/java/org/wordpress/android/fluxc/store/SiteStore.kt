@@ -2,8 +2,7 @@ package org.wordpress.android.fluxc.store
 
 import android.text.TextUtils
 import androidx.annotation.VisibleForTesting
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode.ASYNC
+import com.wellsql.generated.SiteModelTable
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.SiteAction
@@ -65,7 +64,9 @@ import org.wordpress.android.fluxc.action.SiteAction.SUGGEST_DOMAINS
 import org.wordpress.android.fluxc.action.SiteAction.UPDATE_SITE
 import org.wordpress.android.fluxc.action.SiteAction.UPDATE_SITES
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.JetpackCapability
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
 import org.wordpress.android.fluxc.model.PlanModel
 import org.wordpress.android.fluxc.model.PostFormatModel
 import org.wordpress.android.fluxc.model.RoleModel
@@ -92,6 +93,7 @@ import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient
 import org.wordpress.android.fluxc.persistence.PostSqlUtils
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils.DuplicateSiteException
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SiteCacheMetrics
 import org.wordpress.android.fluxc.store.SiteStore.AccessCookieErrorType.INVALID_RESPONSE
 import org.wordpress.android.fluxc.store.SiteStore.AccessCookieErrorType.NON_PRIVATE_AT_SITE
 import org.wordpress.android.fluxc.store.SiteStore.AccessCookieErrorType.SITE_MISSING_FROM_STORE
@@ -994,7 +996,7 @@ open class SiteStore
      * Returns the number of sites of any kind in the store.
      */
     val sitesCount: Int
-        get() = siteSqlUtils.getSites().count()
+        get() = siteSqlUtils.getSitesCount()
 
     /**
      * Checks whether the store contains any sites of any kind.
@@ -1010,17 +1012,14 @@ open class SiteStore
      *       TODO: consider adding https://kotlinlang.org/docs/all-open-plugin.html
      */
     open fun getSiteByLocalId(id: Int): SiteModel? {
-        val result = siteSqlUtils.getSitesWithLocalId(id)
-        return if (result.isNotEmpty()) {
-            result[0]
-        } else null
+        return siteSqlUtils.getSiteWithLocalId(LocalId(id))
     }
 
     /**
      * Checks whether the store contains a site matching the given (local) id.
      */
     fun hasSiteWithLocalId(id: Int): Boolean {
-        return siteSqlUtils.getSitesWithLocalId(id).isNotEmpty()
+        return siteSqlUtils.getSiteWithLocalId(LocalId(id)) != null
     }
 
     /**
@@ -1054,13 +1053,13 @@ open class SiteStore
      * Returns the number of .COM sites in the store.
      */
     val wPComSitesCount: Int
-        get() = siteSqlUtils.getWpComSites().size
+        get() = siteSqlUtils.getSitesCountWith(SiteModelTable.IS_WPCOM, true)
 
     /**
      * Returns the number of .COM Atomic sites in the store.
      */
     val wPComAtomicSitesCount: Int
-        get() = siteSqlUtils.getWpComAtomicSites().size
+        get() = siteSqlUtils.getSitesCountWith(SiteModelTable.IS_WPCOM_ATOMIC, true)
 
     /**
      * Returns sites with a name or url matching the search string.
@@ -1121,7 +1120,7 @@ open class SiteStore
      * Returns the number of visible sites. All self-hosted sites over XML-RPC are visible by default.
      */
     val visibleSitesCount: Int
-        get() = siteSqlUtils.getVisibleSites().size
+        get() = siteSqlUtils.getSitesCountWith(SiteModelTable.IS_VISIBLE, true)
 
     /**
      * Returns all visible .COM sites as [SiteModel]s.
@@ -1172,14 +1171,15 @@ open class SiteStore
         if (siteId == 0L) {
             return null
         }
-        val sites = siteSqlUtils.getSitesWithRemoteId(siteId)
-        return if (sites.isEmpty()) {
-            null
-        } else {
-            sites[0]
-        }
+        return siteSqlUtils.getSiteWithRemoteId(siteId)
     }
 
+    /**
+     * Returns the hit and miss counts of the in-memory cache used by the site lookups by id.
+     */
+    val siteCacheMetrics: SiteCacheMetrics
+        get() = siteSqlUtils.getSiteCacheMetrics()
+
     /**
      * Gets the cached content of a page layout
      *
@@ -1210,7 +1210,7 @@ open class SiteStore
         return siteSqlUtils.getUserRoles(site!!)
     }
 
-    @Subscribe(threadMode = ASYNC) override fun onAction(action: Action<*>) {
+    @HandlesActions(SiteAction::class) override fun onAction(action: Action<*>) {
         val actionType = action.type as? SiteAction ?: return
         when (actionType) {
             FETCH_PROFILE_XML_RPC -> fetchProfileXmlRpc(action.payload as SiteModel)
@@ -1,12 +1,11 @@
 package org.wordpress.android.fluxc.store
 
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode.ASYNC
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.StockMediaAction
 import org.wordpress.android.fluxc.action.StockMediaAction.FETCH_STOCK_MEDIA
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.StockMediaModel
 import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
@@ -71,7 +70,7 @@ class StockMediaStore
 
     data class StockMediaError(val type: StockMediaErrorType, val message: String) : OnChangedError
 
-    @Subscribe(threadMode = ASYNC)
+    @HandlesActions(StockMediaAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? StockMediaAction ?: return
         when (actionType) {
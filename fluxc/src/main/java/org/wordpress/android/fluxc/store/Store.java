@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.store;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.FluxCError;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 
 public abstract class Store {
     protected final Dispatcher mDispatcher;
@@ -23,7 +24,10 @@ public abstract class Store {
     }
 
     /**
-     * onAction should {@link org.greenrobot.eventbus.Subscribe} with ASYNC {@link org.greenrobot.eventbus.ThreadMode}.
+     * onAction should be annotated with {@link HandlesActions}, listing the action types the store handles, so the
+     * Dispatcher delivers only these actions to it, on a background thread. Stores without the annotation receive
+     * every action, and have to {@link org.greenrobot.eventbus.Subscribe} with ASYNC
+     * {@link org.greenrobot.eventbus.ThreadMode} instead.
      */
     public abstract void onAction(Action action);
     public abstract void onRegister();
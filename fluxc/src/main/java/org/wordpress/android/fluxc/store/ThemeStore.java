@@ -5,12 +5,11 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.ThemeAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.ThemeModel;
@@ -240,7 +239,7 @@ public class ThemeStore extends Store {
         mThemeRestClient = themeRestClient;
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(ThemeAction.class)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
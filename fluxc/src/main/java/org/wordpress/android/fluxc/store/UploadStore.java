@@ -3,13 +3,12 @@ package org.wordpress.android.fluxc.store;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.action.UploadAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.MediaActionBuilder;
 import org.wordpress.android.fluxc.generated.PostActionBuilder;
@@ -92,7 +91,7 @@ public class UploadStore extends Store {
     }
 
     // Ensure that events reach the UploadStore before their main stores (MediaStore, PostStore)
-    @Subscribe(threadMode = ThreadMode.ASYNC, priority = 1)
+    @HandlesActions(value = {UploadAction.class, MediaAction.class}, priority = 1)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
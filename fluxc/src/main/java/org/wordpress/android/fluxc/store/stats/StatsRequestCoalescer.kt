@@ -0,0 +1,155 @@
+package org.wordpress.android.fluxc.store.stats
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.StatsUtils
+import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType
+import org.wordpress.android.fluxc.store.StatsStore.FetchStatsPayload
+import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
+import org.wordpress.android.fluxc.store.StatsStore.StatsError
+import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import java.util.Date
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Shares the stats requests in flight between the stores, so concurrent callers asking for the same stats, e.g. when
+ * the stats screen is opened again on rotation, wait for a single network request.
+ *
+ * The requests run in a scope of their own, so a caller being cancelled doesn't cancel the request for the others.
+ */
+@Singleton
+class StatsRequestCoalescer
+@Inject constructor(
+    coroutineContext: CoroutineContext,
+    private val statsUtils: StatsUtils
+) {
+    private val coroutineScope = CoroutineScope(coroutineContext + SupervisorJob())
+    private val inFlightRequests = HashMap<StatsRequestKey, Deferred<*>>()
+
+    private var issuedCount = 0L
+    private var coalescedCount = 0L
+    private var revalidationCount = 0L
+
+    fun createKey(
+        site: SiteModel,
+        blockType: BlockType,
+        granularity: StatsGranularity,
+        date: Date,
+        requestedItems: Int?,
+        forced: Boolean
+    ) = StatsRequestKey(site.id, blockType, granularity, statsUtils.getFormattedDate(date), requestedItems, forced)
+
+    /**
+     * Runs the given [request], or waits for the identical request in flight, and returns its result.
+     */
+    suspend fun <T> fetch(key: StatsRequestKey, request: suspend () -> T): T {
+        return getOrStartRequest(key, request, isRevalidation = false).await()
+    }
+
+    /**
+     * Runs the given [request] in the background, unless the identical request is already in flight. It's used to
+     * fetch again the stats returned from the DB while they're stale.
+     */
+    fun <T> revalidate(key: StatsRequestKey, request: suspend () -> T) {
+        getOrStartRequest(key, request, isRevalidation = true)
+    }
+
+    /**
+     * Fetches the stats of a store, storing them with [insert] once they're fetched. Unless the request is forced,
+     * stale stats are returned right away with `cached = true`, while they're fetched again in the background so the
+     * next read gets the fetched ones.
+     *
+     * @param hasStaleStats Whether the stored stats are stale
+     * @param getStoredStats Returns the stored stats, if any
+     * @param request Fetches the stats from the network
+     * @param map Returns the event of the fetched stats
+     */
+    suspend fun <RESPONSE, MODEL> fetchStats(
+        key: StatsRequestKey,
+        hasStaleStats: () -> Boolean,
+        getStoredStats: () -> MODEL?,
+        request: suspend () -> FetchStatsPayload<RESPONSE>,
+        insert: (RESPONSE) -> Unit,
+        map: (RESPONSE) -> OnStatsFetched<MODEL>
+    ): OnStatsFetched<MODEL> {
+        val insertingRequest = suspend {
+            request().also { payload ->
+                if (!payload.isError && payload.response != null) {
+                    insert(payload.response)
+                }
+            }
+        }
+        if (!key.forced && hasStaleStats()) {
+            getStoredStats()?.let { model ->
+                revalidate(key, insertingRequest)
+                return OnStatsFetched(model, cached = true)
+            }
+        }
+        val payload = fetch(key, insertingRequest)
+        return when {
+            payload.isError -> OnStatsFetched(payload.error)
+            payload.response != null -> map(payload.response)
+            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
+        }
+    }
+
+    @Synchronized
+    fun getMetrics() = StatsRequestMetrics(issuedCount, coalescedCount, revalidationCount)
+
+    @Synchronized
+    private fun <T> getOrStartRequest(
+        key: StatsRequestKey,
+        request: suspend () -> T,
+        isRevalidation: Boolean
+    ): Deferred<T> {
+        inFlightRequests[key]?.let {
+            coalescedCount++
+            // The requests of a key always come from the same store, they all return the same type
+            @Suppress("UNCHECKED_CAST")
+            return it as Deferred<T>
+        }
+        issuedCount++
+        if (isRevalidation) {
+            revalidationCount++
+        }
+        // Started once it's registered, so it can't complete before
+        val deferred = coroutineScope.async(start = CoroutineStart.LAZY) { request() }
+        inFlightRequests[key] = deferred
+        deferred.invokeOnCompletion { removeRequest(key, deferred) }
+        deferred.start()
+        return deferred
+    }
+
+    @Synchronized
+    private fun removeRequest(key: StatsRequestKey, deferred: Deferred<*>) {
+        if (inFlightRequests[key] === deferred) {
+            inFlightRequests.remove(key)
+        }
+    }
+
+    /**
+     * Identifies a stats request. Forced requests are kept apart from the others since they skip the network cache.
+     */
+    data class StatsRequestKey(
+        val localSiteId: Int,
+        val blockType: BlockType,
+        val granularity: StatsGranularity?,
+        val date: String?,
+        val requestedItems: Int?,
+        val forced: Boolean
+    )
+
+    /**
+     * @property issuedCount The number of requests sent to the network, revalidations included.
+     * @property coalescedCount The number of requests that waited for an identical request instead.
+     * @property revalidationCount The number of requests fetching again stale stats in the background.
+     */
+    data class StatsRequestMetrics(val issuedCount: Long, val coalescedCount: Long, val revalidationCount: Long)
+}
@@ -6,10 +6,10 @@ import org.wordpress.android.fluxc.model.stats.LimitMode.Top
 import org.wordpress.android.fluxc.model.stats.time.TimeStatsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.AuthorsRestClient
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.AUTHORS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.AuthorsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
-import org.wordpress.android.fluxc.store.StatsStore.StatsError
-import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog.T.STATS
 import java.util.Date
@@ -22,7 +22,8 @@ class AuthorsStore
     private val restClient: AuthorsRestClient,
     private val sqlUtils: AuthorsSqlUtils,
     private val timeStatsMapper: TimeStatsMapper,
-    private val coroutineEngine: CoroutineEngine
+    private val coroutineEngine: CoroutineEngine,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchAuthors(
         site: SiteModel,
@@ -34,15 +35,15 @@ class AuthorsStore
         if (!forced && sqlUtils.hasFreshRequest(site, period, date, limitMode.limit)) {
             return@withDefaultContext OnStatsFetched(getAuthors(site, period, limitMode, date), cached = true)
         }
-        val payload = restClient.fetchAuthors(site, period, date, limitMode.limit + 1, forced)
-        return@withDefaultContext when {
-            payload.isError -> OnStatsFetched(payload.error)
-            payload.response != null -> {
-                sqlUtils.insert(site, payload.response, period, date, limitMode.limit)
-                OnStatsFetched(timeStatsMapper.map(payload.response, limitMode))
-            }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
-        }
+        val requestKey = requestCoalescer.createKey(site, AUTHORS, period, date, limitMode.limit, forced)
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, period, date, limitMode.limit) },
+                getStoredStats = { getAuthors(site, period, limitMode, date) },
+                request = { restClient.fetchAuthors(site, period, date, limitMode.limit + 1, forced) },
+                insert = { sqlUtils.insert(site, it, period, date, limitMode.limit) },
+                map = { OnStatsFetched(timeStatsMapper.map(it, limitMode)) }
+        )
     }
 
     fun getAuthors(site: SiteModel, period: StatsGranularity, limitMode: LimitMode, date: Date) =
@@ -6,10 +6,10 @@ import org.wordpress.android.fluxc.model.stats.LimitMode.Top
 import org.wordpress.android.fluxc.model.stats.time.TimeStatsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.FileDownloadsRestClient
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.FILE_DOWNLOADS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.FileDownloadsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
-import org.wordpress.android.fluxc.store.StatsStore.StatsError
-import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog.T.STATS
 import java.util.Date
@@ -22,7 +22,8 @@ class FileDownloadsStore
     private val restClient: FileDownloadsRestClient,
     private val sqlUtils: FileDownloadsSqlUtils,
     private val timeStatsMapper: TimeStatsMapper,
-    private val coroutineEngine: CoroutineEngine
+    private val coroutineEngine: CoroutineEngine,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchFileDownloads(
         site: SiteModel,
@@ -34,15 +35,15 @@ class FileDownloadsStore
         if (!forced && sqlUtils.hasFreshRequest(site, period, date, limitMode.limit)) {
             return@withDefaultContext OnStatsFetched(getFileDownloads(site, period, limitMode, date), cached = true)
         }
-        val payload = restClient.fetchFileDownloads(site, period, date, limitMode.limit + 1, forced)
-        return@withDefaultContext when {
-            payload.isError -> OnStatsFetched(payload.error)
-            payload.response != null -> {
-                sqlUtils.insert(site, payload.response, period, date, limitMode.limit)
-                OnStatsFetched(timeStatsMapper.map(payload.response, limitMode))
-            }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
-        }
+        val requestKey = requestCoalescer.createKey(site, FILE_DOWNLOADS, period, date, limitMode.limit, forced)
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, period, date, limitMode.limit) },
+                getStoredStats = { getFileDownloads(site, period, limitMode, date) },
+                request = { restClient.fetchFileDownloads(site, period, date, limitMode.limit + 1, forced) },
+                insert = { sqlUtils.insert(site, it, period, date, limitMode.limit) },
+                map = { OnStatsFetched(timeStatsMapper.map(it, limitMode)) }
+        )
     }
 
     fun getFileDownloads(
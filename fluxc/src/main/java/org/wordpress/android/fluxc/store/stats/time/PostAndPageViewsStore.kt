@@ -6,10 +6,10 @@ import org.wordpress.android.fluxc.model.stats.LimitMode.Top
 import org.wordpress.android.fluxc.model.stats.time.TimeStatsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.PostAndPageViewsRestClient
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.POSTS_AND_PAGES_VIEWS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.PostsAndPagesSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
-import org.wordpress.android.fluxc.store.StatsStore.StatsError
-import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog.T.STATS
 import java.util.Date
@@ -22,7 +22,8 @@ class PostAndPageViewsStore
     private val restClient: PostAndPageViewsRestClient,
     private val sqlUtils: PostsAndPagesSqlUtils,
     private val timeStatsMapper: TimeStatsMapper,
-    private val coroutineEngine: CoroutineEngine
+    private val coroutineEngine: CoroutineEngine,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchPostAndPageViews(
         site: SiteModel,
@@ -37,15 +38,22 @@ class PostAndPageViewsStore
                     cached = true
             )
         }
-        val payload = restClient.fetchPostAndPageViews(site, granularity, date, limitMode.limit + 1, forced)
-        return@withDefaultContext when {
-            payload.isError -> OnStatsFetched(payload.error)
-            payload.response != null -> {
-                sqlUtils.insert(site, payload.response, granularity, date, limitMode.limit)
-                OnStatsFetched(timeStatsMapper.map(payload.response, limitMode))
-            }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
-        }
+        val requestKey = requestCoalescer.createKey(
+                site,
+                POSTS_AND_PAGES_VIEWS,
+                granularity,
+                date,
+                limitMode.limit,
+                forced
+        )
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, granularity, date, limitMode.limit) },
+                getStoredStats = { getPostAndPageViews(site, granularity, limitMode, date) },
+                request = { restClient.fetchPostAndPageViews(site, granularity, date, limitMode.limit + 1, forced) },
+                insert = { sqlUtils.insert(site, it, granularity, date, limitMode.limit) },
+                map = { OnStatsFetched(timeStatsMapper.map(it, limitMode)) }
+        )
     }
 
     fun getPostAndPageViews(
@@ -6,12 +6,14 @@ import org.wordpress.android.fluxc.model.stats.time.TimeStatsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.ReferrersRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.ReferrersRestClient.ReferrersResponse
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.REFERRERS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.ReferrersSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnReportReferrerAsSpam
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
 import org.wordpress.android.fluxc.store.StatsStore.StatsError
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog.T.STATS
 import java.util.Date
@@ -24,7 +26,8 @@ class ReferrersStore
     private val restClient: ReferrersRestClient,
     private val sqlUtils: ReferrersSqlUtils,
     private val timeStatsMapper: TimeStatsMapper,
-    private val coroutineEngine: CoroutineEngine
+    private val coroutineEngine: CoroutineEngine,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchReferrers(
         site: SiteModel,
@@ -36,15 +39,15 @@ class ReferrersStore
         if (!forced && sqlUtils.hasFreshRequest(site, granularity, date, limitMode.limit)) {
             return@withDefaultContext OnStatsFetched(getReferrers(site, granularity, limitMode, date), cached = true)
         }
-        val payload = restClient.fetchReferrers(site, granularity, date, limitMode.limit + 1, forced)
-        return@withDefaultContext when {
-            payload.isError -> OnStatsFetched(payload.error)
-            payload.response != null -> {
-                sqlUtils.insert(site, payload.response, granularity, date, limitMode.limit)
-                OnStatsFetched(timeStatsMapper.map(payload.response, limitMode))
-            }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
-        }
+        val requestKey = requestCoalescer.createKey(site, REFERRERS, granularity, date, limitMode.limit, forced)
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, granularity, date, limitMode.limit) },
+                getStoredStats = { getReferrers(site, granularity, limitMode, date) },
+                request = { restClient.fetchReferrers(site, granularity, date, limitMode.limit + 1, forced) },
+                insert = { sqlUtils.insert(site, it, granularity, date, limitMode.limit) },
+                map = { OnStatsFetched(timeStatsMapper.map(it, limitMode)) }
+        )
     }
 
     fun getReferrers(site: SiteModel, granularity: StatsGranularity, limitMode: Top, date: Date) =
@@ -5,10 +5,10 @@ import org.wordpress.android.fluxc.model.stats.LimitMode
 import org.wordpress.android.fluxc.model.stats.time.TimeStatsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.SearchTermsRestClient
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.SEARCH_TERMS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.SearchTermsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
-import org.wordpress.android.fluxc.store.StatsStore.StatsError
-import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.util.AppLog.T.STATS
 import java.util.Date
@@ -21,7 +21,8 @@ class SearchTermsStore
     private val restClient: SearchTermsRestClient,
     private val sqlUtils: SearchTermsSqlUtils,
     private val timeStatsMapper: TimeStatsMapper,
-    private val coroutineEngine: CoroutineEngine
+    private val coroutineEngine: CoroutineEngine,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchSearchTerms(
         site: SiteModel,
@@ -33,15 +34,15 @@ class SearchTermsStore
         if (!forced && sqlUtils.hasFreshRequest(site, granularity, date, limitMode.limit)) {
             return@withDefaultContext OnStatsFetched(getSearchTerms(site, granularity, limitMode, date), cached = true)
         }
-        val payload = restClient.fetchSearchTerms(site, granularity, date, limitMode.limit + 1, forced)
-        return@withDefaultContext when {
-            payload.isError -> OnStatsFetched(payload.error)
-            payload.response != null -> {
-                sqlUtils.insert(site, payload.response, granularity, date, limitMode.limit)
-                OnStatsFetched(timeStatsMapper.map(payload.response, limitMode))
-            }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
-        }
+        val requestKey = requestCoalescer.createKey(site, SEARCH_TERMS, granularity, date, limitMode.limit, forced)
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, granularity, date, limitMode.limit) },
+                getStoredStats = { getSearchTerms(site, granularity, limitMode, date) },
+                request = { restClient.fetchSearchTerms(site, granularity, date, limitMode.limit + 1, forced) },
+                insert = { sqlUtils.insert(site, it, granularity, date, limitMode.limit) },
+                map = { OnStatsFetched(timeStatsMapper.map(it, limitMode)) }
+        )
     }
 
     fun getSearchTerms(site: SiteModel, period: StatsGranularity, limitMode: LimitMode, date: Date) =
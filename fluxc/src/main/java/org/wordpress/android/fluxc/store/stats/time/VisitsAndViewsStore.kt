@@ -7,10 +7,13 @@ import org.wordpress.android.fluxc.model.stats.time.VisitsAndViewsModel
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.StatsUtils
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.VisitAndViewsRestClient
 import org.wordpress.android.fluxc.network.utils.StatsGranularity
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.VISITS_AND_VIEWS
 import org.wordpress.android.fluxc.persistence.TimeStatsSqlUtils.VisitsAndViewsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.OnStatsFetched
 import org.wordpress.android.fluxc.store.StatsStore.StatsError
 import org.wordpress.android.fluxc.store.StatsStore.StatsErrorType.INVALID_RESPONSE
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer
+import org.wordpress.android.fluxc.store.stats.StatsRequestCoalescer.StatsRequestKey
 import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.fluxc.utils.AppLogWrapper
 import org.wordpress.android.fluxc.utils.CurrentTimeProvider
@@ -28,7 +31,8 @@ class VisitsAndViewsStore
     private val statsUtils: StatsUtils,
     private val currentTimeProvider: CurrentTimeProvider,
     private val coroutineEngine: CoroutineEngine,
-    private val appLogWrapper: AppLogWrapper
+    private val appLogWrapper: AppLogWrapper,
+    private val requestCoalescer: StatsRequestCoalescer
 ) {
     suspend fun fetchVisits(
         site: SiteModel,
@@ -55,26 +59,40 @@ class VisitsAndViewsStore
                     cached = true
             )
         }
-        val payload = restClient.fetchVisits(site, granularity, dateWithTimeZone, limitMode.limit, forced)
-        return@withDefaultContext when {
-            payload.isError -> {
-                logProgress(granularity, "Error fetching data: ${payload.error}")
-                OnStatsFetched(payload.error)
-            }
-            payload.response != null -> {
-                logProgress(granularity, "Data fetched correctly")
-                sqlUtils.insert(site, payload.response, granularity, dateWithTimeZone, limitMode.limit)
-                val overviewResponse = timeStatsMapper.map(payload.response, limitMode)
-                if (overviewResponse.period.isBlank() || overviewResponse.dates.isEmpty()) {
-                    logProgress(granularity, "Invalid response")
-                    OnStatsFetched(StatsError(INVALID_RESPONSE, "Overview: Required data 'period' or 'dates' missing"))
-                } else {
-                    logProgress(granularity, "Valid response returned for period: ${overviewResponse.period}")
-                    logProgress(granularity, "Last data item for: ${overviewResponse.dates.lastOrNull()?.period}")
-                    OnStatsFetched(overviewResponse)
+        val requestKey = StatsRequestKey(
+                site.id,
+                VISITS_AND_VIEWS,
+                granularity,
+                dateWithTimeZone,
+                limitMode.limit,
+                forced
+        )
+        return@withDefaultContext requestCoalescer.fetchStats(
+                key = requestKey,
+                hasStaleStats = { sqlUtils.hasStaleRequest(site, granularity, dateWithTimeZone, limitMode.limit) },
+                getStoredStats = { getVisits(site, granularity, limitMode, dateWithTimeZone) },
+                request = { restClient.fetchVisits(site, granularity, dateWithTimeZone, limitMode.limit, forced) },
+                insert = { sqlUtils.insert(site, it, granularity, dateWithTimeZone, limitMode.limit) },
+                map = { response ->
+                    logProgress(granularity, "Data fetched correctly")
+                    val overviewResponse = timeStatsMapper.map(response, limitMode)
+                    if (overviewResponse.period.isBlank() || overviewResponse.dates.isEmpty()) {
+                        logProgress(granularity, "Invalid response")
+                        OnStatsFetched(
+                                StatsError(INVALID_RESPONSE, "Overview: Required data 'period' or 'dates' missing")
+                        )
+                    } else {
+                        logProgress(granularity, "Valid response returned for period: ${overviewResponse.period}")
+                        logProgress(granularity, "Last data item for: ${overviewResponse.dates.lastOrNull()?.period}")
+                        OnStatsFetched(overviewResponse)
+                    }
                 }
+        ).also { event ->
+            if (event.cached) {
+                logProgress(granularity, "Loading stale cached data")
+            } else if (event.isError && event.error.type != INVALID_RESPONSE) {
+                logProgress(granularity, "Error fetching data: ${event.error}")
             }
-            else -> OnStatsFetched(StatsError(INVALID_RESPONSE))
         }
     }
 
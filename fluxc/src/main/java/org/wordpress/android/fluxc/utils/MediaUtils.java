@@ -13,6 +13,7 @@ import org.wordpress.android.util.AppLog.T;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Locale;
 
 public class MediaUtils {
     private static final MimeTypes MIME_TYPES = new MimeTypes();
@@ -61,6 +62,19 @@ public class MediaUtils {
         return MIME_TYPES.getMimeTypeForExtension(extension);
     }
 
+    /**
+     * Returns the top-level type of the given MIME type in lower case, e.g. "image" for "image/jpeg", which matches
+     * the values of {@link MimeType.Type}, or null if there's none.
+     */
+    public static String getMimeClass(String mimeType) {
+        if (TextUtils.isEmpty(mimeType)) {
+            return null;
+        }
+        int separatorIndex = mimeType.indexOf('/');
+        String mimeClass = separatorIndex < 0 ? mimeType : mimeType.substring(0, separatorIndex);
+        return mimeClass.isEmpty() ? null : mimeClass.toLowerCase(Locale.ROOT);
+    }
+
     //
     // File operations
     //
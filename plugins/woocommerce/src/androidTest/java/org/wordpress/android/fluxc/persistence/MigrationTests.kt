@@ -4,11 +4,14 @@ import androidx.room.migration.AutoMigrationSpec
 import androidx.room.testing.MigrationTestHelper
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import androidx.test.platform.app.InstrumentationRegistry
+import org.assertj.core.api.Assertions.assertThat
 import org.junit.Rule
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_10_11
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_11_12
+import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_13_14
+import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_14_15
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_3_4
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_4_5
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_5_6
@@ -122,6 +125,54 @@ class MigrationTests {
         }
     }
 
+    @Test
+    fun testMigrate13to14() {
+        helper.apply {
+            createDatabase(TEST_DB, 13).apply {
+                execSQL(
+                        // language=RoomSql
+                        """
+                            INSERT INTO OrderEntity VALUES(1, 2, '123', 'processing', '$', 'key', 'date of creation', 'date of modification', '123', '456', '789', 'card', 'by card', 'date paid', 1, 'sample customer note', '213', 'CODE', '123', 'billing first name', 'billing last name', 'billing company', 'billing address1', 'billing address2', 'billing city', 'billing state', 'billing postcode', 'billing country', 'billing email', 'billing phone', 'shipping first name', 'shipping last name', 'shipping company', 'shipping address1', 'shipping address2', 'shipping city', 'shipping state', 'shipping postcode', 'shipping country', 'shipping phone', '[{"id":10,"product_id":20,"variation_id":0,"name":"Hoodie","quantity":2,"subtotal":"30.00","total":"30.00","sku":"hoodie"},{"product_id":21,"name":"Cap"}]', 'shipping lines', 'fee lines', 'tax lines', 'meta data', 'payment url')
+                        """.trimIndent()
+                )
+            }.close()
+
+            val migratedDb = runMigrationsAndValidate(TEST_DB, 14, true, MIGRATION_13_14)
+
+            migratedDb.query(
+                    // language=RoomSql
+                    """
+                        SELECT position, lineItemId, productId, name, quantity, sku FROM OrderLineItems
+                        WHERE localSiteId = 1 AND orderId = 2 ORDER BY position
+                    """.trimIndent()
+            ).use { cursor ->
+                assertThat(cursor.count).isEqualTo(2)
+
+                cursor.moveToFirst()
+                assertThat(cursor.getInt(0)).isEqualTo(0)
+                assertThat(cursor.getLong(1)).isEqualTo(10)
+                assertThat(cursor.getLong(2)).isEqualTo(20)
+                assertThat(cursor.getString(3)).isEqualTo("Hoodie")
+                assertThat(cursor.getFloat(4)).isEqualTo(2f)
+                assertThat(cursor.getString(5)).isEqualTo("hoodie")
+
+                cursor.moveToNext()
+                assertThat(cursor.getInt(0)).isEqualTo(1)
+                assertThat(cursor.isNull(1)).isTrue
+                assertThat(cursor.getLong(2)).isEqualTo(21)
+                assertThat(cursor.isNull(4)).isTrue
+            }
+        }
+    }
+
+    @Test
+    fun testMigrate14to15() {
+        helper.apply {
+            createDatabase(TEST_DB, 14).close()
+            runMigrationsAndValidate(TEST_DB, 15, true, MIGRATION_14_15)
+        }
+    }
+
     companion object {
         private const val TEST_DB = "migration-test"
     }
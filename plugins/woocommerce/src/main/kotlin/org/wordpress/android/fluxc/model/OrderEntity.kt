@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.model
 
 import androidx.room.ColumnInfo
 import androidx.room.Entity
+import androidx.room.Ignore
 import androidx.room.Index
 import com.google.gson.Gson
 import com.google.gson.reflect.TypeToken
@@ -15,9 +16,11 @@ import java.math.BigDecimal
 
 @Entity(
     tableName = "OrderEntity",
-    indices = [Index(
-        value = ["localSiteId", "orderId"]
-    )],
+    indices = [
+        Index(value = ["localSiteId", "orderId"]),
+        Index(value = ["localSiteId", "dateCreated", "orderId"]),
+        Index(value = ["localSiteId", "status", "dateCreated", "orderId"])
+    ],
     primaryKeys = ["localSiteId", "orderId"]
 )
 data class OrderEntity(
@@ -72,6 +75,34 @@ data class OrderEntity(
 ) {
     companion object {
         private val gson by lazy { Gson() }
+
+        private inline fun <reified T> decodeList(json: String): List<T> {
+            val responseType = object : TypeToken<List<T>>() {}.type
+            return gson.fromJson(json, responseType) as? List<T> ?: emptyList()
+        }
+    }
+
+    // The JSON columns are decoded at most once per instance, since the entity is immutable
+    @delegate:Ignore
+    private val decodedLineItems by lazy(LazyThreadSafetyMode.PUBLICATION) { decodeList<LineItem>(lineItems) }
+
+    @delegate:Ignore
+    private val decodedShippingLines by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        decodeList<ShippingLine>(shippingLines)
+    }
+
+    @delegate:Ignore
+    private val decodedFeeLines by lazy(LazyThreadSafetyMode.PUBLICATION) { decodeList<FeeLine>(feeLines) }
+
+    @delegate:Ignore
+    private val decodedTaxLines by lazy(LazyThreadSafetyMode.PUBLICATION) { decodeList<TaxLine>(taxLines) }
+
+    @delegate:Ignore
+    private val decodedMetaData by lazy(LazyThreadSafetyMode.PUBLICATION) { decodeList<WCMetaData>(metaData) }
+
+    @delegate:Ignore
+    private val orderSubtotal by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        decodedLineItems.sumByDouble { it.subtotal?.toDoubleOrNull() ?: 0.0 }
     }
 
     /**
@@ -95,50 +126,35 @@ data class OrderEntity(
 
     /**
      * Deserializes the JSON contained in [lineItems] into a list of [LineItem] objects.
+     *
+     * The list is decoded once and shared by all the callers, so the items must not be modified.
      */
-    fun getLineItemList(): List<LineItem> {
-        val responseType = object : TypeToken<List<LineItem>>() {}.type
-        return gson.fromJson(lineItems, responseType) as? List<LineItem> ?: emptyList()
-    }
+    fun getLineItemList(): List<LineItem> = decodedLineItems
 
     /**
      * Returns the order subtotal (the sum of the subtotals of each line item in the order).
      */
-    fun getOrderSubtotal(): Double {
-        return getLineItemList().sumByDouble { it.subtotal?.toDoubleOrNull() ?: 0.0 }
-    }
+    fun getOrderSubtotal(): Double = orderSubtotal
 
     /**
      * Deserializes the JSON contained in [shippingLines] into a list of [ShippingLine] objects.
      */
-    fun getShippingLineList(): List<ShippingLine> {
-        val responseType = object : TypeToken<List<ShippingLine>>() {}.type
-        return gson.fromJson(shippingLines, responseType) as? List<ShippingLine> ?: emptyList()
-    }
+    fun getShippingLineList(): List<ShippingLine> = decodedShippingLines
 
     /**
      * Deserializes the JSON contained in [feeLines] into a list of [FeeLine] objects.
      */
-    fun getFeeLineList(): List<FeeLine> {
-        val responseType = object : TypeToken<List<FeeLine>>() {}.type
-        return gson.fromJson(feeLines, responseType) as? List<FeeLine> ?: emptyList()
-    }
+    fun getFeeLineList(): List<FeeLine> = decodedFeeLines
 
     /**
      * Deserializes the JSON contained in [taxLines] into a list of [TaxLine] objects.
      */
-    fun getTaxLineList(): List<TaxLine> {
-        val responseType = object : TypeToken<List<TaxLine>>() {}.type
-        return gson.fromJson(taxLines, responseType) as? List<TaxLine> ?: emptyList()
-    }
+    fun getTaxLineList(): List<TaxLine> = decodedTaxLines
 
     /**
      * Deserializes the JSON contained in [metaData] into a list of [WCMetaData] objects.
      */
-    fun getMetaDataList(): List<WCMetaData> {
-        val responseType = object : TypeToken<List<WCMetaData>>() {}.type
-        return gson.fromJson(metaData, responseType) as? List<WCMetaData> ?: emptyList()
-    }
+    fun getMetaDataList(): List<WCMetaData> = decodedMetaData
 
     fun isMultiShippingLinesAvailable() = getShippingLineList().size > 1
 }
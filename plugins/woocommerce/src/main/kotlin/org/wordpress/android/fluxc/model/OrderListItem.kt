@@ -0,0 +1,39 @@
+package org.wordpress.android.fluxc.model
+
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+
+/**
+ * Lightweight projection of [OrderEntity] holding what's needed to render an order in a list, without the JSON
+ * columns (line items, shipping lines, etc.) which are only needed by the order details.
+ */
+data class OrderListItem(
+    val localSiteId: LocalId,
+    val orderId: Long,
+    val number: String,
+    val status: String,
+    val currency: String,
+    val dateCreated: String,
+    val dateModified: String,
+    val datePaid: String,
+    val total: String,
+    val paymentMethodTitle: String,
+    val billingFirstName: String,
+    val billingLastName: String
+) {
+    companion object {
+        internal val COLUMNS = listOf(
+                "localSiteId",
+                "orderId",
+                "number",
+                "status",
+                "currency",
+                "dateCreated",
+                "dateModified",
+                "datePaid",
+                "total",
+                "paymentMethodTitle",
+                "billingFirstName",
+                "billingLastName"
+        )
+    }
+}
@@ -0,0 +1,31 @@
+package org.wordpress.android.fluxc.model
+
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.RawConstraints
+import com.yarolegovich.wellsql.core.annotation.Table
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+
+/**
+ * Links a [WCProductModel] to each of its categories, so products can be filtered by category with an indexed
+ * lookup instead of searching the JSON stored in [WCProductModel.categories].
+ *
+ * The unique constraints double as the indexes for looking up products by category and categories by product.
+ */
+@Table(addOn = WellSqlConfig.ADDON_WOOCOMMERCE)
+@RawConstraints(
+        "UNIQUE (LOCAL_SITE_ID, REMOTE_CATEGORY_ID, REMOTE_PRODUCT_ID) ON CONFLICT IGNORE",
+        "UNIQUE (LOCAL_SITE_ID, REMOTE_PRODUCT_ID, REMOTE_CATEGORY_ID) ON CONFLICT IGNORE"
+)
+class WCProductCategoryLinkModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable {
+    @Column var localSiteId = 0
+    @Column var remoteProductId = 0L
+    @Column var remoteCategoryId = 0L
+
+    override fun getId() = id
+
+    override fun setId(id: Int) {
+        this.id = id
+    }
+}
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.persistence
 
 import com.google.gson.JsonArray
 import com.google.gson.JsonObject
+import com.wellsql.generated.WCProductCategoryLinkModelTable
 import com.wellsql.generated.WCProductCategoryModelTable
 import com.wellsql.generated.WCProductModelTable
 import com.wellsql.generated.WCProductReviewModelTable
@@ -11,6 +12,7 @@ import com.wellsql.generated.WCProductVariationModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.WellSql
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCProductCategoryLinkModel
 import org.wordpress.android.fluxc.model.WCProductCategoryModel
 import org.wordpress.android.fluxc.model.WCProductImageModel
 import org.wordpress.android.fluxc.model.WCProductModel
@@ -32,7 +34,25 @@ import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_DES
 import java.util.Locale
 
 object ProductSqlUtils {
+    private const val PRODUCT_TABLE = "WCProductModel"
+    private const val PRODUCT_CATEGORY_LINK_TABLE = "WCProductCategoryLinkModel"
+    // Keeps the number of bound variables in an IN clause below SQLite's limit
+    private const val MAX_IN_CLAUSE_SIZE = 500
+
     fun insertOrUpdateProduct(product: WCProductModel): Int {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val rowsAffected = insertOrUpdateProductRow(product)
+            updateProductCategoryLinks(product)
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    private fun insertOrUpdateProductRow(product: WCProductModel): Int {
         val productResult = WellSql.select(WCProductModel::class.java)
                 .where().beginGroup()
                 .equals(WCProductModelTable.ID, product.id)
@@ -46,7 +66,7 @@ object ProductSqlUtils {
 
         return if (productResult == null) {
             // Insert
-            WellSql.insert(product).asSingleTransaction(true).execute()
+            WellSql.insert(product).asSingleTransaction(false).execute()
             1
         } else {
             // Update
@@ -59,12 +79,101 @@ object ProductSqlUtils {
         }
     }
 
+    /**
+     * Replaces the rows linking the product to its categories with the ones in [WCProductModel.categories]
+     */
+    private fun updateProductCategoryLinks(product: WCProductModel) {
+        deleteProductCategoryLinks(product.localSiteId, product.remoteProductId)
+        val links = product.getCategoryList().map { category ->
+            WCProductCategoryLinkModel().apply {
+                localSiteId = product.localSiteId
+                remoteProductId = product.remoteProductId
+                remoteCategoryId = category.id
+            }
+        }
+        if (links.isNotEmpty()) {
+            WellSql.insert(links).asSingleTransaction(false).execute()
+        }
+    }
+
+    private fun deleteProductCategoryLinks(localSiteId: Int, remoteProductId: Long? = null) {
+        val query = WellSql.delete(WCProductCategoryLinkModel::class.java)
+                .where().beginGroup()
+                .equals(WCProductCategoryLinkModelTable.LOCAL_SITE_ID, localSiteId)
+        remoteProductId?.let { query.equals(WCProductCategoryLinkModelTable.REMOTE_PRODUCT_ID, it) }
+        query.endGroup().endWhere().execute()
+    }
+
+    /**
+     * Bulk version of [insertOrUpdateProduct]: the existing rows for the whole list are resolved with a single query
+     * and all the writes happen in a single transaction.
+     */
     fun insertOrUpdateProducts(products: List<WCProductModel>): Int {
-        var rowsAffected = 0
-        products.forEach {
-            rowsAffected += insertOrUpdateProduct(it)
+        if (products.isEmpty()) return 0
+
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val existingProducts = getExistingProductRows(products)
+            val existingById = existingProducts.associateByTo(HashMap()) { it.id }
+            val existingByRemoteId = existingProducts.associateByTo(HashMap()) { it.localSiteId to it.remoteProductId }
+
+            var rowsAffected = 0
+            products.forEach { product ->
+                // Same as the `firstOrNull` of the single product query: the oldest row matching either key wins
+                val existing = listOfNotNull(
+                        existingById[product.id],
+                        existingByRemoteId[product.localSiteId to product.remoteProductId]
+                ).minByOrNull { it.id }
+
+                val row = if (existing == null) {
+                    WellSql.insert(product).asSingleTransaction(false).execute()
+                    rowsAffected += 1
+                    WCProductModel(product.id)
+                } else {
+                    rowsAffected += WellSql.update(WCProductModel::class.java)
+                            .where().beginGroup()
+                            .equals(WCProductModelTable.REMOTE_PRODUCT_ID, existing.remoteProductId)
+                            .equals(WCProductModelTable.LOCAL_SITE_ID, existing.localSiteId)
+                            .endGroup().endWhere()
+                            .put(product, UpdateAllExceptId(WCProductModel::class.java)).execute()
+                    existingByRemoteId.remove(existing.localSiteId to existing.remoteProductId)
+                    WCProductModel(existing.id)
+                }
+                // Keep track of the written row, so later products in the list are matched against it
+                row.localSiteId = product.localSiteId
+                row.remoteProductId = product.remoteProductId
+                if (row.id != 0) existingById[row.id] = row
+                existingByRemoteId[row.localSiteId to row.remoteProductId] = row
+
+                updateProductCategoryLinks(product)
+            }
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
         }
-        return rowsAffected
+    }
+
+    /**
+     * Returns the rows matching the given products either by local id or by site and remote id, only loading the
+     * columns needed to match them.
+     */
+    private fun getExistingProductRows(products: List<WCProductModel>): List<WCProductModel> {
+        return products.chunked(MAX_IN_CLAUSE_SIZE / 2).flatMap { chunk ->
+            WellSql.select(WCProductModel::class.java)
+                    .columns(
+                            WCProductModelTable.ID,
+                            WCProductModelTable.LOCAL_SITE_ID,
+                            WCProductModelTable.REMOTE_PRODUCT_ID
+                    )
+                    .where().beginGroup()
+                    .isIn(WCProductModelTable.ID, chunk.map { it.id })
+                    .or()
+                    .isIn(WCProductModelTable.REMOTE_PRODUCT_ID, chunk.map { it.remoteProductId })
+                    .endGroup().endWhere()
+                    .asModel
+        }.distinctBy { it.id }
     }
 
     fun getProductByRemoteId(site: SiteModel, remoteProductId: Long): WCProductModel? {
@@ -118,68 +227,88 @@ object ProductSqlUtils {
                 .count().toInt()
     }
 
+    /**
+     * Returns the products of the [site] matching the [filterOptions], sorted by [sortType]. Filtering and sorting
+     * (including case-insensitive sorting by name) are done in SQL, pass a [limit] and [offset] to page through the
+     * results instead of loading all of them.
+     */
     fun getProductsByFilterOptions(
         site: SiteModel,
         filterOptions: Map<ProductFilterOption, String>,
         sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
-        excludedProductIds: List<Long>? = null
+        excludedProductIds: List<Long>? = null,
+        offset: Int = 0,
+        limit: Int? = null
     ): List<WCProductModel> {
-        val queryBuilder = WellSql.select(WCProductModel::class.java)
-                .where().beginGroup()
-                .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
+        val conditions = mutableListOf("${WCProductModelTable.LOCAL_SITE_ID} = ?")
+        val args = mutableListOf(site.id.toString())
 
         if (filterOptions.containsKey(ProductFilterOption.STATUS)) {
-            queryBuilder.equals(WCProductModelTable.STATUS, filterOptions[ProductFilterOption.STATUS])
+            conditions.add("${WCProductModelTable.STATUS} = ?")
+            args.add(filterOptions.getValue(ProductFilterOption.STATUS))
         }
         if (filterOptions.containsKey(ProductFilterOption.STOCK_STATUS)) {
-            queryBuilder.equals(WCProductModelTable.STOCK_STATUS, filterOptions[ProductFilterOption.STOCK_STATUS])
+            conditions.add("${WCProductModelTable.STOCK_STATUS} = ?")
+            args.add(filterOptions.getValue(ProductFilterOption.STOCK_STATUS))
         }
         if (filterOptions.containsKey(ProductFilterOption.TYPE)) {
-            queryBuilder.equals(WCProductModelTable.TYPE, filterOptions[ProductFilterOption.TYPE])
+            conditions.add("${WCProductModelTable.TYPE} = ?")
+            args.add(filterOptions.getValue(ProductFilterOption.TYPE))
         }
         if (filterOptions.containsKey(ProductFilterOption.CATEGORY)) {
-            // Building a custom filter, because in the table a product's categories are saved as JSON string, e.g:
-            // [{"id":1377,"name":"Decor","slug":"decor"},{"id":1374,"name":"Hoodies","slug":"hoodies"}]
-            val categoryFilter = "\"id\":${filterOptions[ProductFilterOption.CATEGORY]},"
-            queryBuilder.contains(WCProductModelTable.CATEGORIES, categoryFilter)
+            conditions.add(
+                    "${WCProductModelTable.REMOTE_PRODUCT_ID} IN (" +
+                            "SELECT ${WCProductCategoryLinkModelTable.REMOTE_PRODUCT_ID} " +
+                            "FROM $PRODUCT_CATEGORY_LINK_TABLE " +
+                            "WHERE ${WCProductCategoryLinkModelTable.LOCAL_SITE_ID} = ? " +
+                            "AND ${WCProductCategoryLinkModelTable.REMOTE_CATEGORY_ID} = ?)"
+            )
+            args.add(site.id.toString())
+            args.add(filterOptions.getValue(ProductFilterOption.CATEGORY))
         }
 
         excludedProductIds?.let {
             if (it.isNotEmpty()) {
-                queryBuilder.isNotIn(WCProductModelTable.REMOTE_PRODUCT_ID, it)
+                conditions.add("${WCProductModelTable.REMOTE_PRODUCT_ID} NOT IN (${it.joinToString(",")})")
             }
         }
 
         val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
+            TITLE_ASC, DATE_ASC -> "ASC"
+            TITLE_DESC, DATE_DESC -> "DESC"
         }
         val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
+            TITLE_ASC, TITLE_DESC -> "${WCProductModelTable.NAME} COLLATE NOCASE"
             DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
         }
 
-        val products = queryBuilder
-                .endGroup().endWhere()
-                .orderBy(sortField, sortOrder)
-                .asModel
+        val sql = "SELECT ${WCProductModelTable.ID} FROM $PRODUCT_TABLE " +
+                "WHERE ${conditions.joinToString(" AND ")} " +
+                "ORDER BY $sortField $sortOrder, ${WCProductModelTable.ID} ASC" +
+                (limit?.let { " LIMIT $it OFFSET $offset" } ?: "")
 
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
+        val productIds = WellSql.giveMeWritableDb().rawQuery(sql, args.toTypedArray()).use { cursor ->
+            val ids = ArrayList<Int>(cursor.count)
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0))
+            }
+            ids
         }
+        return getProductsByLocalIds(productIds)
     }
 
     /**
-     * WellSQL doesn't support "COLLATE NOCASE" so we have to manually provide case-insensitive sorting
+     * Loads the products with the given local ids, keeping the order of [productIds]
      */
-    private fun sortProductsByName(products: List<WCProductModel>, descending: Boolean): List<WCProductModel> {
-        return if (descending) {
-            products.sortedByDescending { it.name.toLowerCase(Locale.getDefault()) }
-        } else {
-            products.sortedBy { it.name.toLowerCase(Locale.getDefault()) }
-        }
+    private fun getProductsByLocalIds(productIds: List<Int>): List<WCProductModel> {
+        val productsById = productIds.chunked(MAX_IN_CLAUSE_SIZE).flatMap { ids ->
+            WellSql.select(WCProductModel::class.java)
+                    .where()
+                    .isIn(WCProductModelTable.ID, ids)
+                    .endWhere()
+                    .asModel
+        }.associateBy { it.id }
+        return productIds.mapNotNull { productsById[it] }
     }
 
     fun geProductExistsByRemoteId(site: SiteModel, remoteProductId: Long): Boolean {
@@ -204,29 +333,11 @@ object ProductSqlUtils {
         site: SiteModel,
         sortType: ProductSorting = DEFAULT_PRODUCT_SORTING
     ): List<WCProductModel> {
-        val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
-        }
-        val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
-            DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
-        }
-        val products = WellSql.select(WCProductModel::class.java)
-                .where()
-                .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
-                .endWhere()
-                .orderBy(sortField, sortOrder)
-                .asModel
-
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
-        }
+        return getProductsByFilterOptions(site, emptyMap(), sortType)
     }
 
     fun deleteProductsForSite(site: SiteModel): Int {
+        deleteProductCategoryLinks(site.id)
         return WellSql.delete(WCProductModel::class.java)
                 .where().beginGroup()
                 .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
@@ -260,14 +371,70 @@ object ProductSqlUtils {
         }
     }
 
+    /**
+     * Bulk version of [insertOrUpdateProductVariation]: the existing rows for the whole list are resolved with a
+     * single query and all the writes happen in a single transaction.
+     */
     fun insertOrUpdateProductVariations(variations: List<WCProductVariationModel>): Int {
-        var rowsAffected = 0
-        variations.forEach {
-            rowsAffected += insertOrUpdateProductVariation(it)
+        if (variations.isEmpty()) return 0
+
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val existingVariations = getExistingVariationRows(variations)
+            val existingById = existingVariations.associateByTo(HashMap()) { it.id }
+            val existingByRemoteId = existingVariations.associateByTo(HashMap()) { it.remoteKey() }
+
+            var rowsAffected = 0
+            variations.forEach { variation ->
+                // Same as the `firstOrNull` of the single variation query: the oldest row matching either key wins
+                val existing = listOfNotNull(existingById[variation.id], existingByRemoteId[variation.remoteKey()])
+                        .minByOrNull { it.id }
+
+                val row = if (existing == null) {
+                    WellSql.insert(variation).asSingleTransaction(false).execute()
+                    rowsAffected += 1
+                    WCProductVariationModel(variation.id)
+                } else {
+                    rowsAffected += WellSql.update(WCProductVariationModel::class.java).whereId(existing.id)
+                            .put(variation, UpdateAllExceptId(WCProductVariationModel::class.java)).execute()
+                    existingByRemoteId.remove(existing.remoteKey())
+                    WCProductVariationModel(existing.id)
+                }
+                // Keep track of the written row, so later variations in the list are matched against it
+                row.localSiteId = variation.localSiteId
+                row.remoteProductId = variation.remoteProductId
+                row.remoteVariationId = variation.remoteVariationId
+                if (row.id != 0) existingById[row.id] = row
+                existingByRemoteId[row.remoteKey()] = row
+            }
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
         }
-        return rowsAffected
     }
 
+    private fun getExistingVariationRows(variations: List<WCProductVariationModel>): List<WCProductVariationModel> {
+        return variations.chunked(MAX_IN_CLAUSE_SIZE / 2).flatMap { chunk ->
+            WellSql.select(WCProductVariationModel::class.java)
+                    .columns(
+                            WCProductVariationModelTable.ID,
+                            WCProductVariationModelTable.LOCAL_SITE_ID,
+                            WCProductVariationModelTable.REMOTE_PRODUCT_ID,
+                            WCProductVariationModelTable.REMOTE_VARIATION_ID
+                    )
+                    .where().beginGroup()
+                    .isIn(WCProductVariationModelTable.ID, chunk.map { it.id })
+                    .or()
+                    .isIn(WCProductVariationModelTable.REMOTE_VARIATION_ID, chunk.map { it.remoteVariationId })
+                    .endGroup().endWhere()
+                    .asModel
+        }.distinctBy { it.id }
+    }
+
+    private fun WCProductVariationModel.remoteKey() = Triple(localSiteId, remoteProductId, remoteVariationId)
+
     fun getVariationsForProduct(site: SiteModel, remoteProductId: Long): List<WCProductVariationModel> {
         return WellSql.select(WCProductVariationModel::class.java)
                 .where()
@@ -416,6 +583,7 @@ object ProductSqlUtils {
     }
 
     fun deleteProduct(site: SiteModel, remoteProductId: Long): Int {
+        deleteProductCategoryLinks(site.id, remoteProductId)
         return WellSql.delete(WCProductModel::class.java)
                 .where()
                 .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
@@ -28,11 +28,14 @@ import org.wordpress.android.fluxc.persistence.entity.CouponEntity
 import org.wordpress.android.fluxc.persistence.entity.GlobalAddonGroupEntity
 import org.wordpress.android.fluxc.persistence.entity.InboxNoteActionEntity
 import org.wordpress.android.fluxc.persistence.entity.InboxNoteEntity
+import org.wordpress.android.fluxc.persistence.entity.OrderLineItemEntity
 import org.wordpress.android.fluxc.persistence.entity.ProductCategoryEntity
 import org.wordpress.android.fluxc.persistence.entity.ProductEntity
 import org.wordpress.android.fluxc.persistence.entity.OrderNoteEntity
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_10_11
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_11_12
+import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_13_14
+import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_14_15
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_3_4
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_4_5
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_5_6
@@ -42,7 +45,7 @@ import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_8_9
 import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_9_10
 
 @Database(
-        version = 13,
+        version = 15,
         entities = [
             AddonEntity::class,
             AddonOptionEntity::class,
@@ -55,6 +58,7 @@ import org.wordpress.android.fluxc.persistence.migrations.MIGRATION_9_10
             ProductEntity::class,
             ProductCategoryEntity::class,
             OrderEntity::class,
+            OrderLineItemEntity::class,
             InboxNoteEntity::class,
             InboxNoteActionEntity::class
         ],
@@ -96,6 +100,8 @@ abstract class WCAndroidDatabase : RoomDatabase(), TransactionExecutor {
                 .addMigrations(MIGRATION_9_10)
                 .addMigrations(MIGRATION_10_11)
                 .addMigrations(MIGRATION_11_12)
+                .addMigrations(MIGRATION_13_14)
+                .addMigrations(MIGRATION_14_15)
                 .build()
     }
 
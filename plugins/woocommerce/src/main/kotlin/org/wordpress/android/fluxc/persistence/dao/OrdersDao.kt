@@ -4,18 +4,54 @@ import androidx.room.Dao
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy.REPLACE
 import androidx.room.Query
+import androidx.room.RawQuery
 import androidx.room.Transaction
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.sqlite.db.SupportSQLiteQuery
 import kotlinx.coroutines.flow.Flow
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
 import org.wordpress.android.fluxc.model.OrderEntity
+import org.wordpress.android.fluxc.model.OrderListItem
+import org.wordpress.android.fluxc.persistence.entity.OrderLineItemEntity
 
 @Dao
 abstract class OrdersDao {
     @Query("SELECT * FROM OrderEntity")
     abstract suspend fun getAllOrders(): List<OrderEntity>
 
+    @Transaction
+    open fun insertOrUpdateOrder(order: OrderEntity) {
+        insertOrUpdateOrderRow(order)
+        // Replacing the order row already cascades to the old line items, but be explicit about it
+        deleteLineItemsForOrder(order.localSiteId, order.orderId)
+        insertLineItems(OrderLineItemEntity.fromOrder(order))
+    }
+
+    @Transaction
+    open fun insertOrUpdateOrders(orders: List<OrderEntity>) {
+        orders.forEach { insertOrUpdateOrder(it) }
+    }
+
+    @Insert(onConflict = REPLACE)
+    abstract fun insertOrUpdateOrderRow(order: OrderEntity)
+
     @Insert(onConflict = REPLACE)
-    abstract fun insertOrUpdateOrder(order: OrderEntity)
+    abstract fun insertLineItems(lineItems: List<OrderLineItemEntity>)
+
+    @Query("DELETE FROM OrderLineItems WHERE localSiteId = :localSiteId AND orderId = :orderId")
+    abstract fun deleteLineItemsForOrder(localSiteId: LocalId, orderId: Long)
+
+    @Query("SELECT * FROM OrderLineItems WHERE localSiteId = :localSiteId AND orderId = :orderId ORDER BY position")
+    abstract suspend fun getLineItemsForOrder(localSiteId: LocalId, orderId: Long): List<OrderLineItemEntity>
+
+    @Query(
+        """
+        SELECT * FROM OrderEntity WHERE localSiteId = :localSiteId AND orderId IN (
+            SELECT orderId FROM OrderLineItems WHERE localSiteId = :localSiteId AND productId = :productId
+        ) ORDER BY dateCreated DESC
+        """
+    )
+    abstract suspend fun getOrdersForSiteContainingProduct(localSiteId: LocalId, productId: Long): List<OrderEntity>
 
     @Query("SELECT * FROM OrderEntity WHERE orderId = :orderId AND localSiteId = :localSiteId")
     abstract suspend fun getOrder(orderId: Long, localSiteId: LocalId): OrderEntity?
@@ -46,6 +82,38 @@ abstract class OrdersDao {
     @Query("SELECT * FROM OrderEntity WHERE localSiteId = :localSiteId AND status IN (:status)")
     abstract fun observeOrdersForSite(localSiteId: LocalId, status: List<String>): Flow<List<OrderEntity>>
 
+    /**
+     * Returns a page of the orders of a site, newest first, as lightweight [OrderListItem]s.
+     *
+     * Pages are keyed on the last item of the previous page rather than on an offset, so that fetching a page only
+     * reads the rows of that page from the (localSiteId, dateCreated, orderId) indices.
+     *
+     * @param statuses the statuses to include, or an empty list to include all the orders
+     * @param after the last item of the previous page, or null to get the first page
+     */
+    open suspend fun getOrderListPage(
+        localSiteId: LocalId,
+        statuses: List<String> = emptyList(),
+        after: OrderListItem? = null,
+        limit: Int
+    ): List<OrderListItem> = getOrderListItems(buildOrderListPageQuery(localSiteId, statuses, after, limit))
+
+    /**
+     * Same as [getOrderListPage], but emits the page again whenever the orders table changes.
+     */
+    open fun observeOrderListPage(
+        localSiteId: LocalId,
+        statuses: List<String> = emptyList(),
+        after: OrderListItem? = null,
+        limit: Int
+    ): Flow<List<OrderListItem>> = observeOrderListItems(buildOrderListPageQuery(localSiteId, statuses, after, limit))
+
+    @RawQuery
+    protected abstract suspend fun getOrderListItems(query: SupportSQLiteQuery): List<OrderListItem>
+
+    @RawQuery(observedEntities = [OrderEntity::class])
+    protected abstract fun observeOrderListItems(query: SupportSQLiteQuery): Flow<List<OrderListItem>>
+
     @Query("SELECT * FROM OrderEntity WHERE localSiteId = :localSiteId AND orderId IN (:orderIds)")
     abstract fun getOrdersForSiteByRemoteIds(
         localSiteId: LocalId,
@@ -60,4 +128,28 @@ abstract class OrdersDao {
 
     @Query("DELETE FROM OrderEntity WHERE localSiteId = :localSiteId AND orderId = :orderId")
     abstract suspend fun deleteOrder(localSiteId: LocalId, orderId: Long)
+
+    private fun buildOrderListPageQuery(
+        localSiteId: LocalId,
+        statuses: List<String>,
+        after: OrderListItem?,
+        limit: Int
+    ): SupportSQLiteQuery {
+        val args = mutableListOf<Any>(localSiteId.value)
+        val sql = StringBuilder("SELECT ${OrderListItem.COLUMNS.joinToString(", ")} FROM OrderEntity")
+        sql.append(" WHERE localSiteId = ?")
+        if (statuses.isNotEmpty()) {
+            sql.append(" AND status IN (${statuses.joinToString(", ") { "?" }})")
+            args.addAll(statuses)
+        }
+        if (after != null) {
+            sql.append(" AND (dateCreated < ? OR (dateCreated = ? AND orderId < ?))")
+            args.add(after.dateCreated)
+            args.add(after.dateCreated)
+            args.add(after.orderId)
+        }
+        sql.append(" ORDER BY dateCreated DESC, orderId DESC LIMIT ?")
+        args.add(limit)
+        return SimpleSQLiteQuery(sql.toString(), args.toTypedArray())
+    }
 }
@@ -0,0 +1,62 @@
+package org.wordpress.android.fluxc.persistence.entity
+
+import androidx.room.Entity
+import androidx.room.ForeignKey
+import androidx.room.Index
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import org.wordpress.android.fluxc.model.OrderEntity
+import org.wordpress.android.fluxc.model.order.LineItem
+
+/**
+ * Queryable copy of the line items stored as JSON in [OrderEntity.lineItems], kept in sync by
+ * [org.wordpress.android.fluxc.persistence.dao.OrdersDao] whenever an order is stored.
+ */
+@Entity(
+    tableName = "OrderLineItems",
+    foreignKeys = [
+        ForeignKey(
+                entity = OrderEntity::class,
+                parentColumns = ["localSiteId", "orderId"],
+                childColumns = ["localSiteId", "orderId"],
+                onDelete = ForeignKey.CASCADE
+        )
+    ],
+    primaryKeys = ["localSiteId", "orderId", "position"],
+    indices = [Index("localSiteId", "productId")]
+)
+data class OrderLineItemEntity(
+    val localSiteId: LocalId,
+    val orderId: Long,
+    val position: Int, // Index of the item in the order, line item ids aren't always present in the payload
+    val lineItemId: Long? = null,
+    val productId: Long? = null,
+    val variationId: Long? = null,
+    val name: String? = null,
+    val quantity: Float? = null,
+    val subtotal: String? = null,
+    val total: String? = null,
+    val sku: String? = null
+) {
+    companion object {
+        fun fromOrder(order: OrderEntity): List<OrderLineItemEntity> {
+            return order.getLineItemList().mapIndexed { position, lineItem ->
+                fromLineItem(order.localSiteId, order.orderId, position, lineItem)
+            }
+        }
+
+        private fun fromLineItem(localSiteId: LocalId, orderId: Long, position: Int, lineItem: LineItem) =
+                OrderLineItemEntity(
+                        localSiteId = localSiteId,
+                        orderId = orderId,
+                        position = position,
+                        lineItemId = lineItem.id,
+                        productId = lineItem.productId,
+                        variationId = lineItem.variationId,
+                        name = lineItem.name,
+                        quantity = lineItem.quantity,
+                        subtotal = lineItem.subtotal,
+                        total = lineItem.total,
+                        sku = lineItem.sku
+                )
+    }
+}
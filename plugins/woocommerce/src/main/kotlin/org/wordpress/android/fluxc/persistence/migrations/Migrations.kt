@@ -2,6 +2,9 @@ package org.wordpress.android.fluxc.persistence.migrations
 
 import androidx.room.migration.Migration
 import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.SupportSQLiteStatement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
 
 internal val MIGRATION_3_4 = object : Migration(3, 4) {
     override fun migrate(database: SupportSQLiteDatabase) {
@@ -502,3 +505,107 @@ internal val MIGRATION_11_12 = object : Migration(11, 12) {
         }
     }
 }
+
+internal val MIGRATION_13_14 = object : Migration(13, 14) {
+    override fun migrate(database: SupportSQLiteDatabase) {
+        database.apply {
+            execSQL(
+                // language=RoomSql
+                """CREATE TABLE IF NOT EXISTS `OrderLineItems` (
+                    `localSiteId` INTEGER NOT NULL,
+                    `orderId` INTEGER NOT NULL,
+                    `position` INTEGER NOT NULL,
+                    `lineItemId` INTEGER,
+                    `productId` INTEGER,
+                    `variationId` INTEGER,
+                    `name` TEXT,
+                    `quantity` REAL,
+                    `subtotal` TEXT,
+                    `total` TEXT,
+                    `sku` TEXT,
+                    PRIMARY KEY(`localSiteId`, `orderId`, `position`),
+                    FOREIGN KEY(`localSiteId`, `orderId`)
+                    REFERENCES `OrderEntity`(`localSiteId`, `orderId`) ON UPDATE NO ACTION ON DELETE CASCADE )
+                    """.trimIndent()
+            )
+
+            execSQL(
+                // language=RoomSql
+                """CREATE INDEX IF NOT EXISTS `index_OrderLineItems_localSiteId_productId`
+                    ON `OrderLineItems` (`localSiteId`, `productId`)
+                """.trimIndent()
+            )
+
+            populateOrderLineItems()
+        }
+    }
+
+    /**
+     * Copies the line items of the orders already stored, so they can be queried without waiting for a new fetch.
+     */
+    private fun SupportSQLiteDatabase.populateOrderLineItems() {
+        val statement = compileStatement(
+            "INSERT OR REPLACE INTO OrderLineItems (localSiteId, orderId, position, lineItemId, productId, " +
+                    "variationId, name, quantity, subtotal, total, sku) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+        )
+        query("SELECT localSiteId, orderId, lineItems FROM OrderEntity").use { cursor ->
+            while (cursor.moveToNext()) {
+                val localSiteId = cursor.getLong(0)
+                val orderId = cursor.getLong(1)
+                val lineItems = runCatching { JsonParser().parse(cursor.getString(2)) }.getOrNull()
+                if (lineItems == null || !lineItems.isJsonArray) continue
+
+                lineItems.asJsonArray.forEachIndexed { position, element ->
+                    val lineItem = element.takeIf { it.isJsonObject }?.asJsonObject ?: return@forEachIndexed
+                    statement.clearBindings()
+                    statement.bindLong(1, localSiteId)
+                    statement.bindLong(2, orderId)
+                    statement.bindLong(3, position.toLong())
+                    statement.bindNullableLong(4, lineItem.getNumber("id")?.toLong())
+                    statement.bindNullableLong(5, lineItem.getNumber("product_id")?.toLong())
+                    statement.bindNullableLong(6, lineItem.getNumber("variation_id")?.toLong())
+                    statement.bindNullableString(7, lineItem.getString("name"))
+                    lineItem.getNumber("quantity")?.let { statement.bindDouble(8, it.toDouble()) }
+                    statement.bindNullableString(9, lineItem.getString("subtotal"))
+                    statement.bindNullableString(10, lineItem.getString("total"))
+                    statement.bindNullableString(11, lineItem.getString("sku"))
+                    statement.executeInsert()
+                }
+            }
+        }
+    }
+
+    private fun JsonObject.getNumber(name: String): Number? =
+        get(name)?.takeIf { it.isJsonPrimitive && it.asJsonPrimitive.isNumber }?.asNumber
+
+    private fun JsonObject.getString(name: String): String? =
+        get(name)?.takeIf { it.isJsonPrimitive }?.asString
+
+    private fun SupportSQLiteStatement.bindNullableLong(index: Int, value: Long?) {
+        if (value == null) bindNull(index) else bindLong(index, value)
+    }
+
+    private fun SupportSQLiteStatement.bindNullableString(index: Int, value: String?) {
+        if (value == null) bindNull(index) else bindString(index, value)
+    }
+}
+
+internal val MIGRATION_14_15 = object : Migration(14, 15) {
+    override fun migrate(database: SupportSQLiteDatabase) {
+        database.apply {
+            execSQL(
+                // language=RoomSql
+                """CREATE INDEX IF NOT EXISTS `index_OrderEntity_localSiteId_dateCreated_orderId`
+                    ON `OrderEntity` (`localSiteId`, `dateCreated`, `orderId`)
+                """.trimIndent()
+            )
+
+            execSQL(
+                // language=RoomSql
+                """CREATE INDEX IF NOT EXISTS `index_OrderEntity_localSiteId_status_dateCreated_orderId`
+                    ON `OrderEntity` (`localSiteId`, `status`, `dateCreated`, `orderId`)
+                """.trimIndent()
+            )
+        }
+    }
+}
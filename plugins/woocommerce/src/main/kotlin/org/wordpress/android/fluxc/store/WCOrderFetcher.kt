@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.store
 
+import androidx.annotation.VisibleForTesting
 import org.greenrobot.eventbus.Subscribe
 import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
@@ -11,7 +12,9 @@ import org.wordpress.android.fluxc.store.WCOrderStore.FetchOrdersByIdsPayload
 import org.wordpress.android.fluxc.store.WCOrderStore.OnOrdersFetchedByIds
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T
-import java.util.Collections
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit.MILLISECONDS
 import javax.inject.Inject
 import javax.inject.Singleton
 
@@ -21,18 +24,79 @@ import javax.inject.Singleton
  * the DB, FluxC will pull down fresh versions from the API and save them to the DB. Once all orders have been
  * successfully fetched, any [androidx.paging.PagedList] views observing this specific type of data will update
  * automatically.
+ *
+ * Ids requested within [COALESCE_WINDOW_MS] of each other are fetched together, in batches of at most
+ * [MAX_BATCH_SIZE] orders, with at most [MAX_CONCURRENT_BATCHES] batches in flight. The ids of the most recent
+ * request are fetched first, since they are the closest to what the user is currently looking at.
  */
 @Singleton
-class WCOrderFetcher @Inject constructor(private val dispatcher: Dispatcher) {
+class WCOrderFetcher @VisibleForTesting internal constructor(
+    private val dispatcher: Dispatcher,
+    private val scheduler: ScheduledExecutorService,
+    private val currentTimeMillis: () -> Long
+) {
     companion object {
         private const val TAG = "OrderFetcher"
+
+        @VisibleForTesting internal const val COALESCE_WINDOW_MS = 100L
+
+        // A batch is fetched by a single request
+        @VisibleForTesting internal const val MAX_BATCH_SIZE = WCOrderStore.MAX_ORDERS_PER_FETCH_BY_IDS
+
+        @VisibleForTesting internal const val MAX_CONCURRENT_BATCHES = 2
+    }
+
+    @Inject constructor(dispatcher: Dispatcher) : this(
+            dispatcher,
+            Executors.newSingleThreadScheduledExecutor(),
+            System::currentTimeMillis
+    )
+
+    /**
+     * Counters describing how the requested ids were batched since the app started.
+     */
+    data class Metrics(
+        val batchCount: Long,
+        val fetchedIdCount: Long,
+        val totalWaitTimeMs: Long,
+        val maxWaitTimeMs: Long
+    ) {
+        val averageIdsPerBatch: Double
+            get() = if (batchCount == 0L) 0.0 else fetchedIdCount.toDouble() / batchCount
+
+        val averageWaitTimeMs: Double
+            get() = if (fetchedIdCount == 0L) 0.0 else totalWaitTimeMs.toDouble() / fetchedIdCount
     }
 
     /**
-     * The [RemoteId] of the [OrderEntity] in the process of being fetched from
-     * the remote API.
+     * Identifies an order across sites, since the same [RemoteId] can exist in several of them.
+     */
+    private data class OrderKey(val localSiteId: Int, val orderId: Long)
+
+    private class PendingOrder(
+        val site: SiteModel,
+        val orderId: Long,
+        var priority: Long,
+        var position: Int,
+        val requestedAt: Long
+    )
+
+    private val lock = Any()
+
+    /**
+     * The orders waiting to be part of a batch.
+     */
+    private val pendingOrders = mutableMapOf<OrderKey, PendingOrder>()
+
+    /**
+     * The [OrderEntity]s in the process of being fetched from the remote API.
      */
-    private val ongoingRequests = Collections.synchronizedSet(mutableSetOf<Long>())
+    private val ongoingRequests = mutableSetOf<OrderKey>()
+
+    private var ongoingBatchCount = 0
+    private var requestCount = 0L
+    private var isFlushScheduled = false
+    private var metrics = Metrics(0, 0, 0, 0)
 
     init {
         dispatcher.register(this)
@@ -47,17 +111,38 @@ class WCOrderFetcher @Inject constructor(private val dispatcher: Dispatcher) {
      * @param [orderIds] A list containing the ids of the orders to fetch
      */
     fun fetchOrders(site: SiteModel, orderIds: List<Long>) {
-        val idsToFetch = orderIds.filter {
-            // ignore duplicate requests
-            !ongoingRequests.contains(it)
-        }
-        if (idsToFetch.isNotEmpty()) {
-            ongoingRequests.addAll(idsToFetch)
-            val payload = FetchOrdersByIdsPayload(site = site, orderIds = idsToFetch)
-            dispatcher.dispatch(WCOrderActionBuilder.newFetchOrdersByIdsAction(payload))
+        val flushNow = synchronized(lock) {
+            val priority = ++requestCount
+            val now = currentTimeMillis()
+            orderIds.forEachIndexed { position, orderId ->
+                val orderKey = OrderKey(site.id, orderId)
+                val pendingOrder = pendingOrders[orderKey]
+                when {
+                    // ignore duplicate requests
+                    ongoingRequests.contains(orderKey) -> Unit
+                    // the order was requested again, so it's closer to the viewport than the other pending ones
+                    pendingOrder != null -> {
+                        pendingOrder.priority = priority
+                        pendingOrder.position = position
+                    }
+                    else -> pendingOrders[orderKey] = PendingOrder(site, orderId, priority, position, now)
+                }
+            }
+            when {
+                pendingOrders.size >= MAX_BATCH_SIZE -> true
+                pendingOrders.isEmpty() || isFlushScheduled -> false
+                else -> {
+                    isFlushScheduled = true
+                    scheduler.schedule(Runnable { flush(fromScheduler = true) }, COALESCE_WINDOW_MS, MILLISECONDS)
+                    false
+                }
+            }
         }
+        if (flushNow) flush(fromScheduler = false)
     }
 
+    fun getMetrics(): Metrics = synchronized(lock) { metrics }
+
     @Suppress("unused")
     @Subscribe(threadMode = ThreadMode.BACKGROUND)
     fun onOrdersFetchedById(event: OnOrdersFetchedByIds) {
@@ -66,6 +151,55 @@ class WCOrderFetcher @Inject constructor(private val dispatcher: Dispatcher) {
             // FIXME: Add error handling
             // FIXME: Possible add new tracks event to track error fetching order list data "order_list_load_failed"
         }
-        ongoingRequests.removeAll(event.orderIds)
+        synchronized(lock) {
+            // Each batch is fetched by a single request, which reports all of its ids, even the ones not returned
+            val orderKeys = event.requestedOrderIds.map { OrderKey(event.site.id, it) }
+            if (ongoingRequests.removeAll(orderKeys)) {
+                ongoingBatchCount = (ongoingBatchCount - 1).coerceAtLeast(0)
+            }
+        }
+        flush(fromScheduler = false)
+    }
+
+    private fun flush(fromScheduler: Boolean) {
+        val batches = synchronized(lock) {
+            if (fromScheduler) isFlushScheduled = false
+            val batches = mutableListOf<Pair<SiteModel, List<Long>>>()
+            while (ongoingBatchCount < MAX_CONCURRENT_BATCHES && pendingOrders.isNotEmpty()) {
+                batches.add(takeNextBatch())
+                ongoingBatchCount++
+            }
+            batches
+        }
+        batches.forEach { (site, orderIds) ->
+            AppLog.d(T.API, "$TAG: Fetching a batch of ${orderIds.size} orders")
+            val payload = FetchOrdersByIdsPayload(site = site, orderIds = orderIds)
+            dispatcher.dispatch(WCOrderActionBuilder.newFetchOrdersByIdsAction(payload))
+        }
+    }
+
+    /**
+     * Removes the highest priority pending orders of a single site from the queue, and marks them as being fetched.
+     */
+    private fun takeNextBatch(): Pair<SiteModel, List<Long>> {
+        val site = pendingOrders.values.maxByOrNull { it.priority }!!.site
+        val batch = pendingOrders.values
+                .filter { it.site.id == site.id }
+                .sortedWith(compareByDescending<PendingOrder> { it.priority }.thenBy { it.position })
+                .take(MAX_BATCH_SIZE)
+
+        val now = currentTimeMillis()
+        val waitTimes = batch.map { now - it.requestedAt }
+        metrics = metrics.copy(
+                batchCount = metrics.batchCount + 1,
+                fetchedIdCount = metrics.fetchedIdCount + batch.size,
+                totalWaitTimeMs = metrics.totalWaitTimeMs + waitTimes.sum(),
+                maxWaitTimeMs = maxOf(metrics.maxWaitTimeMs, waitTimes.maxOrNull() ?: 0L)
+        )
+
+        val orderKeys = batch.map { OrderKey(site.id, it.orderId) }
+        orderKeys.forEach { pendingOrders.remove(it) }
+        ongoingRequests.addAll(orderKeys)
+        return site to batch.map { it.orderId }
     }
 }
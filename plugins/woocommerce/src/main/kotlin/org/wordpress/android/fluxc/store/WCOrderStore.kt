@@ -1,16 +1,16 @@
 package org.wordpress.android.fluxc.store
 
 import kotlinx.coroutines.flow.Flow
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCOrderAction
 import org.wordpress.android.fluxc.action.WCOrderAction.FETCH_ORDERS
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.generated.ListActionBuilder
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.model.OrderListItem
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCOrderListDescriptor
 import org.wordpress.android.fluxc.persistence.entity.OrderNoteEntity
@@ -51,6 +51,10 @@ class WCOrderStore @Inject constructor(
     companion object {
         const val NUM_ORDERS_PER_FETCH = 15
         const val DEFAULT_ORDER_STATUS = "any"
+        const val ORDER_LIST_PAGE_SIZE = 25
+
+        // The maximum page size, and thus number of ids in `include`, supported by the orders endpoint
+        const val MAX_ORDERS_PER_FETCH_BY_IDS = 100
     }
 
     class FetchOrdersPayload(
@@ -304,9 +308,14 @@ class WCOrderStore @Inject constructor(
         val duration: Long
     ) : OnChanged<OrderError>()
 
+    /**
+     * @param orderIds The ids of the orders fetched, or the [requestedOrderIds] when the request failed
+     * @param requestedOrderIds The ids sent in the request, including the ones of orders that weren't returned
+     */
     class OnOrdersFetchedByIds(
         val site: SiteModel,
-        val orderIds: List<Long>
+        val orderIds: List<Long>,
+        val requestedOrderIds: List<Long> = orderIds
     ) : OnChanged<OrderError>()
 
     class OnOrdersSearched(
@@ -350,6 +359,36 @@ class WCOrderStore @Inject constructor(
         }
     }
 
+    /**
+     * Observe a page of the orders of a given [SiteModel], newest first, without loading the details of each order.
+     *
+     * @param site the current site
+     * @param statuses an optional list of statuses to filter the list of orders, pass an empty list to include all
+     *                 orders
+     * @param after the last item of the previous page, or null to observe the first page
+     * @param limit the maximum number of orders in the page
+     */
+    fun observeOrderListPage(
+        site: SiteModel,
+        statuses: List<String> = emptyList(),
+        after: OrderListItem? = null,
+        limit: Int = ORDER_LIST_PAGE_SIZE
+    ): Flow<List<OrderListItem>> {
+        return ordersDao.observeOrderListPage(site.localId(), statuses, after, limit)
+    }
+
+    /**
+     * Returns a page of the orders of a given [SiteModel], see [observeOrderListPage].
+     */
+    suspend fun getOrderListPage(
+        site: SiteModel,
+        statuses: List<String> = emptyList(),
+        after: OrderListItem? = null,
+        limit: Int = ORDER_LIST_PAGE_SIZE
+    ): List<OrderListItem> {
+        return ordersDao.getOrderListPage(site.localId(), statuses, after, limit)
+    }
+
     fun getOrdersForDescriptor(
         orderListDescriptor: WCOrderListDescriptor,
         orderIds: List<Long>
@@ -407,7 +446,7 @@ class WCOrderStore @Inject constructor(
     fun getShipmentProvidersForSite(site: SiteModel): List<WCOrderShipmentProviderModel> =
         OrderSqlUtils.getOrderShipmentProvidersForSite(site)
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(WCOrderAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? WCOrderAction ?: return
         when (actionType) {
@@ -454,7 +493,8 @@ class WCOrderStore @Inject constructor(
     }
 
     private fun fetchOrdersByIds(payload: FetchOrdersByIdsPayload) {
-        payload.orderIds.chunked(NUM_ORDERS_PER_FETCH).forEach { idsToFetch ->
+        // The batches of WCOrderFetcher are sent as a single request
+        payload.orderIds.chunked(MAX_ORDERS_PER_FETCH_BY_IDS).forEach { idsToFetch ->
             wcOrderRestClient.fetchOrdersByIds(payload.site, idsToFetch)
         }
     }
@@ -676,7 +716,7 @@ class WCOrderStore @Inject constructor(
                 OrderSqlUtils.deleteOrderShipmentTrackingsForSite(payload.site)
             }
 
-            payload.orders.forEach { ordersDao.insertOrUpdateOrder(it) }
+            ordersDao.insertOrUpdateOrders(payload.orders)
 
             OnOrderChanged(payload.statusFilter, canLoadMore = payload.canLoadMore)
         }.copy(causeOfChange = FETCH_ORDERS)
@@ -747,12 +787,12 @@ class WCOrderStore @Inject constructor(
         val onOrdersFetchedByIds = if (payload.isError) {
             OnOrdersFetchedByIds(payload.site, payload.orderIds).apply { error = payload.error }
         } else {
-            OnOrdersFetchedByIds(payload.site, payload.fetchedOrders.map { it.orderId })
+            OnOrdersFetchedByIds(payload.site, payload.fetchedOrders.map { it.orderId }, payload.orderIds)
         }
 
         if (!payload.isError) {
             // Save the list of orders to the database
-            payload.fetchedOrders.forEach { ordersDao.insertOrUpdateOrder(it) }
+            ordersDao.insertOrUpdateOrders(payload.fetchedOrders)
 
             // Notify listeners that the list of orders has changed (only call this if there is no error)
             val listTypeIdentifier = WCOrderListDescriptor.calculateTypeIdentifier(localSiteId = payload.site.id)
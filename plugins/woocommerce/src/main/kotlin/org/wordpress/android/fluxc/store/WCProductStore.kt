@@ -1,12 +1,11 @@
 package org.wordpress.android.fluxc.store
 
 import com.google.gson.Gson
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCProductAction
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.domain.Addon
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCProductCategoryModel
@@ -680,15 +679,17 @@ class WCProductStore @Inject constructor(
     /**
      * returns a list of [WCProductModel] for the given [SiteModel] and [filterOptions]
      * if it exists in the database. To filter by category, make sure the [filterOptions] value
-     * is the category ID in String.
+     * is the category ID in String. Pass a [limit] and [offset] to load a single page of products.
      */
     fun getProductsByFilterOptions(
         site: SiteModel,
         filterOptions: Map<ProductFilterOption, String>,
         sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
-        excludedProductIds: List<Long>? = null
+        excludedProductIds: List<Long>? = null,
+        offset: Int = 0,
+        limit: Int? = null
     ): List<WCProductModel> =
-            ProductSqlUtils.getProductsByFilterOptions(site, filterOptions, sortType, excludedProductIds)
+            ProductSqlUtils.getProductsByFilterOptions(site, filterOptions, sortType, excludedProductIds, offset, limit)
 
     fun getProductsForSite(site: SiteModel, sortType: ProductSorting = DEFAULT_PRODUCT_SORTING) =
             ProductSqlUtils.getProductsForSite(site, sortType)
@@ -752,7 +753,7 @@ class WCProductStore @Inject constructor(
         parentId: Long = 0L
     ) = ProductSqlUtils.getProductCategoryByNameAndParentId(site.id, categoryName, parentId)
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions(WCProductAction::class)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? WCProductAction ?: return
         when (actionType) {
@@ -2,10 +2,9 @@ package org.wordpress.android.fluxc.store
 
 import android.content.Context
 import com.wellsql.generated.SiteModelTable
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCProductSettingsModel
 import org.wordpress.android.fluxc.model.WCSSRModel
@@ -64,7 +63,7 @@ open class WooCommerceStore @Inject constructor(
 
     override fun onRegister() = AppLog.d(T.API, "WooCommerceStore onRegister")
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
+    @HandlesActions
     override fun onAction(action: Action<*>) { }
 
     suspend fun fetchWooCommerceSites(): WooResult<List<SiteModel>> {
@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.persistence.dao
 import android.app.Application
 import androidx.room.Room
 import androidx.test.core.app.ApplicationProvider
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.runBlocking
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.After
@@ -93,6 +94,116 @@ class OrdersDaoTest {
         }
     }
 
+    @Test
+    fun testLineItemsAreStoredWithTheOrder() {
+        runBlocking {
+            val order = generateSampleOrder(1, lineItems = "[{\"id\": 10, \"product_id\": 15, \"quantity\": 2}]")
+            sut.insertOrUpdateOrder(order)
+
+            val lineItems = sut.getLineItemsForOrder(order.localSiteId, order.orderId)
+            assertThat(lineItems).hasSize(1)
+            assertThat(lineItems[0].lineItemId).isEqualTo(10)
+            assertThat(lineItems[0].productId).isEqualTo(15)
+            assertThat(lineItems[0].quantity).isEqualTo(2f)
+
+            // Updating the order replaces its line items
+            sut.insertOrUpdateOrder(order.copy(lineItems = "[{\"product_id\": 16}, {\"product_id\": 17}]"))
+            assertThat(sut.getLineItemsForOrder(order.localSiteId, order.orderId).map { it.productId })
+                    .containsExactly(16L, 17L)
+
+            // Deleting the order deletes its line items
+            sut.deleteOrder(order.localSiteId, order.orderId)
+            assertThat(sut.getLineItemsForOrder(order.localSiteId, order.orderId)).isEmpty()
+        }
+    }
+
+    @Test
+    fun testGetOrdersForSiteContainingProduct() {
+        runBlocking {
+            val site = SiteModel().apply { id = TEST_LOCAL_SITE_ID }
+            sut.insertOrUpdateOrders(
+                listOf(
+                    generateSampleOrder(1, lineItems = "[{\"product_id\": 15}, {\"product_id\": 16}]"),
+                    generateSampleOrder(2, lineItems = "[{\"product_id\": 16}]"),
+                    generateSampleOrder(3, lineItems = "[{\"product_id\": 15}]"),
+                    generateSampleOrder(4)
+                )
+            )
+
+            assertThat(sut.getOrdersForSiteContainingProduct(site.localId(), 15).map { it.orderId })
+                    .containsExactlyInAnyOrder(1L, 3L)
+            assertThat(sut.getOrdersForSiteContainingProduct(site.localId(), 16).map { it.orderId })
+                    .containsExactlyInAnyOrder(1L, 2L)
+            assertThat(sut.getOrdersForSiteContainingProduct(site.localId(), 17)).isEmpty()
+            assertThat(sut.getOrdersForSiteContainingProduct(LocalId(TEST_LOCAL_SITE_ID + 1), 15)).isEmpty()
+        }
+    }
+
+    @Test
+    fun testGetOrderListPageIsKeyedOnDateAndOrderId() {
+        runBlocking {
+            sut.insertOrUpdateOrders(
+                listOf(
+                    generateSampleOrder(1, dateCreated = "2022-01-01T10:00:00Z"),
+                    generateSampleOrder(2, dateCreated = "2022-01-03T10:00:00Z"),
+                    generateSampleOrder(3, dateCreated = "2022-01-02T10:00:00Z"),
+                    generateSampleOrder(4, dateCreated = "2022-01-02T10:00:00Z"),
+                    generateSampleOrder(5, dateCreated = "2022-01-01T10:00:00Z")
+                )
+            )
+            val localSiteId = LocalId(TEST_LOCAL_SITE_ID)
+
+            val firstPage = sut.getOrderListPage(localSiteId, limit = 2)
+            assertThat(firstPage.map { it.orderId }).containsExactly(2L, 4L)
+
+            val secondPage = sut.getOrderListPage(localSiteId, after = firstPage.last(), limit = 2)
+            assertThat(secondPage.map { it.orderId }).containsExactly(3L, 5L)
+
+            val lastPage = sut.getOrderListPage(localSiteId, after = secondPage.last(), limit = 2)
+            assertThat(lastPage.map { it.orderId }).containsExactly(1L)
+
+            assertThat(sut.getOrderListPage(localSiteId, after = lastPage.last(), limit = 2)).isEmpty()
+        }
+    }
+
+    @Test
+    fun testGetOrderListPageFiltersByStatus() {
+        runBlocking {
+            sut.insertOrUpdateOrders(
+                listOf(
+                    generateSampleOrder(1, CoreOrderStatus.PROCESSING.value, dateCreated = "2022-01-01T10:00:00Z"),
+                    generateSampleOrder(2, CoreOrderStatus.ON_HOLD.value, dateCreated = "2022-01-02T10:00:00Z"),
+                    generateSampleOrder(3, CoreOrderStatus.CANCELLED.value, dateCreated = "2022-01-03T10:00:00Z")
+                )
+            )
+
+            val page = sut.getOrderListPage(
+                LocalId(TEST_LOCAL_SITE_ID),
+                statuses = listOf(CoreOrderStatus.PROCESSING.value, CoreOrderStatus.CANCELLED.value),
+                limit = 10
+            )
+
+            assertThat(page.map { it.orderId }).containsExactly(3L, 1L)
+            assertThat(page[0].status).isEqualTo(CoreOrderStatus.CANCELLED.value)
+        }
+    }
+
+    @Test
+    fun testObserveOrderListPageEmitsUpdatedOrders() {
+        runBlocking {
+            val order = generateSampleOrder(1).also { sut.insertOrUpdateOrder(it) }
+            val localSiteId = LocalId(TEST_LOCAL_SITE_ID)
+
+            assertThat(sut.observeOrderListPage(localSiteId, limit = 10).first().single().status)
+                    .isEqualTo(CoreOrderStatus.PROCESSING.value)
+
+            sut.insertOrUpdateOrder(order.copy(status = CoreOrderStatus.COMPLETED.value))
+
+            assertThat(sut.observeOrderListPage(localSiteId, limit = 10).first().single().status)
+                    .isEqualTo(CoreOrderStatus.COMPLETED.value)
+        }
+    }
+
     @After
     fun tearDown() {
         database.close()
@@ -103,11 +214,15 @@ class OrdersDaoTest {
 
         fun generateSampleOrder(
             orderId: Long,
-            orderStatus: String = CoreOrderStatus.PROCESSING.value
+            orderStatus: String = CoreOrderStatus.PROCESSING.value,
+            lineItems: String = "",
+            dateCreated: String = ""
         ) = OrderEntity(
                 orderId = orderId,
                 localSiteId = LocalId(TEST_LOCAL_SITE_ID),
-                status = orderStatus
+                status = orderStatus,
+                lineItems = lineItems,
+                dateCreated = dateCreated
         )
     }
 }
@@ -0,0 +1,146 @@
+package org.wordpress.android.fluxc.store
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.atLeastOnce
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.store.WCOrderFetcher.Companion.COALESCE_WINDOW_MS
+import org.wordpress.android.fluxc.store.WCOrderFetcher.Companion.MAX_BATCH_SIZE
+import org.wordpress.android.fluxc.store.WCOrderStore.FetchOrdersByIdsPayload
+import org.wordpress.android.fluxc.store.WCOrderStore.OnOrdersFetchedByIds
+import org.wordpress.android.fluxc.store.WCOrderStore.OrderError
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit.MILLISECONDS
+
+class WCOrderFetcherTest {
+    private val dispatcher: Dispatcher = mock()
+    private val scheduler: ScheduledExecutorService = mock()
+    private val site = SiteModel().apply { id = 1 }
+    private var currentTime = 0L
+
+    private lateinit var sut: WCOrderFetcher
+
+    @Before
+    fun setUp() {
+        sut = WCOrderFetcher(dispatcher, scheduler) { currentTime }
+    }
+
+    @Test
+    fun `ids requested within the window are fetched in a single batch`() {
+        sut.fetchOrders(site, listOf(1L, 2L))
+        sut.fetchOrders(site, listOf(2L, 3L))
+        verify(dispatcher, never()).dispatch(any())
+
+        currentTime += COALESCE_WINDOW_MS
+        runScheduledFlush()
+
+        // The ids of the latest request come first
+        assertThat(dispatchedBatches()).containsExactly(listOf(2L, 3L, 1L))
+        with(sut.getMetrics()) {
+            assertThat(batchCount).isEqualTo(1)
+            assertThat(fetchedIdCount).isEqualTo(3)
+            assertThat(maxWaitTimeMs).isEqualTo(COALESCE_WINDOW_MS)
+        }
+    }
+
+    @Test
+    fun `ids being fetched are not requested again`() {
+        sut.fetchOrders(site, listOf(1L, 2L))
+        runScheduledFlush()
+
+        sut.fetchOrders(site, listOf(2L, 3L))
+        runScheduledFlush(times = 2)
+
+        assertThat(dispatchedBatches()).containsExactly(listOf(1L, 2L), listOf(3L))
+    }
+
+    @Test
+    fun `full batches are fetched without waiting and concurrent batches are capped`() {
+        sut.fetchOrders(site, (1L..MAX_BATCH_SIZE * 3L).toList())
+
+        // Only two batches can be in flight at the same time
+        assertThat(dispatchedBatches()).hasSize(2)
+        assertThat(dispatchedBatches().flatten()).doesNotHaveDuplicates().hasSize(MAX_BATCH_SIZE * 2)
+
+        // The remaining ids are fetched once a batch completes
+        sut.onOrdersFetchedById(OnOrdersFetchedByIds(site, dispatchedBatches().first()))
+        assertThat(dispatchedBatches()).hasSize(3)
+        assertThat(dispatchedBatches().last()).hasSize(MAX_BATCH_SIZE)
+        assertThat(sut.getMetrics().averageIdsPerBatch).isEqualTo(MAX_BATCH_SIZE.toDouble())
+    }
+
+    @Test
+    fun `a batch completes when its request returns no orders or fails`() {
+        sut.fetchOrders(site, (1L..MAX_BATCH_SIZE * 3L).toList())
+        val (first, second) = dispatchedBatches()
+
+        // None of the requested orders were returned
+        sut.onOrdersFetchedById(OnOrdersFetchedByIds(site, orderIds = emptyList(), requestedOrderIds = first))
+        assertThat(dispatchedBatches()).hasSize(3)
+
+        sut.onOrdersFetchedById(OnOrdersFetchedByIds(site, second).apply { error = OrderError() })
+
+        // The ids of completed batches can be fetched again
+        sut.fetchOrders(site, first.take(1) + second.take(1))
+        runScheduledFlush()
+        assertThat(dispatchedBatches().last()).containsExactly(first.first(), second.first())
+    }
+
+    @Test
+    fun `the same ids of different sites are fetched separately`() {
+        val otherSite = SiteModel().apply { id = 2 }
+        sut.fetchOrders(site, listOf(1L))
+        sut.fetchOrders(otherSite, listOf(1L))
+        runScheduledFlush()
+
+        sut.onOrdersFetchedById(OnOrdersFetchedByIds(otherSite, listOf(1L)))
+        sut.fetchOrders(site, listOf(1L))
+        sut.fetchOrders(otherSite, listOf(1L))
+        runScheduledFlush(times = 2)
+
+        // The order of the first site is still being fetched
+        assertThat(dispatchedPayloads().map { it.site.id to it.orderIds }).containsExactly(
+                otherSite.id to listOf(1L),
+                site.id to listOf(1L),
+                otherSite.id to listOf(1L)
+        )
+    }
+
+    @Test
+    fun `batches only contain orders of a single site`() {
+        val otherSite = SiteModel().apply { id = 2 }
+        sut.fetchOrders(site, listOf(1L))
+        sut.fetchOrders(otherSite, listOf(10L))
+        runScheduledFlush()
+
+        val payloads = dispatchedPayloads()
+        assertThat(payloads.map { it.site.id to it.orderIds })
+                .containsExactly(otherSite.id to listOf(10L), site.id to listOf(1L))
+    }
+
+    private fun runScheduledFlush(times: Int = 1) {
+        argumentCaptor<Runnable>().apply {
+            verify(scheduler, times(times)).schedule(capture(), eq(COALESCE_WINDOW_MS), eq(MILLISECONDS))
+            lastValue.run()
+        }
+    }
+
+    private fun dispatchedPayloads(): List<FetchOrdersByIdsPayload> {
+        return argumentCaptor<Action<*>>().run {
+            verify(dispatcher, atLeastOnce()).dispatch(capture())
+            allValues.map { it.payload as FetchOrdersByIdsPayload }
+        }
+    }
+
+    private fun dispatchedBatches() = dispatchedPayloads().map { it.orderIds }
+}